@@ -0,0 +1,49 @@
+package org.example.microservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "load-balancer.latency-aware")
+public class LatencyAwareLoadBalancerProperties {
+
+    public enum Strategy {
+        /**
+         * Pick the candidate with fewer requests in flight.
+         */
+        LEAST_REQUESTS,
+        /**
+         * Pick the candidate with the lower peak-EWMA latency weighted by requests in flight.
+         */
+        PEAK_EWMA
+    }
+
+    /**
+     * Replaces the default round-robin balancer for every {@code lb://} service when true.
+     */
+    private boolean enabled = true;
+
+    private Strategy strategy = Strategy.PEAK_EWMA;
+
+    /**
+     * How quickly old latency samples stop influencing the moving average.
+     */
+    private Duration decayTime = Duration.ofSeconds(10);
+
+    /**
+     * Latency assumed for an instance before its first response, when no peer has been sampled either.
+     */
+    private Duration initialLatency = Duration.ofMillis(50);
+
+    /**
+     * Ramp-up window during which a newly seen instance receives a reduced share of traffic.
+     */
+    private Duration slowStart = Duration.ofSeconds(30);
+
+    /**
+     * Weight of an instance at the very start of its slow-start window, between 0 and 1.
+     */
+    private double slowStartMinWeight = 0.1;
+}
@@ -0,0 +1,28 @@
+package org.example.microservice.config;
+
+import org.example.microservice.loadbalancer.InstanceStatsRegistry;
+import org.example.microservice.loadbalancer.LatencyAwareLoadBalancerClientConfiguration;
+import org.example.microservice.loadbalancer.LatencyTrackingLifecycle;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "load-balancer.latency-aware", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LatencyAwareLoadBalancerProperties.class)
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerClientConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public InstanceStatsRegistry instanceStatsRegistry() {
+        return new InstanceStatsRegistry();
+    }
+
+    @Bean
+    public LatencyTrackingLifecycle latencyTrackingLifecycle(InstanceStatsRegistry registry,
+                                                             LatencyAwareLoadBalancerProperties properties) {
+        return new LatencyTrackingLifecycle(registry, properties.getDecayTime());
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.microservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "storefront")
+public class StorefrontProperties {
+    /**
+     * Base URL of the shopping-cart service, resolved through the load balancer.
+     */
+    private String shoppingCartUrl = "http://shopping-cart";
+
+    /**
+     * Base URL of the inventory service, resolved through the load balancer.
+     */
+    private String inventoryUrl = "http://inventory";
+
+    /**
+     * Time budget for the cart branch (open items plus their total).
+     */
+    private Duration cartTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Time budget for each product lookup in the inventory branch.
+     */
+    private Duration inventoryTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Maximum number of product lookups in flight for a single storefront request.
+     */
+    private int maxConcurrentLookups = 16;
+}
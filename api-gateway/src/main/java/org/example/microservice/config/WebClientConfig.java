@@ -0,0 +1,25 @@
+package org.example.microservice.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+@EnableConfigurationProperties(StorefrontProperties.class)
+public class WebClientConfig {
+
+    /**
+     * WebClient builder whose requests resolve service names through Eureka,
+     * the same way the {@code lb://} routes do. Also decodes CBOR, which the
+     * services answer with when asked for it.
+     */
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder()
+                .codecs(configurer -> configurer.customCodecs().register(new Jackson2CborDecoder()));
+    }
+}
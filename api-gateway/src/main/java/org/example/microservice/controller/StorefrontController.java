@@ -0,0 +1,25 @@
+package org.example.microservice.controller;
+
+import lombok.AllArgsConstructor;
+import org.example.microservice.dto.StorefrontResponse;
+import org.example.microservice.service.StorefrontService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/storefront")
+public class StorefrontController {
+    private final StorefrontService storefrontService;
+
+    @GetMapping
+    public Mono<StorefrontResponse> getStorefront(
+            @RequestParam(name = "productIds", required = false, defaultValue = "") List<Long> productIds) {
+        return storefrontService.getStorefront(productIds);
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.microservice.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class StorefrontResponse {
+    private List<JsonNode> cartItems;
+    private BigDecimal cartTotal;
+    private List<JsonNode> products;
+
+    /**
+     * Branch name (or {@code product/{id}}) to failure reason for every branch that did not complete.
+     */
+    private Map<String, String> errors;
+    private boolean partial;
+}
@@ -0,0 +1,66 @@
+package org.example.microservice.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load and latency bookkeeping for a single service instance. The moving average is peak-sensitive: a slower
+ * sample replaces the average immediately, faster samples pull it down gradually, and so does time without samples.
+ */
+public class InstanceStats {
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final long firstSeenNanos;
+    private double ewmaNanos = -1;
+    private long lastSampleNanos;
+
+    InstanceStats(long firstSeenNanos) {
+        this.firstSeenNanos = firstSeenNanos;
+        this.lastSampleNanos = firstSeenNanos;
+    }
+
+    void requestStarted() {
+        outstanding.incrementAndGet();
+    }
+
+    void requestCompleted() {
+        outstanding.updateAndGet(current -> current > 0 ? current - 1 : 0);
+    }
+
+    synchronized void recordLatency(long latencyNanos, long nowNanos, long decayNanos) {
+        if (ewmaNanos < 0 || latencyNanos > ewmaNanos) {
+            ewmaNanos = latencyNanos;
+        } else {
+            long elapsed = Math.max(0, nowNanos - lastSampleNanos);
+            double weight = Math.exp(-(double) elapsed / decayNanos);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastSampleNanos = nowNanos;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public synchronized boolean hasLatency() {
+        return ewmaNanos >= 0;
+    }
+
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+
+    /**
+     * The moving average as of {@code nowNanos}, decayed towards zero for the time since the last sample. An instance
+     * that stops being picked after one slow response would otherwise keep that response as its average for good.
+     */
+    public synchronized double getEwmaNanos(long nowNanos, long decayNanos) {
+        if (ewmaNanos < 0) {
+            return ewmaNanos;
+        }
+        long elapsed = Math.max(0, nowNanos - lastSampleNanos);
+        return ewmaNanos * Math.exp(-(double) elapsed / decayNanos);
+    }
+
+    public long getFirstSeenNanos() {
+        return firstSeenNanos;
+    }
+}
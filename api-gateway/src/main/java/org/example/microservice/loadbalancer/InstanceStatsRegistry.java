@@ -0,0 +1,60 @@
+package org.example.microservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Shared per-instance statistics, fed by {@link LatencyTrackingLifecycle} and read by
+ * {@link LatencyAwareLoadBalancer}. Entries for instances that drop out of the registry are discarded, so an
+ * instance that comes back starts over with a fresh slow-start window.
+ */
+public class InstanceStatsRegistry {
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> knownKeysByService = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public InstanceStatsRegistry() {
+        this(System::nanoTime);
+    }
+
+    public InstanceStatsRegistry(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    public long now() {
+        return nanoClock.getAsLong();
+    }
+
+    public InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), ignored -> new InstanceStats(now()));
+    }
+
+    /**
+     * Drops statistics of instances of {@code serviceId} that are no longer part of {@code instances}.
+     * Cheap when the instance set is unchanged since the previous call.
+     */
+    public void retain(String serviceId, List<ServiceInstance> instances) {
+        Set<String> current = new HashSet<>(instances.size() * 2);
+        for (ServiceInstance instance : instances) {
+            current.add(key(instance));
+        }
+        Set<String> previous = knownKeysByService.put(serviceId, current);
+        if (previous != null && !previous.equals(current)) {
+            for (String key : previous) {
+                if (!current.contains(key)) {
+                    stats.remove(key);
+                }
+            }
+        }
+    }
+
+    static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.microservice.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.config.LatencyAwareLoadBalancerProperties;
+import org.example.microservice.config.LatencyAwareLoadBalancerProperties.Strategy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power-of-two-choices balancer: samples two distinct instances at random and routes to the one with the lower
+ * cost. Cost is either the number of requests in flight or the peak-EWMA latency scaled by requests in flight,
+ * divided by a slow-start weight that ramps newly seen instances from {@code slowStartMinWeight} up to 1. The
+ * latency average decays while an instance goes unpicked, so one slow response does not keep it out for good.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry registry;
+    private final LatencyAwareLoadBalancerProperties properties;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId,
+                                    InstanceStatsRegistry registry,
+                                    LatencyAwareLoadBalancerProperties properties) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        registry.retain(serviceId, instances);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+
+        long now = registry.now();
+        long decayNanos = Math.max(1, properties.getDecayTime().toNanos());
+        double fallbackLatency = properties.getStrategy() == Strategy.PEAK_EWMA
+                ? fallbackLatency(instances, now, decayNanos)
+                : 0;
+        double costA = cost(registry.statsFor(a), now, decayNanos, fallbackLatency);
+        double costB = cost(registry.statsFor(b), now, decayNanos, fallbackLatency);
+        if (costA == costB) {
+            return new DefaultResponse(random.nextBoolean() ? a : b);
+        }
+        return new DefaultResponse(costA < costB ? a : b);
+    }
+
+    private double cost(InstanceStats stats, long now, long decayNanos, double fallbackLatency) {
+        double load = stats.getOutstanding() + 1;
+        double cost = properties.getStrategy() == Strategy.PEAK_EWMA
+                ? load * (stats.hasLatency() ? Math.max(1, stats.getEwmaNanos(now, decayNanos)) : fallbackLatency)
+                : load;
+        return cost / slowStartWeight(stats, now);
+    }
+
+    private double slowStartWeight(InstanceStats stats, long now) {
+        long window = properties.getSlowStart().toNanos();
+        if (window <= 0) {
+            return 1;
+        }
+        double age = now - stats.getFirstSeenNanos();
+        double minWeight = Math.min(1, Math.max(0.01, properties.getSlowStartMinWeight()));
+        return Math.min(1, Math.max(minWeight, age / window));
+    }
+
+    /**
+     * Latency assumed for an instance that has not answered yet: the mean of its sampled peers, so that a new
+     * instance is neither flooded nor starved, or the configured initial latency when nothing is known.
+     */
+    private double fallbackLatency(List<ServiceInstance> instances, long now, long decayNanos) {
+        double sum = 0;
+        int sampled = 0;
+        for (ServiceInstance instance : instances) {
+            InstanceStats stats = registry.statsFor(instance);
+            if (stats.hasLatency()) {
+                sum += stats.getEwmaNanos(now, decayNanos);
+                sampled++;
+            }
+        }
+        return sampled > 0 ? Math.max(1, sum / sampled) : Math.max(1, properties.getInitialLatency().toNanos());
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.microservice.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+import java.time.Duration;
+
+/**
+ * Records requests in flight and response latency for every load-balanced call, both the gateway routes and the
+ * {@code @LoadBalanced} WebClient.
+ */
+public class LatencyTrackingLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    private final InstanceStatsRegistry registry;
+    private final long decayNanos;
+
+    public LatencyTrackingLifecycle(InstanceStatsRegistry registry, Duration decayTime) {
+        this.registry = registry;
+        this.decayNanos = Math.max(1, decayTime.toNanos());
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timedContext) {
+            timedContext.setRequestStartTime(registry.now());
+        }
+        registry.statsFor(lbResponse.getServer()).requestStarted();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        InstanceStats stats = registry.statsFor(lbResponse.getServer());
+        stats.requestCompleted();
+
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext timedContext
+                && timedContext.getRequestStartTime() > 0) {
+            long now = registry.now();
+            long latency = now - timedContext.getRequestStartTime();
+            if (completionContext.status() == CompletionContext.Status.FAILED) {
+                // A failed call says nothing good about the instance; count it as at least as slow as the average.
+                latency = Math.max(latency, (long) Math.max(0, stats.getEwmaNanos()));
+            }
+            stats.recordLatency(latency, now, decayNanos);
+        }
+    }
+}
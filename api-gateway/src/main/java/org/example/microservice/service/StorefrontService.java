@@ -0,0 +1,166 @@
+package org.example.microservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.config.StorefrontProperties;
+import org.example.microservice.dto.StorefrontResponse;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+@Service
+@Slf4j
+public class StorefrontService {
+    private final WebClient webClient;
+    private final StorefrontProperties properties;
+
+    public StorefrontService(WebClient.Builder loadBalancedWebClientBuilder, StorefrontProperties properties) {
+        this.webClient = loadBalancedWebClientBuilder.build();
+        this.properties = properties;
+    }
+
+    /**
+     * Builds the storefront payload in a single pass. The cart branch (open items, then their total) and the
+     * inventory branch (one lookup per product) run concurrently; a failure or timeout in one branch is reported
+     * in {@link StorefrontResponse#getErrors()} and does not fail the other.
+     *
+     * @param productIds the IDs of the products shown on the page
+     * @return the merged storefront payload
+     */
+    public Mono<StorefrontResponse> getStorefront(List<Long> productIds) {
+        log.info("Building storefront for product IDs: {}", productIds);
+        Mono<CartBranch> cart = fetchCart();
+        Mono<List<Branch<JsonNode>>> products = Flux.fromIterable(productIds)
+                .distinct()
+                .flatMapSequential(this::fetchProduct, Math.max(1, properties.getMaxConcurrentLookups()))
+                .collectList();
+
+        return Mono.zip(cart, products).map(tuple -> merge(tuple.getT1(), tuple.getT2()));
+    }
+
+    private Mono<CartBranch> fetchCart() {
+        return webClient.get()
+                .uri(properties.getShoppingCartUrl() + "/api/shopping-cart/all-items")
+                .accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .map(StorefrontService::elements)
+                .timeout(properties.getCartTimeout())
+                .flatMap(items -> fetchCartTotal(items).map(total -> new CartBranch(Branch.ok(items), total)))
+                .onErrorResume(ex -> {
+                    String reason = describe(ex, properties.getCartTimeout());
+                    log.warn("Storefront cart branch failed: {}", reason);
+                    return Mono.just(new CartBranch(Branch.failed("cartItems", reason),
+                            Branch.failed("cartTotal", "cart items unavailable")));
+                });
+    }
+
+    private Mono<Branch<BigDecimal>> fetchCartTotal(List<JsonNode> items) {
+        List<Long> ids = new ArrayList<>(items.size());
+        for (JsonNode item : items) {
+            if (item.hasNonNull("id")) {
+                ids.add(item.get("id").asLong());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Mono.just(Branch.ok(BigDecimal.ZERO));
+        }
+        return webClient.post()
+                .uri(properties.getShoppingCartUrl() + "/api/shopping-cart/add-total")
+                .accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON)
+                .bodyValue(ids)
+                .retrieve()
+                .bodyToMono(BigDecimal.class)
+                .timeout(properties.getCartTimeout())
+                .map(Branch::ok)
+                .onErrorResume(ex -> {
+                    String reason = describe(ex, properties.getCartTimeout());
+                    log.warn("Storefront cart total failed: {}", reason);
+                    return Mono.just(Branch.failed("cartTotal", reason));
+                });
+    }
+
+    private Mono<Branch<JsonNode>> fetchProduct(Long id) {
+        return webClient.get()
+                .uri(properties.getInventoryUrl() + "/api/inventory/product/{id}", id)
+                .accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(properties.getInventoryTimeout())
+                .map(Branch::ok)
+                .onErrorResume(ex -> {
+                    String reason = describe(ex, properties.getInventoryTimeout());
+                    log.warn("Storefront lookup for product ID {} failed: {}", id, reason);
+                    return Mono.just(Branch.failed("product/" + id, reason));
+                });
+    }
+
+    private StorefrontResponse merge(CartBranch cart, List<Branch<JsonNode>> productBranches) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        cart.items().collectError(errors);
+        cart.total().collectError(errors);
+
+        List<JsonNode> products = new ArrayList<>(productBranches.size());
+        for (Branch<JsonNode> branch : productBranches) {
+            if (branch.value() != null) {
+                products.add(branch.value());
+            }
+            branch.collectError(errors);
+        }
+
+        return StorefrontResponse.builder()
+                .cartItems(cart.items().value() != null ? cart.items().value() : List.of())
+                .cartTotal(cart.total().value())
+                .products(products)
+                .errors(errors)
+                .partial(!errors.isEmpty())
+                .build();
+    }
+
+    // Read as one document rather than a Flux: the CBOR decoder does not split top-level arrays.
+    private static List<JsonNode> elements(JsonNode array) {
+        List<JsonNode> items = new ArrayList<>(array.size());
+        array.forEach(items::add);
+        return items;
+    }
+
+    private static String describe(Throwable ex, Duration timeout) {
+        if (ex instanceof TimeoutException) {
+            return "timed out after " + timeout.toMillis() + " ms";
+        }
+        if (ex instanceof WebClientResponseException responseException) {
+            return "upstream responded " + responseException.getStatusCode().value();
+        }
+        return ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+    }
+
+    private record CartBranch(Branch<List<JsonNode>> items, Branch<BigDecimal> total) {
+    }
+
+    private record Branch<T>(T value, String name, String error) {
+        static <T> Branch<T> ok(T value) {
+            return new Branch<>(value, null, null);
+        }
+
+        static <T> Branch<T> failed(String name, String error) {
+            return new Branch<>(null, name, error);
+        }
+
+        void collectError(Map<String, String> errors) {
+            if (error != null) {
+                errors.put(name, error);
+            }
+        }
+    }
+}
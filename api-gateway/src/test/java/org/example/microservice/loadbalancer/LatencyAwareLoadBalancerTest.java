@@ -0,0 +1,201 @@
+package org.example.microservice.loadbalancer;
+
+import org.example.microservice.config.LatencyAwareLoadBalancerProperties;
+import org.example.microservice.config.LatencyAwareLoadBalancerProperties.Strategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives the balancer and the lifecycle together against stub instances with a simulated clock, the way the
+ * gateway does for every routed request.
+ */
+public class LatencyAwareLoadBalancerTest {
+
+    private final AtomicLong clock = new AtomicLong(1);
+    private final List<ServiceInstance> instances = new ArrayList<>();
+
+    private LatencyAwareLoadBalancerProperties properties;
+    private InstanceStatsRegistry registry;
+    private LatencyTrackingLifecycle lifecycle;
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new LatencyAwareLoadBalancerProperties();
+        properties.setSlowStart(Duration.ZERO);
+        registry = new InstanceStatsRegistry(clock::get);
+        lifecycle = new LatencyTrackingLifecycle(registry, properties.getDecayTime());
+
+        ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return "inventory";
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(List.copyOf(instances));
+            }
+        };
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("supplier", supplier);
+        loadBalancer = new LatencyAwareLoadBalancer(beanFactory.getBeanProvider(ServiceInstanceListSupplier.class),
+                "inventory", registry, properties);
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance("inventory-" + port, "inventory", "localhost", port, false);
+    }
+
+    private ServiceInstance choose() {
+        Response<ServiceInstance> response = loadBalancer.choose(new DefaultRequest<>()).block();
+        assertNotNull(response);
+        assertTrue(response.hasServer());
+        return response.getServer();
+    }
+
+    /**
+     * Routes one request and completes it after the latency configured for the chosen instance.
+     */
+    private ServiceInstance route(Map<Integer, Duration> latencies) {
+        ServiceInstance server = choose();
+        Request<Object> request = new DefaultRequest<>(new DefaultRequestContext());
+        Response<ServiceInstance> lbResponse = new DefaultResponse(server);
+        lifecycle.onStartRequest(request, lbResponse);
+        clock.addAndGet(latencies.get(server.getPort()).toNanos());
+        lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse));
+        return server;
+    }
+
+    @Test
+    public void testSlowInstanceReceivesLittleTraffic() {
+        instances.add(instance(8081));
+        instances.add(instance(8082));
+        instances.add(instance(8083));
+        Map<Integer, Duration> latencies = Map.of(
+                8081, Duration.ofMillis(10),
+                8082, Duration.ofMillis(10),
+                8083, Duration.ofMillis(400));
+
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            hits.merge(route(latencies).getPort(), 1, Integer::sum);
+        }
+
+        assertTrue(hits.getOrDefault(8083, 0) < 300, "slow instance share: " + hits);
+        assertTrue(hits.get(8081) > 1000, "fast instance share: " + hits);
+        assertTrue(hits.get(8082) > 1000, "fast instance share: " + hits);
+    }
+
+    @Test
+    public void testInstanceIsTriedAgainAfterOneSlowResponse() {
+        properties.setDecayTime(Duration.ofSeconds(1));
+        lifecycle = new LatencyTrackingLifecycle(registry, properties.getDecayTime());
+        instances.add(instance(8081));
+        instances.add(instance(8082));
+        Map<Integer, Duration> firstResponseSlow = Map.of(
+                8081, Duration.ofMillis(10),
+                8082, Duration.ofSeconds(2));
+        Map<Integer, Duration> latencies = Map.of(
+                8081, Duration.ofMillis(10),
+                8082, Duration.ofMillis(10));
+
+        while (route(firstResponseSlow).getPort() != 8082) {
+            // Keep routing until the second instance has answered once, slowly.
+        }
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            hits.merge(route(latencies).getPort(), 1, Integer::sum);
+        }
+
+        assertTrue(hits.getOrDefault(8082, 0) > 1000, "instance with one slow response: " + hits);
+    }
+
+    @Test
+    public void testLeastRequestsAvoidsBusyInstance() {
+        properties.setStrategy(Strategy.LEAST_REQUESTS);
+        ServiceInstance busy = instance(8081);
+        instances.add(busy);
+        instances.add(instance(8082));
+        for (int i = 0; i < 5; i++) {
+            lifecycle.onStartRequest(new DefaultRequest<>(new DefaultRequestContext()), new DefaultResponse(busy));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(8082, choose().getPort());
+        }
+    }
+
+    @Test
+    public void testNewInstanceRampsUpDuringSlowStart() {
+        properties.setSlowStart(Duration.ofSeconds(30));
+        properties.setSlowStartMinWeight(0.1);
+        instances.add(instance(8081));
+        instances.add(instance(8082));
+        Map<Integer, Duration> latencies = Map.of(
+                8081, Duration.ofMillis(20),
+                8082, Duration.ofMillis(20),
+                8083, Duration.ofMillis(20));
+
+        // Warm the existing instances past their own slow-start window.
+        for (int i = 0; i < 200; i++) {
+            route(latencies);
+        }
+        clock.addAndGet(Duration.ofSeconds(60).toNanos());
+
+        instances.add(instance(8083));
+        int earlyHits = 0;
+        for (int i = 0; i < 300; i++) {
+            if (route(latencies).getPort() == 8083) {
+                earlyHits++;
+            }
+        }
+        assertTrue(earlyHits < 60, "new instance hits right after registration: " + earlyHits);
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        int lateHits = 0;
+        for (int i = 0; i < 3000; i++) {
+            if (route(latencies).getPort() == 8083) {
+                lateHits++;
+            }
+        }
+        assertTrue(lateHits > 700, "new instance hits after slow start: " + lateHits);
+    }
+
+    @Test
+    public void testRemovedInstanceStartsOverWhenItReturns() {
+        ServiceInstance returning = instance(8082);
+        instances.add(instance(8081));
+        instances.add(returning);
+        choose();
+        long firstSeen = registry.statsFor(returning).getFirstSeenNanos();
+
+        instances.remove(returning);
+        clock.addAndGet(1000);
+        choose();
+        instances.add(returning);
+        choose();
+
+        assertTrue(registry.statsFor(returning).getFirstSeenNanos() > firstSeen);
+    }
+}
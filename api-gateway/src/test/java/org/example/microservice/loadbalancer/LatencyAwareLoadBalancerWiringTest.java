@@ -0,0 +1,338 @@
+package org.example.microservice.loadbalancer;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import com.sun.net.httpserver.HttpServer;
+import org.example.microservice.ApiGatewayApplication;
+import org.example.microservice.config.LatencyAwareLoadBalancerProperties;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.netflix.eureka.http.WebClientDiscoveryClientOptionalArgs;
+import org.springframework.cloud.netflix.eureka.http.WebClientTransportClientFactories;
+import org.springframework.cloud.netflix.eureka.server.EnableEurekaServer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the gateway against an embedded Eureka server with stub inventory instances registered in it, and sends
+ * traffic through the {@code lb://inventory} route. Checks that the latency-aware balancer the route resolves
+ * steers traffic away from a slow instance and ramps a newly registered instance up over its slow-start window.
+ * <p>
+ * Every test first routes warm-up traffic to an instance of its own and then swaps it for the instances under test,
+ * so those start with fresh statistics and are measured against a warmed-up gateway.
+ */
+@SpringBootTest(classes = ApiGatewayApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.main.web-application-type=reactive",
+        "eureka.client.register-with-eureka=false",
+        "eureka.client.registry-fetch-interval-seconds=1",
+        "eureka.client.disable-delta=true",
+        "spring.cloud.loadbalancer.cache.enabled=false",
+        "load-balancer.latency-aware.strategy=PEAK_EWMA",
+        "load-balancer.latency-aware.decay-time=1s",
+        "logging.level.org.springframework.cloud.gateway=INFO"
+})
+@Import(LatencyAwareLoadBalancerWiringTest.ReactiveGatewayConfig.class)
+@DirtiesContext
+public class LatencyAwareLoadBalancerWiringTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancerWiringTest.class);
+
+    private static final Duration SLOW_DELAY = Duration.ofMillis(100);
+    private static final Duration SLOW_START = Duration.ofSeconds(5);
+
+    private static ConfigurableApplicationContext eureka;
+    private static StubInstance warmUp;
+    private static StubInstance fastA;
+    private static StubInstance fastB;
+    private static StubInstance slow;
+    private static StubInstance late;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private LoadBalancerClientFactory clientFactory;
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    @Autowired
+    private LatencyAwareLoadBalancerProperties properties;
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableAutoConfiguration
+    @EnableEurekaServer
+    static class EmbeddedEurekaServer {
+    }
+
+    /**
+     * The Eureka server brings Spring MVC, Tomcat and the Jersey client onto the test classpath. Keeps the gateway on
+     * Netty, and its Eureka client on WebClient, which Spring Cloud only picks by itself when Jersey is absent. The
+     * builder is a plain one: the gateway's own is load-balanced and would treat the Eureka host as a service name.
+     */
+    @TestConfiguration(proxyBeanMethods = false)
+    static class ReactiveGatewayConfig {
+        @Bean
+        public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+            return new NettyReactiveWebServerFactory();
+        }
+
+        @Bean
+        public WebClientTransportClientFactories webClientTransportClientFactories() {
+            return new WebClientTransportClientFactories(WebClient::builder);
+        }
+
+        @Bean
+        public WebClientDiscoveryClientOptionalArgs webClientDiscoveryClientOptionalArgs() {
+            return new WebClientDiscoveryClientOptionalArgs(WebClient::builder);
+        }
+    }
+
+    /**
+     * An inventory instance that answers every request with its own port, after an optional delay.
+     */
+    private static final class StubInstance {
+        private final HttpServer server;
+        private InstanceInfo registration;
+
+        StubInstance(Duration delay) throws IOException {
+            server = HttpServer.create(new InetSocketAddress(0), 0);
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(delay.toMillis());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = Integer.toString(port()).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        }
+
+        int port() {
+            return server.getAddress().getPort();
+        }
+
+        InstanceInfo newRegistration() {
+            return InstanceInfo.Builder.newBuilder()
+                    .setAppName("INVENTORY")
+                    .setVIPAddress("inventory")
+                    .setInstanceId("localhost:inventory:" + port())
+                    .setHostName("localhost")
+                    .setIPAddr("127.0.0.1")
+                    .setPort(port())
+                    .setStatus(InstanceInfo.InstanceStatus.UP)
+                    .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                    .setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                            .setRenewalIntervalInSecs(30)
+                            .setDurationInSecs(600)
+                            .build())
+                    .build();
+        }
+    }
+
+    @DynamicPropertySource
+    static void eurekaProperties(DynamicPropertyRegistry registry) {
+        // Without it the stubs' responses wait out the gateway's delayed ACK, ~40ms each.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            warmUp = new StubInstance(Duration.ZERO);
+            fastA = new StubInstance(Duration.ZERO);
+            fastB = new StubInstance(Duration.ZERO);
+            slow = new StubInstance(SLOW_DELAY);
+            late = new StubInstance(Duration.ZERO);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int eurekaPort = freePort();
+        String serviceUrl = "http://localhost:" + eurekaPort + "/eureka/";
+        eureka = new SpringApplicationBuilder(EmbeddedEurekaServer.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--spring.config.name=embedded-eureka",
+                        "--server.port=" + eurekaPort,
+                        // Pointing the server at itself keeps it from replicating to a peer on the default port.
+                        "--eureka.client.serviceUrl.defaultZone=" + serviceUrl,
+                        "--spring.application.name=discovery-server",
+                        "--spring.cloud.gateway.enabled=false",
+                        "--eureka.client.register-with-eureka=false",
+                        "--eureka.client.fetch-registry=false",
+                        "--eureka.server.use-read-only-response-cache=false",
+                        "--eureka.server.enable-self-preservation=false",
+                        "--eureka.server.wait-time-in-ms-when-sync-empty=0");
+        registry.add("eureka.client.serviceUrl.defaultZone", () -> serviceUrl);
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @AfterAll
+    static void stopEurekaAndStubs() {
+        if (eureka != null) {
+            eureka.close();
+        }
+        for (StubInstance stub : Arrays.asList(warmUp, fastA, fastB, slow, late)) {
+            if (stub != null) {
+                stub.server.stop(0);
+            }
+        }
+    }
+
+    /**
+     * Leaves exactly {@code instances} registered in Eureka and waits until the gateway's discovery client sees them.
+     */
+    private void registerOnly(StubInstance... instances) throws InterruptedException {
+        PeerAwareInstanceRegistry registry = eureka.getBean(PeerAwareInstanceRegistry.class);
+        List<StubInstance> wanted = Arrays.asList(instances);
+        for (StubInstance stub : Arrays.asList(warmUp, fastA, fastB, slow, late)) {
+            if (stub.registration != null && !wanted.contains(stub)) {
+                registry.cancel("INVENTORY", stub.registration.getId(), false);
+                stub.registration = null;
+            } else if (stub.registration == null && wanted.contains(stub)) {
+                stub.registration = stub.newRegistration();
+                registry.register(stub.registration, false);
+            }
+        }
+        Set<Integer> ports = wanted.stream().map(StubInstance::port).collect(Collectors.toSet());
+        await(() -> discoveredPorts().equals(ports), Duration.ofSeconds(15));
+    }
+
+    private Set<Integer> discoveredPorts() {
+        return discoveryClient.getInstances("inventory").stream()
+                .map(ServiceInstance::getPort)
+                .collect(Collectors.toSet());
+    }
+
+    private static void await(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + timeout);
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Sends requests one at a time through the inventory route until {@code count} have been answered or
+     * {@code until} (a {@link System#nanoTime()} deadline) has passed, and returns how many each port answered.
+     */
+    private Map<Integer, Integer> route(int count, long until) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/inventory/probe"))
+                .GET()
+                .build();
+        Map<Integer, Integer> answered = new HashMap<>();
+        for (int i = 0; i < count && System.nanoTime() < until; i++) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            answered.merge(Integer.parseInt(response.body()), 1, Integer::sum);
+        }
+        return answered;
+    }
+
+    private Map<Integer, Integer> route(int count) throws IOException, InterruptedException {
+        return route(count, Long.MAX_VALUE);
+    }
+
+    private void warmUpGateway() throws IOException, InterruptedException {
+        registerOnly(warmUp);
+        assertEquals(Map.of(warmUp.port(), 200), route(200));
+    }
+
+    private static int share(Map<Integer, Integer> answered, StubInstance instance) {
+        return answered.getOrDefault(instance.port(), 0);
+    }
+
+    @Test
+    public void testSlowInstanceGetsSmallerShare() throws IOException, InterruptedException {
+        assertInstanceOf(LatencyAwareLoadBalancer.class, clientFactory.getInstance("inventory"));
+        properties.setSlowStart(Duration.ZERO);
+        warmUpGateway();
+        registerOnly(fastA, fastB, slow);
+
+        int requests = 300;
+        Map<Integer, Integer> answered = route(requests);
+        log.info("Fast instances answered {} and {}, slow instance {} of {} requests",
+                share(answered, fastA), share(answered, fastB), share(answered, slow), requests);
+
+        // Round robin would give each instance a third.
+        assertTrue(share(answered, slow) < requests / 10, "slow instance answered " + answered);
+        assertTrue(share(answered, fastA) > requests / 5, "first fast instance answered " + answered);
+        assertTrue(share(answered, fastB) > requests / 5, "second fast instance answered " + answered);
+    }
+
+    @Test
+    public void testNewInstanceRampsUpDuringSlowStart() throws IOException, InterruptedException {
+        properties.setSlowStart(SLOW_START);
+        properties.setSlowStartMinWeight(0.1);
+        warmUpGateway();
+        registerOnly(fastA, fastB);
+        route(100);
+
+        registerOnly(fastA, fastB, late);
+        long start = System.nanoTime();
+        Map<Integer, Integer> early = route(Integer.MAX_VALUE, start + SLOW_START.toNanos() / 5);
+        Thread.sleep(Math.max(0, Duration.ofNanos(start + SLOW_START.toNanos() - System.nanoTime()).toMillis()));
+        Map<Integer, Integer> settled = route(300);
+
+        int earlyTotal = early.values().stream().mapToInt(Integer::intValue).sum();
+        log.info("New instance answered {} of {} requests early in slow-start, {} of 300 after it",
+                share(early, late), earlyTotal, share(settled, late));
+
+        assertTrue(earlyTotal >= 50, "only " + earlyTotal + " requests early in slow-start");
+        assertTrue(share(early, late) < earlyTotal / 10, "new instance answered " + early);
+        assertTrue(share(settled, late) > 300 / 8, "new instance answered " + settled);
+    }
+}
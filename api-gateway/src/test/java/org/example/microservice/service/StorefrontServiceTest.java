@@ -0,0 +1,155 @@
+package org.example.microservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.microservice.config.StorefrontProperties;
+import org.example.microservice.dto.StorefrontResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorefrontServiceTest {
+
+    private final Map<String, Mono<ClientResponse>> responses = new HashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private StorefrontService storefrontService;
+
+    @BeforeEach
+    public void setUp() {
+        StorefrontProperties properties = new StorefrontProperties();
+        properties.setCartTimeout(Duration.ofMillis(200));
+        properties.setInventoryTimeout(Duration.ofMillis(200));
+
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(this::exchange);
+        storefrontService = new StorefrontService(builder, properties);
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request) {
+        requests.incrementAndGet();
+        Mono<ClientResponse> response = responses.get(request.method() + " " + request.url().getPath());
+        return response != null ? response : Mono.just(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+    }
+
+    private static Mono<ClientResponse> json(String body) {
+        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build());
+    }
+
+    @Test
+    public void testGetStorefront_AllBranchesSucceed() {
+        responses.put("GET /api/shopping-cart/all-items", json("[{\"id\":7,\"quantity\":2},{\"id\":8,\"quantity\":1}]"));
+        responses.put("POST /api/shopping-cart/add-total", json("30.00"));
+        responses.put("GET /api/inventory/product/1", json("{\"id\":1,\"name\":\"Product 1\"}"));
+        responses.put("GET /api/inventory/product/2", json("{\"id\":2,\"name\":\"Product 2\"}"));
+
+        StepVerifier.create(storefrontService.getStorefront(List.of(1L, 2L)))
+                .assertNext(response -> {
+                    assertEquals(2, response.getCartItems().size());
+                    assertEquals(new BigDecimal("30.00"), response.getCartTotal());
+                    assertEquals(2, response.getProducts().size());
+                    assertEquals(1L, response.getProducts().get(0).get("id").asLong());
+                    assertEquals(2L, response.getProducts().get(1).get("id").asLong());
+                    assertTrue(response.getErrors().isEmpty());
+                    assertFalse(response.isPartial());
+                })
+                .verifyComplete();
+        assertEquals(4, requests.get());
+    }
+
+    private static Mono<ClientResponse> cbor(Object body) {
+        try {
+            ExchangeStrategies strategies = ExchangeStrategies.builder()
+                    .codecs(configurer -> configurer.customCodecs().register(new Jackson2CborDecoder()))
+                    .build();
+            return Mono.just(ClientResponse.create(HttpStatus.OK, strategies)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_CBOR_VALUE)
+                    .body(Flux.just(new DefaultDataBufferFactory().wrap(new CBORMapper().writeValueAsBytes(body))))
+                    .build());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    public void testGetStorefront_CborResponses() {
+        responses.put("GET /api/shopping-cart/all-items", cbor(List.of(Map.of("id", 7, "productId", 1, "quantity", 2))));
+        responses.put("POST /api/shopping-cart/add-total", cbor(new BigDecimal("300.00")));
+        responses.put("GET /api/inventory/product/1", cbor(Map.of("id", 1, "name", "Product 1")));
+
+        StepVerifier.create(storefrontService.getStorefront(List.of(1L)))
+                .assertNext(response -> {
+                    assertEquals(7L, response.getCartItems().get(0).get("id").asLong());
+                    assertEquals(0, new BigDecimal("300.00").compareTo(response.getCartTotal()));
+                    assertEquals("Product 1", response.getProducts().get(0).get("name").asText());
+                    assertFalse(response.isPartial());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetStorefront_EmptyCartSkipsTotal() {
+        responses.put("GET /api/shopping-cart/all-items", json("[]"));
+
+        StepVerifier.create(storefrontService.getStorefront(List.of()))
+                .assertNext(response -> {
+                    assertTrue(response.getCartItems().isEmpty());
+                    assertEquals(BigDecimal.ZERO, response.getCartTotal());
+                    assertFalse(response.isPartial());
+                })
+                .verifyComplete();
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testGetStorefront_ProductMissingIsPartial() {
+        responses.put("GET /api/shopping-cart/all-items", json("[]"));
+        responses.put("GET /api/inventory/product/1", json("{\"id\":1,\"name\":\"Product 1\"}"));
+
+        StepVerifier.create(storefrontService.getStorefront(List.of(1L, 2L)))
+                .assertNext(response -> {
+                    assertEquals(1, response.getProducts().size());
+                    assertEquals("upstream responded 404", response.getErrors().get("product/2"));
+                    assertTrue(response.isPartial());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetStorefront_CartTimeoutKeepsInventoryBranch() {
+        responses.put("GET /api/shopping-cart/all-items", json("[]").delayElement(Duration.ofSeconds(5)));
+        responses.put("GET /api/inventory/product/1", json("{\"id\":1,\"name\":\"Product 1\"}"));
+
+        StorefrontResponse response = storefrontService.getStorefront(List.of(1L)).block(Duration.ofSeconds(2));
+
+        assertNotNull(response);
+        assertTrue(response.getCartItems().isEmpty());
+        assertNull(response.getCartTotal());
+        assertEquals(1, response.getProducts().size());
+        assertEquals("timed out after 200 ms", response.getErrors().get("cartItems"));
+        assertTrue(response.getErrors().containsKey("cartTotal"));
+        assertTrue(response.isPartial());
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.catalog.CatalogIndex;
+import org.example.microservice.model.Product;
+import org.example.microservice.pricing.PricingEngine;
+import org.example.microservice.service.InventoryService;
+import org.example.microservice.stock.StockAllocator;
+import org.example.microservice.stock.StockProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code InventoryService} product lookups by ID and by UPC, answered by the repository ({@code *_repository})
+ * and by a {@link CatalogIndex} holding the same {@value #PRODUCTS} products ({@code *_index}). {@code readRow}
+ * is the index read alone, without the copy into a {@code Product} the service returns. Run with the GC
+ * profiler, which {@link BenchmarkRunner} adds, to compare the bytes allocated per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CatalogLookupBenchmark {
+    static final int PRODUCTS = 1_000;
+
+    @Param({"IN_MEMORY", "H2"})
+    ServiceFixture.Backend backend;
+
+    ServiceFixture fixture;
+    InventoryService indexedService;
+    CatalogIndex catalogIndex;
+    List<Product> products;
+    private final CatalogIndex.Row row = new CatalogIndex.Row();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void openFixture() {
+        fixture = backend.open();
+        products = fixture.seedProducts(PRODUCTS, 100);
+        catalogIndex = new CatalogIndex(PricingEngine.standard(), PRODUCTS);
+        products.forEach(catalogIndex::put);
+        indexedService = new InventoryService(fixture.inventoryRepository(), event -> {
+        }, new StockAllocator(null, null, null, null, new StockProperties()), catalogIndex);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private Product nextProduct() {
+        next = (next + 1) % products.size();
+        return products.get(next);
+    }
+
+    @Benchmark
+    public Product byId_repository() {
+        return fixture.inventoryService().getProductById(nextProduct().getId());
+    }
+
+    @Benchmark
+    public Product byId_index() {
+        return indexedService.getProductById(nextProduct().getId());
+    }
+
+    @Benchmark
+    public Product byUpc_repository() {
+        return fixture.inventoryService().getProductByUpc(nextProduct().getUpc());
+    }
+
+    @Benchmark
+    public Product byUpc_index() {
+        return indexedService.getProductByUpc(nextProduct().getUpc());
+    }
+
+    @Benchmark
+    public long readRow() {
+        return catalogIndex.read(catalogIndex.slotOf(nextProduct().getId()), row) ? row.getRetailPrice()
+                : CatalogIndex.NO_PRICE;
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.exception.DomainException;
+import org.example.microservice.problem.ProblemProperties;
+import org.example.microservice.problem.ProblemResponses;
+import org.example.microservice.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A lookup of a product ID that does not exist, answered {@code depth} frames below the exception handler to stand
+ * in for the servlet and Spring MVC frames a request passes through. Both arms run on the in-memory backend, so the
+ * lookup itself costs a map read.
+ * <p>
+ * {@code oldPath} is the miss as the services answered it before domain exceptions: the lookup logs
+ * {@code Product with ID: ... not found} at ERROR through {@link InventoryService}'s logger and throws an exception
+ * that fills in its stack trace, and the handler answers with the message as a plain string. {@code newPath} calls
+ * {@link InventoryService#getProductById(Long)}, which throws the stackless {@code ProductNotFoundException}, and
+ * answers through {@link ProblemResponses#of(DomainException)}, which logs at WARN at most once per interval. The
+ * benchmark logback configuration formats and writes both loggers' events and discards the bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ErrorPathBenchmark {
+    static final long MISSING_ID = Long.MAX_VALUE;
+
+    private static final Logger oldServiceLog = LoggerFactory.getLogger(InventoryService.class);
+
+    @Param({"16", "128"})
+    int depth;
+
+    ServiceFixture fixture;
+    ProblemResponses problemResponses;
+
+    private static final class StackTracedNotFoundException extends RuntimeException {
+        StackTracedNotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    @Setup
+    public void openFixture() {
+        fixture = ServiceFixture.Backend.IN_MEMORY.open();
+        fixture.seedProducts(100, 100);
+        problemResponses = new ProblemResponses(new ProblemProperties());
+    }
+
+    @TearDown
+    public void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    /**
+     * The old {@code InventoryService.getProductById}.
+     */
+    private void oldLookUp(Long id) {
+        oldServiceLog.info("Retrieving product by ID: {}", id);
+        fixture.inventoryRepository().findById(id)
+                .orElseThrow(() -> {
+                    oldServiceLog.error("Product with ID: {} not found", id);
+                    return new StackTracedNotFoundException("Product with ID " + id + " not found");
+                });
+    }
+
+    private void lookUpBelow(int frames, boolean oldPath) {
+        if (frames > 0) {
+            lookUpBelow(frames - 1, oldPath);
+            return;
+        }
+        if (oldPath) {
+            oldLookUp(MISSING_ID);
+        } else {
+            fixture.inventoryService().getProductById(MISSING_ID);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> oldPath() {
+        try {
+            lookUpBelow(depth, true);
+            throw new IllegalStateException("Product " + MISSING_ID + " was found");
+        } catch (StackTracedNotFoundException ex) {
+            return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> newPath() {
+        try {
+            lookUpBelow(depth, false);
+            throw new IllegalStateException("Product " + MISSING_ID + " was found");
+        } catch (DomainException ex) {
+            return problemResponses.of(ex);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.microservice.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-in for a Spring Data repository. Implements the CRUD methods the services call plus any
+ * derived queries registered with {@link #query}; everything else throws, so a benchmark that starts relying
+ * on a new repository method fails loudly instead of measuring a no-op.
+ */
+final class InMemoryTable<T> implements InvocationHandler {
+    private final Map<Long, T> rows = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Function<Object[], Object>> queries = new HashMap<>();
+    private final Function<T, Long> idGetter;
+    private final BiConsumer<T, Long> idSetter;
+    private Consumer<T> onSave = row -> {
+    };
+    private Runnable onClear = () -> {
+    };
+
+    InMemoryTable(Function<T, Long> idGetter, BiConsumer<T, Long> idSetter) {
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+    }
+
+    InMemoryTable<T> query(String methodName, Function<Object[], Object> implementation) {
+        queries.put(methodName, implementation);
+        return this;
+    }
+
+    InMemoryTable<T> onSave(Consumer<T> onSave) {
+        this.onSave = onSave;
+        return this;
+    }
+
+    InMemoryTable<T> onClear(Runnable onClear) {
+        this.onClear = onClear;
+        return this;
+    }
+
+    Collection<T> rows() {
+        return rows.values();
+    }
+
+    <R> R repository(Class<R> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+        int arity = args == null ? 0 : args.length;
+        if (method.getDeclaringClass() == Object.class) {
+            return switch (name) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                default -> "InMemoryTable[" + rows.size() + " rows]";
+            };
+        }
+        Function<Object[], Object> query = queries.get(name);
+        if (query != null) {
+            return query.apply(args);
+        }
+        return switch (name) {
+            case "save", "saveAndFlush" -> save(args[0]);
+            case "saveAll", "saveAllAndFlush" -> saveAll((Iterable<?>) args[0]);
+            // no other transaction can hold a row, so locking one is just finding it
+            case "findById", "lockById" -> Optional.ofNullable(rows.get((Long) args[0]));
+            case "findAllById" -> findAllById((Iterable<?>) args[0]);
+            case "existsById" -> rows.containsKey((Long) args[0]);
+            case "count" -> (long) rows.size();
+            case "flush" -> null;
+            default -> {
+                if (arity == 0 && name.equals("findAll")) {
+                    yield new ArrayList<>(rows.values());
+                }
+                if (arity == 0 && (name.equals("deleteAll") || name.equals("deleteAllInBatch"))) {
+                    rows.clear();
+                    onClear.run();
+                    yield null;
+                }
+                throw new UnsupportedOperationException(name + " is not supported by the in-memory repository");
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private T save(Object entity) {
+        T row = (T) entity;
+        Long id = idGetter.apply(row);
+        if (id == null) {
+            id = sequence.incrementAndGet();
+            idSetter.accept(row, id);
+        }
+        rows.put(id, row);
+        onSave.accept(row);
+        return row;
+    }
+
+    private List<T> findAllById(Iterable<?> ids) {
+        List<T> found = new ArrayList<>();
+        for (Object id : ids) {
+            T row = rows.get((Long) id);
+            if (row != null) {
+                found.add(row);
+            }
+        }
+        return found;
+    }
+
+    private List<T> saveAll(Iterable<?> entities) {
+        List<T> saved = new ArrayList<>();
+        for (Object entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+}
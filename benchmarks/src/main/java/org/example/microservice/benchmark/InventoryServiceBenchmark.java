@@ -0,0 +1,81 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code InventoryService} write paths. Every iteration starts from the same {@value #PRODUCTS} products;
+ * {@code addProduct_newUpc} inserts past them and {@code addProduct_existingUpc} takes the update branch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class InventoryServiceBenchmark {
+    static final int PRODUCTS = 1_000;
+
+    @Param({"IN_MEMORY", "H2"})
+    ServiceFixture.Backend backend;
+
+    ServiceFixture fixture;
+    List<Product> products;
+    private long inserted;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void openFixture() {
+        fixture = backend.open();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetProducts() {
+        fixture.inventoryRepository().deleteAllInBatch();
+        products = fixture.seedProducts(PRODUCTS, 100);
+        inserted = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private Product nextProduct() {
+        next = (next + 1) % products.size();
+        return products.get(next);
+    }
+
+    @Benchmark
+    public Product addProduct_newUpc() {
+        return fixture.inventoryService().addProduct(ServiceFixture.product("NEW-" + inserted++, 10));
+    }
+
+    @Benchmark
+    public Product addProduct_existingUpc() {
+        return fixture.inventoryService().addProduct(ServiceFixture.product(nextProduct().getUpc(), 10 + next));
+    }
+
+    @Benchmark
+    public Product updateProduct() {
+        Product patch = new Product();
+        patch.setRetailPrice(BigDecimal.valueOf(150 + next));
+        return fixture.inventoryService().updateProduct(nextProduct().getId(), patch);
+    }
+}
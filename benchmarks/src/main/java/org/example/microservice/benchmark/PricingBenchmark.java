@@ -0,0 +1,115 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.model.Product;
+import org.example.microservice.pricing.PricingEngine;
+import org.example.microservice.pricing.PricingProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totals a cart of {@code lines} lines with {@code rules} volume tiers, once with {@link BigDecimal} arithmetic
+ * the way the services priced lines before {@link PricingEngine}, once with the engine's minor units, and once
+ * through {@link PricingEngine#lineTotal(Product, int)}, which the services call with the products of their carts
+ * and which converts each product's price on the way in. The allocation rate reported by the GC profiler is the
+ * figure to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PricingBenchmark {
+    private static final BigDecimal BASIS_POINTS = BigDecimal.valueOf(10_000);
+
+    @Param({"10", "1000"})
+    int lines;
+
+    @Param({"0", "4"})
+    int rules;
+
+    PricingEngine engine;
+    private List<PricingProperties.Tier> tiers;
+    private BigDecimal[] unitPrices;
+    private long[] unitPricesMinor;
+    private Product[] products;
+    private int[] quantities;
+
+    @Setup
+    public void prepare() {
+        tiers = new ArrayList<>(rules);
+        for (int i = 1; i <= rules; i++) {
+            tiers.add(new PricingProperties.Tier(i * 5, i * 250));
+        }
+        PricingProperties properties = new PricingProperties();
+        properties.setTiers(tiers);
+        engine = new PricingEngine(properties);
+
+        Random random = new Random(42);
+        unitPrices = new BigDecimal[lines];
+        unitPricesMinor = new long[lines];
+        products = new Product[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            unitPrices[i] = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            unitPricesMinor[i] = engine.toMinorUnits(unitPrices[i]);
+            quantities[i] = 1 + random.nextInt(30);
+            products[i] = new Product((long) i, "UPC-" + i, "Product " + i, null, unitPrices[i], 100);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal line = unitPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            int basisPoints = 0;
+            for (PricingProperties.Tier tier : tiers) {
+                if (quantities[i] >= tier.getMinQuantity()) {
+                    basisPoints = tier.getDiscountBasisPoints();
+                }
+            }
+            if (basisPoints > 0) {
+                line = line.multiply(BASIS_POINTS.subtract(BigDecimal.valueOf(basisPoints)))
+                        .divide(BASIS_POINTS)
+                        .setScale(2, RoundingMode.HALF_EVEN);
+            }
+            total = total.add(line);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorUnits() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Math.addExact(total, engine.lineTotal(unitPricesMinor[i], quantities[i], PricingEngine.NO_PROMOTION));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long products() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Math.addExact(total, engine.lineTotal(products[i], quantities[i]));
+        }
+        return total;
+    }
+}
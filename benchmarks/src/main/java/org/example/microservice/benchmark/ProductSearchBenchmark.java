@@ -0,0 +1,91 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.search.ProductSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of {@link ProductSearchIndex} results over a catalog of {@code catalogSize} generated names, for a
+ * query of each kind. The SampleTime p99 is the figure to hold to the search latency target; {@code index}
+ * measures the incremental update applied on every product write.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductSearchBenchmark {
+    static final String[] BRANDS = {"Acme", "Northwind", "Contoso", "Fabrikam", "Globex", "Initech", "Umbrella",
+            "Hooli", "Vandelay", "Wonka", "Stark", "Wayne", "Tyrell", "Cyberdyne", "Soylent", "Oscorp"};
+    static final String[] ADJECTIVES = {"Organic", "Classic", "Crunchy", "Smoked", "Roasted", "Sparkling", "Spicy",
+            "Frozen", "Fresh", "Wholegrain", "Salted", "Sweet", "Creamy", "Dark", "Light", "Wild"};
+    static final String[] NOUNS = {"Apple Juice", "Orange Juice", "Chocolate Milk", "Peanut Butter", "Tomato Soup",
+            "Green Tea", "Coffee Beans", "Almonds", "Granola", "Yogurt", "Cheddar", "Salmon", "Pasta", "Rice",
+            "Olive Oil", "Honey", "Crackers", "Cereal", "Lemonade", "Hummus", "Tortillas", "Pretzels", "Salsa",
+            "Oatmeal", "Mustard", "Ketchup", "Pickles", "Walnuts", "Raisins", "Popcorn", "Sardines", "Noodles"};
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    ProductSearchIndex index;
+    private long nextId;
+
+    @Setup
+    public void buildIndex() {
+        index = new ProductSearchIndex(catalogSize);
+        Random random = new Random(42);
+        for (long id = 1; id <= catalogSize; id++) {
+            index.put(id, "UPC-" + id, name(random, id));
+        }
+        nextId = catalogSize + 1;
+    }
+
+    static String name(Random random, long id) {
+        return BRANDS[random.nextInt(BRANDS.length)] + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                + NOUNS[random.nextInt(NOUNS.length)] + " " + (100 + id % 900) + "g";
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits upc() {
+        return index.search("UPC-4242", 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits prefix() {
+        return index.search("cyberdyne sm", 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits substring() {
+        return index.search("salted peanut", 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits fuzzy() {
+        return index.search("choclate mlik", 0, 20);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.Hits shortQuery() {
+        return index.search("wo", 0, 20);
+    }
+
+    @Benchmark
+    public void index() {
+        long id = nextId++;
+        index.put(id, "UPC-" + id, "Wonka Sparkling Lemonade " + id);
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.microservice.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.microservice.dto.CartItemDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON vs CBOR encoding of the cart lines returned by {@code GET /api/shopping-cart/all-items}. Payload sizes
+ * for each {@code items} value are logged once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class SerializationBenchmark {
+    private static final Logger log = LoggerFactory.getLogger(SerializationBenchmark.class);
+    private static final TypeReference<List<CartItemDto>> CART_ITEMS = new TypeReference<>() {
+    };
+
+    @Param({"1", "20", "200"})
+    int items;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+    private List<CartItemDto> cartItems;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @Setup
+    public void prepare() throws IOException {
+        cartItems = new ArrayList<>(items);
+        for (long i = 1; i <= items; i++) {
+            cartItems.add(CartItemDto.builder()
+                    .id(i)
+                    .productId(1_000 + i)
+                    .unitPrice(new BigDecimal("149.99"))
+                    .quantity(2)
+                    .checkout(false)
+                    .totalAmount(new BigDecimal("299.98"))
+                    .build());
+        }
+        jsonBytes = json.writeValueAsBytes(cartItems);
+        cborBytes = cbor.writeValueAsBytes(cartItems);
+        log.info("{} cart items: JSON {} bytes, CBOR {} bytes", items, jsonBytes.length, cborBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writeJson() throws IOException {
+        return json.writeValueAsBytes(cartItems);
+    }
+
+    @Benchmark
+    public byte[] writeCbor() throws IOException {
+        return cbor.writeValueAsBytes(cartItems);
+    }
+
+    @Benchmark
+    public List<CartItemDto> readJson() throws IOException {
+        return json.readValue(jsonBytes, CART_ITEMS);
+    }
+
+    @Benchmark
+    public List<CartItemDto> readCbor() throws IOException {
+        return cbor.readValue(cborBytes, CART_ITEMS);
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.pricing.PricingEngine;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.ShoppingCartRepository;
+import org.example.microservice.sales.SalesProperties;
+import org.example.microservice.sales.SalesRollup;
+import org.example.microservice.service.InventoryService;
+import org.example.microservice.service.ShoppingCartService;
+import org.example.microservice.stock.StockAllocator;
+import org.example.microservice.stock.StockProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The services under test wired to one of the {@link Backend}s, together with the repositories the
+ * benchmarks use to seed and reset data.
+ */
+public record ServiceFixture(InventoryService inventoryService,
+                             ShoppingCartService shoppingCartService,
+                             InventoryRepository inventoryRepository,
+                             ShoppingCartRepository shoppingCartRepository,
+                             AutoCloseable resources) implements AutoCloseable {
+
+    /**
+     * Runs transaction callbacks as they are: the map-backed repositories have nothing to commit or roll back.
+     */
+    private static final PlatformTransactionManager NO_TRANSACTIONS = new PlatformTransactionManager() {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    };
+
+    public enum Backend {
+        /**
+         * Map-backed repository stand-ins: measures the service code alone.
+         */
+        IN_MEMORY {
+            @Override
+            ServiceFixture open() {
+                Map<String, Product> productsByUpc = new ConcurrentHashMap<>();
+                InMemoryTable<Product> products = new InMemoryTable<>(Product::getId, Product::setId);
+                products.onSave(product -> productsByUpc.put(product.getUpc(), product))
+                        .onClear(productsByUpc::clear)
+                        .query("findProductByUpc", args -> productsByUpc.get((String) args[0]));
+                InMemoryTable<ShoppingCart> carts = new InMemoryTable<>(ShoppingCart::getId, ShoppingCart::setId);
+                carts.query("findByIsCheckoutFalseAndQuantityGreaterThan", args -> carts.rows().stream()
+                        .filter(cart -> !cart.isCheckout() && cart.getQuantity() > (Integer) args[0])
+                        .collect(Collectors.toList()));
+
+                InventoryRepository inventoryRepository = products.repository(InventoryRepository.class);
+                ShoppingCartRepository shoppingCartRepository = carts.repository(ShoppingCartRepository.class);
+                ApplicationEventPublisher noEvents = event -> {
+                };
+                StockAllocator noBuckets = new StockAllocator(null, null, null, null, new StockProperties());
+                SalesProperties salesProperties = new SalesProperties();
+                salesProperties.setEnabled(false);
+                SalesRollup noRollups = new SalesRollup(null, null, null, null, null, salesProperties);
+                return new ServiceFixture(new InventoryService(inventoryRepository, noEvents, noBuckets, null),
+                        new ShoppingCartService(inventoryRepository, shoppingCartRepository, PricingEngine.standard(),
+                                noEvents, noBuckets, noRollups, new TransactionTemplate(NO_TRANSACTIONS), null),
+                        inventoryRepository, shoppingCartRepository, () -> {
+                });
+            }
+        },
+        /**
+         * Spring context with JPA repositories and transactions on an embedded H2 database: measures the
+         * service code together with Hibernate and JDBC.
+         */
+        H2 {
+            @Override
+            ServiceFixture open() {
+                AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+                // no scheduled sales backfill running alongside the measured operations
+                context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                        Map.of("sales.rollup.backfill-interval", "0s")));
+                context.register(EmbeddedDatabaseConfig.class);
+                context.refresh();
+                return new ServiceFixture(context.getBean(InventoryService.class),
+                        context.getBean(ShoppingCartService.class),
+                        context.getBean(InventoryRepository.class),
+                        context.getBean(ShoppingCartRepository.class),
+                        context);
+            }
+        };
+
+        abstract ServiceFixture open();
+    }
+
+    /**
+     * Inserts {@code count} products with UPCs {@code UPC-0 .. UPC-(count-1)}.
+     *
+     * @param count the number of products
+     * @param quantity the stock of each product
+     * @return the saved products, in UPC order
+     */
+    public List<Product> seedProducts(int count, int quantity) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product("UPC-" + i, quantity));
+        }
+        return inventoryRepository.saveAll(products);
+    }
+
+    public static Product product(String upc, int quantity) {
+        return new Product(null, upc, "Product " + upc, BigDecimal.valueOf(100), BigDecimal.valueOf(150), quantity);
+    }
+
+    @Override
+    public void close() throws Exception {
+        resources.close();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.dto.ShoppingCartDto;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ShoppingCartService} hot paths. Every iteration starts from the same data: {@value #PRODUCTS} products
+ * and {@code cartSize} open cart lines, which {@code getTotal} and {@code checkout} operate on.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ShoppingCartServiceBenchmark {
+    static final int PRODUCTS = 1_000;
+
+    @Param({"IN_MEMORY", "H2"})
+    ServiceFixture.Backend backend;
+
+    @Param({"10"})
+    int cartSize;
+
+    ServiceFixture fixture;
+    List<Product> products;
+    List<Long> cartIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void openFixture() {
+        fixture = backend.open();
+        products = fixture.seedProducts(PRODUCTS, 1_000_000_000);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCarts() {
+        fixture.shoppingCartRepository().deleteAllInBatch();
+        List<ShoppingCart> carts = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            Product product = products.get(i % products.size());
+            carts.add(ShoppingCart.builder()
+                    .product(product)
+                    .quantity(1)
+                    .totalAmount(product.getRetailPrice())
+                    .isCheckout(false)
+                    .build());
+        }
+        cartIds = new ArrayList<>(cartSize);
+        for (ShoppingCart cart : fixture.shoppingCartRepository().saveAll(carts)) {
+            cartIds.add(cart.getId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeFixture() throws Exception {
+        fixture.close();
+    }
+
+    private long nextProductId() {
+        next = (next + 1) % products.size();
+        return products.get(next).getId();
+    }
+
+    @Benchmark
+    public ShoppingCart addToCart_newCart() {
+        return fixture.shoppingCartService().addToCart(new ShoppingCartDto(0, nextProductId(), 1));
+    }
+
+    @Benchmark
+    public ShoppingCart addToCart_existingCart() {
+        long cartId = cartIds.get(next % cartIds.size());
+        return fixture.shoppingCartService().addToCart(new ShoppingCartDto(cartId, nextProductId(), 1));
+    }
+
+    @Benchmark
+    public BigDecimal getTotal() {
+        return fixture.shoppingCartService().getTotal(cartIds);
+    }
+
+    @Benchmark
+    public List<Object> checkout(OpenCarts openCarts) {
+        return fixture.shoppingCartService().checkout(cartIds);
+    }
+
+    /**
+     * Re-opens the cart lines before each {@code checkout} call so every invocation checks out the full cart
+     * instead of short-circuiting on already checked-out lines. Kept out of the other benchmarks because
+     * per-invocation setup adds its own timing overhead.
+     */
+    @State(Scope.Benchmark)
+    public static class OpenCarts {
+        @Setup(Level.Invocation)
+        public void reopen(ShoppingCartServiceBenchmark benchmark) {
+            List<ShoppingCart> carts = benchmark.fixture.shoppingCartRepository().findAllById(benchmark.cartIds);
+            for (ShoppingCart cart : carts) {
+                cart.setCheckout(false);
+            }
+            benchmark.fixture.shoppingCartRepository().saveAll(carts);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.model.Product;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.StockBucketRepository;
+import org.example.microservice.stock.StockAllocator;
+import org.example.microservice.stock.StockProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Eight threads checking out one product at once on the H2 backend, its stock split into {@code buckets}
+ * buckets; one bucket is the single hot row every checkout used to update. Each checkout transaction holds its
+ * row lock for {@code holdMicros} after allocating, standing in for the rest of a checkout's statements and
+ * their round trips to the database. With one bucket checkouts queue on that lock, so throughput should grow
+ * with the bucket count until the threads or the CPUs run out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class StockContentionBenchmark {
+    static final int STOCK = 1_000_000_000;
+
+    @Param({"1", "4", "16"})
+    int buckets;
+
+    @Param({"2000"})
+    int holdMicros;
+
+    private AnnotationConfigApplicationContext context;
+    StockAllocator stockAllocator;
+    private TransactionTemplate transactionTemplate;
+    long productId;
+
+    @Setup(Level.Trial)
+    public void openDatabase() {
+        context = new AnnotationConfigApplicationContext(EmbeddedDatabaseConfig.class);
+        InventoryRepository inventoryRepository = context.getBean(InventoryRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        StockProperties properties = new StockProperties();
+        properties.setEnabled(true);
+        properties.setCount(buckets);
+        stockAllocator = new StockAllocator(context.getBean(StockBucketRepository.class), inventoryRepository,
+                transactionTemplate, context, properties);
+
+        Product product = inventoryRepository.save(ServiceFixture.product("HOT", STOCK));
+        productId = product.getId();
+        stockAllocator.setStock(productId, STOCK);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean checkout() {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            boolean allocated = stockAllocator.allocate(productId, 1);
+            LockSupport.parkNanos(holdMicros * 1_000L);
+            return allocated;
+        }));
+    }
+}
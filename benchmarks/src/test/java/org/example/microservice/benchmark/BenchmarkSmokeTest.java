@@ -0,0 +1,157 @@
+package org.example.microservice.benchmark;
+
+import org.example.microservice.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every benchmark body once against each backend, so a change in the services that breaks a benchmark
+ * shows up in the build rather than on the next benchmark run.
+ */
+public class BenchmarkSmokeTest {
+
+    @ParameterizedTest
+    @EnumSource(ServiceFixture.Backend.class)
+    public void testShoppingCartServiceBenchmark(ServiceFixture.Backend backend) throws Exception {
+        ShoppingCartServiceBenchmark benchmark = new ShoppingCartServiceBenchmark();
+        benchmark.backend = backend;
+        benchmark.cartSize = 3;
+        benchmark.openFixture();
+        try {
+            benchmark.resetCarts();
+            assertNotNull(benchmark.addToCart_newCart().getId());
+            assertTrue(benchmark.cartIds.contains(benchmark.addToCart_existingCart().getId()));
+            assertEquals(0, BigDecimal.valueOf(450).compareTo(benchmark.getTotal()));
+
+            ShoppingCartServiceBenchmark.OpenCarts openCarts = new ShoppingCartServiceBenchmark.OpenCarts();
+            for (int i = 0; i < 2; i++) {
+                openCarts.reopen(benchmark);
+                List<Object> result = benchmark.checkout(openCarts);
+                assertEquals(3, ((List<?>) result.get(0)).size());
+                assertTrue(((List<?>) result.get(1)).isEmpty());
+            }
+        } finally {
+            benchmark.closeFixture();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ServiceFixture.Backend.class)
+    public void testInventoryServiceBenchmark(ServiceFixture.Backend backend) throws Exception {
+        InventoryServiceBenchmark benchmark = new InventoryServiceBenchmark();
+        benchmark.backend = backend;
+        benchmark.openFixture();
+        try {
+            for (int iteration = 0; iteration < 2; iteration++) {
+                benchmark.resetProducts();
+                Product inserted = benchmark.addProduct_newUpc();
+                assertEquals("NEW-0", inserted.getUpc());
+                Product existing = benchmark.addProduct_existingUpc();
+                assertTrue(benchmark.products.stream().anyMatch(product -> product.getId().equals(existing.getId())));
+                assertNotNull(benchmark.updateProduct().getRetailPrice());
+            }
+        } finally {
+            benchmark.closeFixture();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ServiceFixture.Backend.class)
+    public void testCatalogLookupBenchmark(ServiceFixture.Backend backend) throws Exception {
+        CatalogLookupBenchmark benchmark = new CatalogLookupBenchmark();
+        benchmark.backend = backend;
+        benchmark.openFixture();
+        try {
+            Product fromRepository = benchmark.byId_repository();
+            Product fromIndex = benchmark.byId_index();
+            assertEquals(benchmark.products.get(2).getId(), fromIndex.getId());
+            assertEquals(benchmark.products.get(1).getUpc(), fromRepository.getUpc());
+            assertEquals(0, fromRepository.getRetailPrice().compareTo(fromIndex.getRetailPrice()));
+            assertEquals(benchmark.products.get(3).getId(), benchmark.byUpc_repository().getId());
+            assertEquals(benchmark.products.get(4).getId(), benchmark.byUpc_index().getId());
+            assertEquals(15_000, benchmark.readRow());
+        } finally {
+            benchmark.closeFixture();
+        }
+    }
+
+    @Test
+    public void testErrorPathBenchmark() throws Exception {
+        ErrorPathBenchmark benchmark = new ErrorPathBenchmark();
+        benchmark.depth = 16;
+        benchmark.openFixture();
+        try {
+            ResponseEntity<?> oldPath = benchmark.oldPath();
+            ResponseEntity<?> newPath = benchmark.newPath();
+            assertEquals(HttpStatus.NOT_FOUND, oldPath.getStatusCode());
+            assertEquals(HttpStatus.NOT_FOUND, newPath.getStatusCode());
+            assertEquals(oldPath.getBody(), ((ProblemDetail) newPath.getBody()).getDetail());
+        } finally {
+            benchmark.closeFixture();
+        }
+    }
+
+    @Test
+    public void testSerializationBenchmark() throws Exception {
+        SerializationBenchmark benchmark = new SerializationBenchmark();
+        benchmark.items = 20;
+        benchmark.prepare();
+        assertTrue(benchmark.writeCbor().length < benchmark.writeJson().length);
+        assertEquals(benchmark.readJson(), benchmark.readCbor());
+    }
+
+    @Test
+    public void testPricingBenchmark() {
+        PricingBenchmark benchmark = new PricingBenchmark();
+        benchmark.lines = 50;
+        benchmark.rules = 4;
+        benchmark.prepare();
+        assertEquals(benchmark.bigDecimal(), benchmark.engine.toDecimal(benchmark.minorUnits()));
+        assertEquals(benchmark.minorUnits(), benchmark.products());
+        assertEquals(benchmark.minorUnits(), benchmark.products());
+    }
+
+    @Test
+    public void testProductSearchBenchmark() {
+        ProductSearchBenchmark benchmark = new ProductSearchBenchmark();
+        benchmark.catalogSize = 5_000;
+        benchmark.buildIndex();
+        assertEquals(1, benchmark.upc().total());
+        assertTrue(benchmark.prefix().total() > 0);
+        assertTrue(benchmark.substring().total() > 0);
+        assertTrue(benchmark.fuzzy().total() > 0);
+        assertTrue(benchmark.shortQuery().total() > 0);
+        benchmark.index();
+        assertEquals(5_001, benchmark.index.size());
+    }
+
+    @Test
+    public void testStockContentionBenchmark() {
+        StockContentionBenchmark benchmark = new StockContentionBenchmark();
+        benchmark.buckets = 4;
+        benchmark.holdMicros = 0;
+        benchmark.openDatabase();
+        try {
+            assertTrue(benchmark.checkout());
+            assertTrue(benchmark.checkout());
+            assertEquals(StockContentionBenchmark.STOCK - 2, benchmark.stockAllocator.available(benchmark.productId));
+
+            // three units over four buckets leaves no bucket with two, so this draws from several at once
+            benchmark.stockAllocator.setStock(benchmark.productId, 3);
+            assertTrue(benchmark.stockAllocator.allocate(benchmark.productId, 2));
+            assertFalse(benchmark.stockAllocator.allocate(benchmark.productId, 2));
+            assertEquals(1, benchmark.stockAllocator.available(benchmark.productId));
+        } finally {
+            benchmark.closeDatabase();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.microservice.discovery.snapshot;
+
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(RegistrySnapshotProperties.class)
+@ConditionalOnProperty(prefix = "discovery.snapshot", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RegistrySnapshotConfig implements SchedulingConfigurer {
+    private final RegistrySnapshotProperties properties;
+    private final PeerAwareInstanceRegistry registry;
+
+    public RegistrySnapshotConfig(RegistrySnapshotProperties properties, PeerAwareInstanceRegistry registry) {
+        this.properties = properties;
+        this.registry = registry;
+    }
+
+    @Bean
+    public RegistrySnapshotStore registrySnapshotStore() {
+        return new RegistrySnapshotStore(Path.of(properties.getPath()));
+    }
+
+    @Bean
+    public RegistrySnapshotService registrySnapshotService(RegistrySnapshotStore store) {
+        return new RegistrySnapshotService(registry, store, properties);
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        RegistrySnapshotService service = registrySnapshotService(registrySnapshotStore());
+        taskRegistrar.addFixedDelayTask(service::snapshot, properties.getInterval());
+    }
+}
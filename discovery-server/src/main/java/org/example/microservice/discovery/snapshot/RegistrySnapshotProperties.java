@@ -0,0 +1,30 @@
+package org.example.microservice.discovery.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "discovery.snapshot")
+public class RegistrySnapshotProperties {
+    /**
+     * Periodically persists the registry and restores it on startup when true.
+     */
+    private boolean enabled = true;
+
+    /**
+     * File the registry snapshot is written to.
+     */
+    private String path = "data/registry-snapshot.json";
+
+    /**
+     * How often the registry is written to disk.
+     */
+    private Duration interval = Duration.ofSeconds(30);
+
+    /**
+     * Snapshots older than this are ignored on startup, since the instances in them are likely gone.
+     */
+    private Duration maxAge = Duration.ofMinutes(5);
+}
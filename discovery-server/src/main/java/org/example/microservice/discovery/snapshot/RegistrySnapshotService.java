@@ -0,0 +1,92 @@
+package org.example.microservice.discovery.snapshot;
+
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.netflix.eureka.server.event.EurekaRegistryAvailableEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Persists the registry on a fixed schedule and restores it when the server starts, so clients that were
+ * registered before a restart are discoverable immediately instead of after their next heartbeat. Restored
+ * instances keep their original lease duration: the ones that are really gone are evicted once it runs out.
+ */
+@Slf4j
+public class RegistrySnapshotService {
+    private final PeerAwareInstanceRegistry registry;
+    private final RegistrySnapshotStore store;
+    private final RegistrySnapshotProperties properties;
+    private final AtomicBoolean restored = new AtomicBoolean();
+
+    public RegistrySnapshotService(PeerAwareInstanceRegistry registry, RegistrySnapshotStore store,
+                                   RegistrySnapshotProperties properties) {
+        this.registry = registry;
+        this.store = store;
+        this.properties = properties;
+    }
+
+    /**
+     * Restores the last snapshot once the registry is open for traffic. Returns nothing: Spring would publish a
+     * listener's return value as another event.
+     */
+    @EventListener(EurekaRegistryAvailableEvent.class)
+    public void restoreOnStartup() {
+        restore();
+    }
+
+    /**
+     * Registers the instances of the last snapshot that were up and are not registered yet.
+     *
+     * @return the number of instances restored
+     */
+    public int restore() {
+        int count = 0;
+        try {
+            Optional<Applications> snapshot = store.read(properties.getMaxAge());
+            if (snapshot.isEmpty()) {
+                log.info("No recent registry snapshot at {}, starting with an empty registry", store.getFile());
+                return 0;
+            }
+            for (Application application : snapshot.get().getRegisteredApplications()) {
+                for (InstanceInfo instance : application.getInstances()) {
+                    if (instance.getStatus() == InstanceInfo.InstanceStatus.UP
+                            && registry.getInstanceByAppAndId(instance.getAppName(), instance.getId()) == null) {
+                        registry.register(instance, false);
+                        count++;
+                    }
+                }
+            }
+            log.info("Restored {} instances from registry snapshot {}", count, store.getFile());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not restore registry snapshot from {}: {}", store.getFile(), ex.getMessage());
+        } finally {
+            restored.set(true);
+        }
+        return count;
+    }
+
+    public void snapshot() {
+        // Never overwrite a good snapshot with the empty registry of a server that is still starting up.
+        if (!restored.get()) {
+            return;
+        }
+        try {
+            store.write(registry.getApplications());
+            log.debug("Wrote registry snapshot to {}", store.getFile());
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not write registry snapshot to {}: {}", store.getFile(), ex.getMessage());
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+}
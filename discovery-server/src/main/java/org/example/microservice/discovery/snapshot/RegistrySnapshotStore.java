@@ -0,0 +1,61 @@
+package org.example.microservice.discovery.snapshot;
+
+import com.netflix.discovery.converters.EurekaJacksonCodec;
+import com.netflix.discovery.shared.Applications;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Reads and writes registry snapshots in Eureka's own JSON format. Writes go to a temporary file that is then
+ * moved over the snapshot, so a crash mid-write never leaves a truncated snapshot behind.
+ */
+public class RegistrySnapshotStore {
+    private final Path file;
+
+    public RegistrySnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    public void write(Applications applications) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            EurekaJacksonCodec.getInstance().writeTo(applications, out);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the snapshot if it exists and was written within {@code maxAge}.
+     *
+     * @param maxAge the oldest snapshot that is still worth restoring
+     * @return the snapshot, or empty if there is none or it is too old
+     */
+    public Optional<Applications> read(Duration maxAge) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        Instant writtenAt = Files.getLastModifiedTime(file).toInstant();
+        if (writtenAt.plus(maxAge).isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return Optional.ofNullable(EurekaJacksonCodec.getInstance().readValue(Applications.class, in));
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
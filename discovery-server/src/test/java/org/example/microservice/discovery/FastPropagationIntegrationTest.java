@@ -0,0 +1,136 @@
+package org.example.microservice.discovery;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.LeaseInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import com.netflix.eureka.registry.PeerAwareInstanceRegistry;
+import org.example.microservice.discovery.snapshot.RegistrySnapshotStore;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures how long registry changes take to show up for clients reading {@code /eureka/apps} under the
+ * fast-propagation profile. Client-side delays (heartbeat and fetch intervals) come on top of these numbers.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("fast-propagation")
+public class FastPropagationIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FastPropagationIntegrationTest.class);
+
+    @Autowired
+    private PeerAwareInstanceRegistry registry;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void snapshotProperties(DynamicPropertyRegistry properties) {
+        try {
+            Path snapshot = Files.createTempDirectory("registry-snapshot").resolve("registry-snapshot.json");
+            Applications applications = new Applications();
+            Application application = new Application("SHOPPING-CART");
+            application.addInstance(instance("SHOPPING-CART", 9100, 30));
+            applications.addApplication(application);
+            new RegistrySnapshotStore(snapshot).write(applications);
+            properties.add("discovery.snapshot.path", snapshot::toString);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static InstanceInfo instance(String appName, int port, int leaseDurationSeconds) {
+        return InstanceInfo.Builder.newBuilder()
+                .setAppName(appName)
+                .setInstanceId("localhost:" + appName.toLowerCase() + ":" + port)
+                .setHostName("localhost")
+                .setIPAddr("127.0.0.1")
+                .setPort(port)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .setLeaseInfo(LeaseInfo.Builder.newBuilder()
+                        .setRenewalIntervalInSecs(1)
+                        .setDurationInSecs(leaseDurationSeconds)
+                        .build())
+                .build();
+    }
+
+    private boolean visible(String appName, String instanceId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        ResponseEntity<String> response = restTemplate.exchange("/eureka/apps/" + appName, HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        return response.getStatusCode().is2xxSuccessful() && response.getBody() != null
+                && response.getBody().contains(instanceId);
+    }
+
+    private static long awaitMillis(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + timeout);
+            }
+            Thread.sleep(50);
+        }
+        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+    }
+
+    @Test
+    public void testWarmStartRestoresSnapshot() {
+        assertNotNull(registry.getInstanceByAppAndId("SHOPPING-CART", "localhost:shopping-cart:9100"));
+        assertTrue(visible("SHOPPING-CART", "localhost:shopping-cart:9100"));
+    }
+
+    @Test
+    public void testScaleUpAndGracefulScaleDownPropagation() throws InterruptedException {
+        InstanceInfo instance = instance("INVENTORY", 9001, 30);
+
+        registry.register(instance, false);
+        long scaleUpMillis = awaitMillis(() -> visible("INVENTORY", instance.getId()), Duration.ofSeconds(5));
+
+        registry.cancel("INVENTORY", instance.getId(), false);
+        long scaleDownMillis = awaitMillis(() -> !visible("INVENTORY", instance.getId()), Duration.ofSeconds(5));
+
+        log.info("Scale-up propagation: {} ms, graceful scale-down propagation: {} ms", scaleUpMillis, scaleDownMillis);
+        assertTrue(scaleUpMillis < 3000, "scale-up took " + scaleUpMillis + " ms");
+        assertTrue(scaleDownMillis < 3000, "scale-down took " + scaleDownMillis + " ms");
+    }
+
+    @Test
+    public void testDeadInstanceEviction() throws InterruptedException {
+        InstanceInfo instance = instance("INVENTORY", 9002, 2);
+
+        registry.register(instance, false);
+        awaitMillis(() -> visible("INVENTORY", instance.getId()), Duration.ofSeconds(5));
+        long evictionMillis = awaitMillis(() -> !visible("INVENTORY", instance.getId()), Duration.ofSeconds(20));
+
+        log.info("Eviction of an instance that stopped renewing: {} ms", evictionMillis);
+        assertTrue(evictionMillis < 15000, "eviction took " + evictionMillis + " ms");
+    }
+}
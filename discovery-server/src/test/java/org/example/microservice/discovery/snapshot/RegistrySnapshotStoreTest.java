@@ -0,0 +1,73 @@
+package org.example.microservice.discovery.snapshot;
+
+import com.netflix.appinfo.DataCenterInfo;
+import com.netflix.appinfo.InstanceInfo;
+import com.netflix.appinfo.MyDataCenterInfo;
+import com.netflix.discovery.shared.Application;
+import com.netflix.discovery.shared.Applications;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegistrySnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Applications applications() {
+        InstanceInfo instance = InstanceInfo.Builder.newBuilder()
+                .setAppName("INVENTORY")
+                .setInstanceId("localhost:inventory:8081")
+                .setHostName("localhost")
+                .setIPAddr("127.0.0.1")
+                .setPort(8081)
+                .setStatus(InstanceInfo.InstanceStatus.UP)
+                .setDataCenterInfo(new MyDataCenterInfo(DataCenterInfo.Name.MyOwn))
+                .build();
+        Application application = new Application("INVENTORY");
+        application.addInstance(instance);
+        Applications applications = new Applications();
+        applications.addApplication(application);
+        return applications;
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        RegistrySnapshotStore store = new RegistrySnapshotStore(tempDir.resolve("nested/registry-snapshot.json"));
+
+        store.write(applications());
+        Optional<Applications> snapshot = store.read(Duration.ofMinutes(1));
+
+        assertTrue(snapshot.isPresent());
+        Application application = snapshot.get().getRegisteredApplications("INVENTORY");
+        assertNotNull(application);
+        assertEquals(1, application.getInstances().size());
+        assertEquals(8081, application.getInstances().get(0).getPort());
+        assertFalse(Files.exists(tempDir.resolve("nested/registry-snapshot.json.tmp")));
+    }
+
+    @Test
+    public void testRead_MissingSnapshot() throws Exception {
+        RegistrySnapshotStore store = new RegistrySnapshotStore(tempDir.resolve("registry-snapshot.json"));
+
+        assertTrue(store.read(Duration.ofMinutes(1)).isEmpty());
+    }
+
+    @Test
+    public void testRead_StaleSnapshot() throws Exception {
+        Path file = tempDir.resolve("registry-snapshot.json");
+        RegistrySnapshotStore store = new RegistrySnapshotStore(file);
+        store.write(applications());
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofMinutes(10))));
+
+        assertTrue(store.read(Duration.ofMinutes(5)).isEmpty());
+    }
+}
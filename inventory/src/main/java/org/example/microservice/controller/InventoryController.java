@@ -1,8 +1,11 @@
 package org.example.microservice.controller;
 
 import lombok.AllArgsConstructor;
+import org.example.microservice.dto.ProductDto;
+import org.example.microservice.dto.ProductSearchResultDto;
 import org.example.microservice.model.Product;
 import org.example.microservice.service.InventoryService;
+import org.example.microservice.service.ProductSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,22 +19,38 @@ import java.util.List;
 public class InventoryController {
     @Autowired
     private final InventoryService inventoryService;
+    @Autowired
+    private final ProductSearchService productSearchService;
 
     @PostMapping("add-product")
-    public ResponseEntity<Product> addProduct(@RequestBody Product product) {
-        Product addedProduct = inventoryService.addProduct(product);
-        return new ResponseEntity<>(addedProduct, HttpStatus.CREATED);
+    public ResponseEntity<ProductDto> addProduct(@RequestBody ProductDto productDto) {
+        Product addedProduct = inventoryService.addProduct(productDto.toProduct());
+        return new ResponseEntity<>(ProductDto.from(addedProduct), HttpStatus.CREATED);
     }
 
     @GetMapping("products")
-    public ResponseEntity<List<Product>> getProducts() {
-        List<Product> products = inventoryService.getAllProducts();
+    public ResponseEntity<List<ProductDto>> getProducts() {
+        List<ProductDto> products = inventoryService.getAllProducts().stream().map(ProductDto::from).toList();
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
     @GetMapping("product/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
         Product product = inventoryService.getProductById(id);
-        return new ResponseEntity<>(product, HttpStatus.OK);
+        return new ResponseEntity<>(ProductDto.from(product), HttpStatus.OK);
+    }
+
+    @GetMapping("product/{id}/available")
+    public ResponseEntity<Integer> getAvailableQuantity(@PathVariable Long id) {
+        int available = inventoryService.getAvailableQuantity(id);
+        return new ResponseEntity<>(available, HttpStatus.OK);
+    }
+
+    @GetMapping("products/search")
+    public ResponseEntity<ProductSearchResultDto> searchProducts(@RequestParam("q") String query,
+                                                                 @RequestParam(value = "page", defaultValue = "0") int page,
+                                                                 @RequestParam(value = "size", defaultValue = "20") int size) {
+        ProductSearchResultDto result = productSearchService.search(query, page, size);
+        return new ResponseEntity<>(result, HttpStatus.OK);
     }
 }
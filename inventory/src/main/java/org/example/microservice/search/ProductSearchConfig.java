@@ -0,0 +1,70 @@
+package org.example.microservice.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.catalog.ProductChangedEvent;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Builds the {@link ProductSearchIndex} from the {@code products} table before the web server takes requests,
+ * then keeps it current from the {@link ProductChangedEvent}s {@code InventoryService} publishes.
+ */
+@Slf4j
+@Configuration
+public class ProductSearchConfig {
+    private static final String LOAD_QUERY = "SELECT id, upc, name FROM products";
+
+    @Bean
+    public ProductSearchIndex productSearchIndex(@Value("${search.index.expected-size:1024}") int expectedSize) {
+        return new ProductSearchIndex(expectedSize);
+    }
+
+    /**
+     * Eager for the same reason as the catalog index updater, see the README's fast-startup section.
+     */
+    @Bean
+    @Lazy(false)
+    public ProductSearchIndexUpdater productSearchIndexUpdater(ProductSearchIndex productSearchIndex,
+                                                               JdbcTemplate jdbcTemplate,
+                                                               @Value("${search.index.load-on-startup:true}") boolean loadOnStartup) {
+        return new ProductSearchIndexUpdater(productSearchIndex, jdbcTemplate, loadOnStartup);
+    }
+
+    @RequiredArgsConstructor
+    public static class ProductSearchIndexUpdater implements SmartInitializingSingleton {
+        private final ProductSearchIndex productSearchIndex;
+        private final JdbcTemplate jdbcTemplate;
+        private final boolean loadOnStartup;
+
+        @Override
+        public void afterSingletonsInstantiated() {
+            if (!loadOnStartup) {
+                log.info("Not loading the search index: search.index.load-on-startup is false");
+                return;
+            }
+            long start = System.nanoTime();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(LOAD_QUERY);
+                statement.setFetchSize(1_000);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> productSearchIndex.put(resultSet.getLong("id"),
+                    resultSet.getString("upc"), resultSet.getString("name")));
+            log.info("Indexed {} products for search in {} ms", productSearchIndex.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        @TransactionalEventListener(fallbackExecution = true)
+        public void onProductChanged(ProductChangedEvent event) {
+            productSearchIndex.put(event.product().getId(), event.product().getUpc(), event.product().getName());
+        }
+    }
+}
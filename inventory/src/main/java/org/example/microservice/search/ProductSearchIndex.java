@@ -0,0 +1,547 @@
+package org.example.microservice.search;
+
+import org.example.microservice.catalog.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-process inverted index over product names and UPCs. Names are normalized (lower case, runs of anything but
+ * letters and digits turned into one space) and split into trigrams, each with a sorted posting list of the
+ * documents containing it; a product keeps the same document number across updates.
+ * <p>
+ * A query is matched in five ways, ranked in this order:
+ * <ol>
+ *     <li>{@link MatchType#UPC}: the query is a product's UPC, compared as given.</li>
+ *     <li>{@link MatchType#EXACT}: the normalized name equals the normalized query.</li>
+ *     <li>{@link MatchType#PREFIX}: the name starts with the query.</li>
+ *     <li>{@link MatchType#SUBSTRING}: the name contains the query; queries of one or two characters only match
+ *     at the start of a word.</li>
+ *     <li>{@link MatchType#FUZZY}: every query word is a prefix of a word of the name, or that word with one typo
+ *     (two for query words of eight characters or more; none under three). Only queries with a word of four
+ *     characters or more are matched this way.</li>
+ * </ol>
+ * Within a rank shorter names come first, then older products. Searches may run concurrently with each other
+ * and with {@link #put}.
+ */
+public class ProductSearchIndex {
+    public enum MatchType {UPC, EXACT, PREFIX, SUBSTRING, FUZZY}
+
+    /**
+     * One page of product IDs in rank order, with the number of products matched in total.
+     */
+    public record Hits(long[] productIds, MatchType[] matchTypes, int total) {
+    }
+
+    private static final MatchType[] MATCH_TYPES = MatchType.values();
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int MAX_NAME_LENGTH_RANK = (1 << 20) - 1;
+
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashMap docsByProductId;
+    private final Map<String, Integer> docsByUpc = new HashMap<>();
+    // distinct words of the indexed names, with the number of documents using each
+    private final Map<String, Integer> vocabulary = new HashMap<>();
+    private final LongIntHashMap postingsByTrigram;
+    private int[][] postings = new int[1024][];
+    private int[] postingSizes = new int[1024];
+    private int trigramCount;
+
+    private long[] productIds;
+    private String[] upcs;
+    private String[] names;
+    private int docCount;
+
+    public ProductSearchIndex(int expectedSize) {
+        docsByProductId = new LongIntHashMap(expectedSize);
+        postingsByTrigram = new LongIntHashMap(1024);
+        int capacity = Math.max(16, expectedSize);
+        productIds = new long[capacity];
+        upcs = new String[capacity];
+        names = new String[capacity];
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return docCount;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds the product or replaces its UPC and name, updating only the posting lists of trigrams that changed.
+     */
+    public void put(long productId, String upc, String name) {
+        String normalized = name != null ? normalize(name) : "";
+        long[] newTrigrams = trigrams(normalized);
+        long stamp = lock.writeLock();
+        try {
+            int doc = docsByProductId.get(productId);
+            long[] oldTrigrams;
+            if (doc == LongIntHashMap.MISSING) {
+                doc = docCount++;
+                if (doc == productIds.length) {
+                    int capacity = doc + (doc >> 1);
+                    productIds = Arrays.copyOf(productIds, capacity);
+                    upcs = Arrays.copyOf(upcs, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                }
+                productIds[doc] = productId;
+                docsByProductId.put(productId, doc);
+                oldTrigrams = new long[0];
+            } else {
+                oldTrigrams = trigrams(names[doc]);
+                if (upcs[doc] != null) {
+                    docsByUpc.remove(upcs[doc], doc);
+                }
+            }
+            for (long trigram : oldTrigrams) {
+                if (Arrays.binarySearch(newTrigrams, trigram) < 0) {
+                    removePosting(postingsByTrigram.get(trigram), doc);
+                }
+            }
+            for (long trigram : newTrigrams) {
+                if (Arrays.binarySearch(oldTrigrams, trigram) < 0) {
+                    addPosting(posting(trigram), doc);
+                }
+            }
+            if (names[doc] != null) {
+                countWords(names[doc], -1);
+            }
+            countWords(normalized, 1);
+            upcs[doc] = upc;
+            names[doc] = normalized;
+            if (upc != null) {
+                docsByUpc.put(upc, doc);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param query the search text
+     * @param offset hits to skip
+     * @param limit the most hits to return
+     * @throws IllegalArgumentException if the query has no letter or digit
+     */
+    public Hits search(String query, int offset, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        long stamp = lock.readLock();
+        try {
+            long[] ranked = new long[16];
+            int count = 0;
+
+            Integer upcDoc = docsByUpc.get(query.trim());
+            if (upcDoc != null) {
+                ranked[count++] = rank(MatchType.UPC, upcDoc);
+            }
+
+            String wordStart = " " + normalized;
+            for (int doc : textCandidates(normalized)) {
+                MatchType match = textMatch(names[doc], normalized, wordStart);
+                if (match != null && (upcDoc == null || doc != upcDoc)) {
+                    if (count == ranked.length) {
+                        ranked = Arrays.copyOf(ranked, count * 2);
+                    }
+                    ranked[count++] = rank(match, doc);
+                }
+            }
+
+            String[] words = normalized.split(" ");
+            for (int doc : fuzzyMatches(words)) {
+                if ((upcDoc == null || doc != upcDoc) && textMatch(names[doc], normalized, wordStart) == null) {
+                    if (count == ranked.length) {
+                        ranked = Arrays.copyOf(ranked, count * 2);
+                    }
+                    ranked[count++] = rank(MatchType.FUZZY, doc);
+                }
+            }
+
+            Arrays.sort(ranked, 0, count);
+            int from = Math.min(offset, count);
+            int to = (int) Math.min((long) from + limit, count);
+            long[] page = new long[to - from];
+            MatchType[] matchTypes = new MatchType[to - from];
+            for (int i = from; i < to; i++) {
+                int doc = (int) ranked[i];
+                page[i - from] = productIds[doc];
+                matchTypes[i - from] = MATCH_TYPES[(int) (ranked[i] >>> 60)];
+            }
+            return new Hits(page, matchTypes, count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Sorts by match type, then name length, then document number, which is the order products were indexed.
+     */
+    private long rank(MatchType match, int doc) {
+        long nameLength = Math.min(names[doc].length(), MAX_NAME_LENGTH_RANK);
+        return (long) match.ordinal() << 60 | nameLength << 32 | doc;
+    }
+
+    /**
+     * Documents that may contain the query: those in every posting list of the query's trigrams or, for a query
+     * shorter than a trigram, those with a word starting with it.
+     */
+    private int[] textCandidates(String query) {
+        if (query.length() < 3) {
+            long trigram = query.length() == 1 ? trigram(' ', ' ', query.charAt(0))
+                    : trigram(' ', query.charAt(0), query.charAt(1));
+            int posting = postingsByTrigram.get(trigram);
+            return posting == LongIntHashMap.MISSING ? new int[0]
+                    : Arrays.copyOf(postings[posting], postingSizes[posting]);
+        }
+        long[] trigrams = new long[query.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(query.charAt(i), query.charAt(i + 1), query.charAt(i + 2));
+        }
+        return docsWithAll(trigrams);
+    }
+
+    /**
+     * @return the documents in the posting lists of all the trigrams, in ascending order
+     */
+    private int[] docsWithAll(long[] trigrams) {
+        int[] lists = new int[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postingsByTrigram.get(trigrams[i]);
+            if (lists[i] == LongIntHashMap.MISSING || postingSizes[lists[i]] == 0) {
+                return new int[0];
+            }
+        }
+        // shortest lists first, so the running intersection starts small and each step is cheap
+        for (int i = 1; i < lists.length; i++) {
+            for (int j = i; j > 0 && postingSizes[lists[j]] < postingSizes[lists[j - 1]]; j--) {
+                int shorter = lists[j];
+                lists[j] = lists[j - 1];
+                lists[j - 1] = shorter;
+            }
+        }
+        int[] result = Arrays.copyOf(postings[lists[0]], postingSizes[lists[0]]);
+        int size = result.length;
+        for (int i = 1; i < lists.length && size > 0; i++) {
+            size = retainAll(result, size, postings[lists[i]], postingSizes[lists[i]]);
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Keeps the first {@code size} documents of {@code docs} that are also in {@code other}, both ascending,
+     * by merging the two or, when {@code other} is much longer, by binary search in it.
+     *
+     * @return the number of documents kept
+     */
+    private static int retainAll(int[] docs, int size, int[] other, int otherSize) {
+        int kept = 0;
+        if (otherSize / 32 > size) {
+            int from = 0;
+            for (int i = 0; i < size; i++) {
+                int at = Arrays.binarySearch(other, from, otherSize, docs[i]);
+                if (at >= 0) {
+                    docs[kept++] = docs[i];
+                    from = at + 1;
+                } else {
+                    from = -at - 1;
+                }
+            }
+            return kept;
+        }
+        for (int i = 0, j = 0; i < size && j < otherSize; ) {
+            if (docs[i] < other[j]) {
+                i++;
+            } else if (docs[i] > other[j]) {
+                j++;
+            } else {
+                docs[kept++] = docs[i];
+                i++;
+                j++;
+            }
+        }
+        return kept;
+    }
+
+    private static MatchType textMatch(String name, String query, String wordStart) {
+        if (name.equals(query)) {
+            return MatchType.EXACT;
+        }
+        if (name.startsWith(query)) {
+            return MatchType.PREFIX;
+        }
+        if (name.contains(query.length() < 3 ? wordStart : query)) {
+            return MatchType.SUBSTRING;
+        }
+        return null;
+    }
+
+    /**
+     * Documents that have a fuzzy match for every query word. Query words are compared with the vocabulary, the
+     * distinct words of all indexed names, rather than with every document. Queries without a word of
+     * {@value #FUZZY_MIN_LENGTH} characters or more are not matched fuzzily.
+     */
+    private int[] fuzzyMatches(String[] words) {
+        boolean longEnough = false;
+        for (String word : words) {
+            longEnough |= word.length() >= FUZZY_MIN_LENGTH;
+        }
+        if (!longEnough) {
+            return new int[0];
+        }
+        // the trigrams of " word " narrow the documents down; whole words are checked on what is left
+        List<List<String>> similarWords = new ArrayList<>(words.length);
+        int[] result = null;
+        int size = 0;
+        for (String word : words) {
+            List<String> similar = similarWords(word);
+            similarWords.add(similar);
+            int[] docs = new int[0];
+            for (String similarWord : similar) {
+                int[] docsWithTrigrams = docsWithAll(distinctTrigrams(" " + similarWord + " "));
+                docs = docs.length == 0 ? docsWithTrigrams : union(docs, docsWithTrigrams);
+            }
+            if (result == null) {
+                result = docs;
+                size = docs.length;
+            } else {
+                size = retainAll(result, size, docs, docs.length);
+            }
+            if (size == 0) {
+                return new int[0];
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (hasWords(names[result[i]], similarWords)) {
+                result[kept++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, kept);
+    }
+
+    /**
+     * @return the vocabulary words that start with {@code queryWord} or are within its edit distance
+     */
+    private List<String> similarWords(String queryWord) {
+        int maxEdits = maxEdits(queryWord);
+        List<String> similar = new ArrayList<>();
+        for (String word : vocabulary.keySet()) {
+            if (word.length() >= queryWord.length() - maxEdits
+                    && (word.startsWith(queryWord) || editDistance(queryWord, word, maxEdits) <= maxEdits)) {
+                similar.add(word);
+            }
+        }
+        return similar;
+    }
+
+    /**
+     * @return whether the name has, for each query word, one of the words similar to it
+     */
+    private static boolean hasWords(String name, List<List<String>> similarWords) {
+        for (List<String> similar : similarWords) {
+            boolean found = false;
+            for (int i = 0; i < similar.size() && !found; i++) {
+                found = hasWord(name, similar.get(i));
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasWord(String name, String word) {
+        for (int at = name.indexOf(word); at >= 0; at = name.indexOf(word, at + 1)) {
+            int end = at + word.length();
+            if ((at == 0 || name.charAt(at - 1) == ' ') && (end == name.length() || name.charAt(end) == ' ')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            int next = j == b.length || i < a.length && a[i] <= b[j] ? a[i] : b[j];
+            if (i < a.length && a[i] == next) {
+                i++;
+            }
+            if (j < b.length && b[j] == next) {
+                j++;
+            }
+            result[size++] = next;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void countWords(String normalizedName, int delta) {
+        if (normalizedName.isEmpty()) {
+            return;
+        }
+        for (String word : new HashSet<>(Arrays.asList(normalizedName.split(" ")))) {
+            vocabulary.merge(word, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+    }
+
+    static int maxEdits(String word) {
+        return word.length() >= 8 ? 2 : word.length() >= 3 ? 1 : 0;
+    }
+
+    /**
+     * Optimal string alignment distance (insertions, deletions, substitutions and transpositions of adjacent
+     * characters), or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previous2[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return the distinct trigrams of a normalized name, padded like {@code "  name "} so that the start of the
+     * name and of each word have trigrams of their own, in ascending order. The padding gives only the name's
+     * first word a {@code "  c"} trigram, so every later word gets one as well, for one-character queries.
+     */
+    static long[] trigrams(String normalizedName) {
+        if (normalizedName.isEmpty()) {
+            return new long[0];
+        }
+        String text = "  " + normalizedName + " ";
+        long[] trigrams = new long[text.length() - 2 + normalizedName.length()];
+        int count = 0;
+        for (int i = 0; i < text.length() - 2; i++) {
+            trigrams[count++] = trigram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        for (int i = 1; i < normalizedName.length(); i++) {
+            if (normalizedName.charAt(i - 1) == ' ') {
+                trigrams[count++] = trigram(' ', ' ', normalizedName.charAt(i));
+            }
+        }
+        return distinct(trigrams, count);
+    }
+
+    private static long[] distinctTrigrams(String text) {
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = trigram(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        return distinct(trigrams, trigrams.length);
+    }
+
+    /**
+     * @return the distinct values of the first {@code count} trigrams, in ascending order
+     */
+    private static long[] distinct(long[] trigrams, int count) {
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static long trigram(char first, char second, char third) {
+        return (long) first << 32 | (long) second << 16 | third;
+    }
+
+    private int posting(long trigram) {
+        int posting = postingsByTrigram.get(trigram);
+        if (posting == LongIntHashMap.MISSING) {
+            posting = trigramCount++;
+            if (posting == postings.length) {
+                postings = Arrays.copyOf(postings, posting * 2);
+                postingSizes = Arrays.copyOf(postingSizes, posting * 2);
+            }
+            postings[posting] = new int[4];
+            postingsByTrigram.put(trigram, posting);
+        }
+        return posting;
+    }
+
+    private void addPosting(int posting, int doc) {
+        int size = postingSizes[posting];
+        int[] docs = postings[posting];
+        // new documents are numbered upwards, so they append; a renamed one is inserted in place
+        int at = size == 0 || docs[size - 1] < doc ? size : -Arrays.binarySearch(docs, 0, size, doc) - 1;
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+            postings[posting] = docs;
+        }
+        System.arraycopy(docs, at, docs, at + 1, size - at);
+        docs[at] = doc;
+        postingSizes[posting] = size + 1;
+    }
+
+    private void removePosting(int posting, int doc) {
+        int size = postingSizes[posting];
+        int at = Arrays.binarySearch(postings[posting], 0, size, doc);
+        if (at >= 0) {
+            System.arraycopy(postings[posting], at + 1, postings[posting], at, size - at - 1);
+            postingSizes[posting] = size - 1;
+        }
+    }
+}
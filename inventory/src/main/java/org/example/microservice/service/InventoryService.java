@@ -1,11 +1,18 @@
 package org.example.microservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.catalog.CatalogIndex;
+import org.example.microservice.catalog.ProductChangedEvent;
 import org.example.microservice.exception.ProductNotFoundException;
 import org.example.microservice.model.Product;
 import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.stock.StockAllocator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -13,8 +20,16 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Timed("inventory.service")
 public class InventoryService {
     private final InventoryRepository inventoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockAllocator stockAllocator;
+    /**
+     * Answers product lookups when {@code catalog.index.enabled}; null otherwise.
+     */
+    @Nullable
+    private final CatalogIndex catalogIndex;
 
     /**
      * Adds a new product to the inventory. If a product with the same UPC exists, it updates the existing product.
@@ -30,23 +45,36 @@ public class InventoryService {
             return updateProduct(existingProduct.getId(), product);
         } else {
             log.info("Product with UPC: {} does not exist, saving new product", product.getUpc());
-            return inventoryRepository.save(product);
+            Product savedProduct = inventoryRepository.save(product);
+            if (stockAllocator.isEnabled()) {
+                stockAllocator.setStock(savedProduct.getId(), savedProduct.getQuantity());
+            }
+            eventPublisher.publishEvent(new ProductChangedEvent(savedProduct));
+            return savedProduct;
         }
     }
 
     /**
-     * Retrieves a product by its UPC.
+     * Retrieves a product by its UPC, from the catalog index if there is one and it holds the UPC.
      *
      * @param upc the UPC of the product to be retrieved
      * @return the product with the specified UPC
      */
     public Product getProductByUpc(String upc) {
         log.info("Retrieving product by UPC: {}", upc);
+        if (catalogIndex != null) {
+            CatalogIndex.Row row = new CatalogIndex.Row();
+            if (catalogIndex.read(catalogIndex.slotOfUpc(upc), row)) {
+                return catalogIndex.toProduct(row);
+            }
+        }
         return inventoryRepository.findProductByUpc(upc);
     }
 
     /**
-     * Retrieves a product by its ID.
+     * Retrieves a product by its ID, from the catalog index if there is one and it holds the ID. The quantity of
+     * a product from the index leaves out checkouts made by the shopping cart service since the index was
+     * loaded; {@link #getAvailableQuantity} always reads the database.
      *
      * @param id the ID of the product to be retrieved
      * @return the product with the specified ID
@@ -54,11 +82,14 @@ public class InventoryService {
      */
     public Product getProductById(Long id) {
         log.info("Retrieving product by ID: {}", id);
+        if (catalogIndex != null) {
+            CatalogIndex.Row row = new CatalogIndex.Row();
+            if (catalogIndex.read(catalogIndex.slotOf(id), row)) {
+                return catalogIndex.toProduct(row);
+            }
+        }
         return inventoryRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("Product with ID: {} not found", id);
-                    return new ProductNotFoundException("Product with ID " + id + " not found");
-                });
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
     }
 
     /**
@@ -72,10 +103,7 @@ public class InventoryService {
     public Product updateProduct(Long id, Product product) {
         log.info("Updating product with ID: {}", id);
         Product existingProduct = inventoryRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("Product with ID: {} not found", id);
-                    return new ProductNotFoundException("Product with ID " + id + " not found");
-                });
+                .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"));
         String name = product.getName() != null ? product.getName() : existingProduct.getName();
         String upc = product.getUpc() != null ? product.getUpc() : existingProduct.getUpc();
         BigDecimal wholesalePrice = product.getWholesalePrice() != null ? product.getWholesalePrice()
@@ -90,8 +118,35 @@ public class InventoryService {
         existingProduct.setWholesalePrice(wholesalePrice);
         existingProduct.setRetailPrice(retailPrice);
         existingProduct.setQuantity(quantity);
+        Product savedProduct = inventoryRepository.save(existingProduct);
+        if (stockAllocator.isEnabled() && product.getQuantity() > 0) {
+            stockAllocator.setStock(id, quantity);
+        }
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct));
         log.info("Product with ID: {} updated successfully", id);
-        return inventoryRepository.save(existingProduct);
+        return savedProduct;
+    }
+
+    /**
+     * Retrieves the quantity of a product available to check out. With stock buckets enabled this is the sum of
+     * the product's buckets, which the product's own quantity only catches up with when they are rebalanced.
+     *
+     * @param id the ID of the product
+     * @return the available quantity
+     * @throws ProductNotFoundException if the product with the specified ID is not found
+     */
+    @Transactional(readOnly = true)
+    public int getAvailableQuantity(Long id) {
+        log.info("Retrieving available quantity of product ID: {}", id);
+        if (!stockAllocator.isEnabled()) {
+            return inventoryRepository.findById(id)
+                    .orElseThrow(() -> new ProductNotFoundException("Product with ID " + id + " not found"))
+                    .getQuantity();
+        }
+        if (!inventoryRepository.existsById(id)) {
+            throw new ProductNotFoundException("Product with ID " + id + " not found");
+        }
+        return stockAllocator.available(id);
     }
 
     /**
@@ -99,6 +154,7 @@ public class InventoryService {
      *
      * @return a list of all products
      */
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         log.info("Retrieving all products");
         return inventoryRepository.findAll();
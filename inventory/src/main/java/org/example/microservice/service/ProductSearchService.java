@@ -0,0 +1,67 @@
+package org.example.microservice.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.dto.ProductSearchResultDto;
+import org.example.microservice.model.Product;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.search.ProductSearchIndex;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("inventory.service")
+public class ProductSearchService {
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private final ProductSearchIndex productSearchIndex;
+    private final InventoryRepository inventoryRepository;
+
+    /**
+     * Searches products by UPC and name; see {@link ProductSearchIndex} for how matches are ranked.
+     *
+     * @param query the UPC or part of the name, typos allowed
+     * @param page the zero-based page number
+     * @param size the number of products per page, at most {@value #MAX_PAGE_SIZE}
+     * @return the requested page of matching products, best matches first
+     * @throws IllegalArgumentException if the query has no letter or digit, or the page is out of range
+     */
+    @Transactional(readOnly = true)
+    public ProductSearchResultDto search(String query, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        log.info("Searching products for '{}', page {} of size {}", query, page, size);
+        int offset = (int) Math.min((long) page * size, Integer.MAX_VALUE);
+        ProductSearchIndex.Hits hits = productSearchIndex.search(query, offset, size);
+
+        List<Long> ids = Arrays.stream(hits.productIds()).boxed().toList();
+        Map<Long, Product> productsById = inventoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        log.info("Found {} products for '{}'", hits.total(), query);
+        return ProductSearchResultDto.builder()
+                .query(query)
+                .page(page)
+                .size(size)
+                .total(hits.total())
+                .products(products)
+                .build();
+    }
+}
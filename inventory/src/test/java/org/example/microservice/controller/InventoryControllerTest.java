@@ -1,23 +1,42 @@
 package org.example.microservice.controller;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.microservice.dto.ProductDto;
+import org.example.microservice.dto.ProductSearchResultDto;
+import org.example.microservice.exception.GlobalExceptionHandler;
 import org.example.microservice.exception.ProductNotFoundException;
 import org.example.microservice.model.Product;
+import org.example.microservice.problem.ProblemProperties;
+import org.example.microservice.problem.ProblemResponses;
 import org.example.microservice.service.InventoryService;
+import org.example.microservice.service.ProductSearchService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 public class InventoryControllerTest {
@@ -25,6 +44,9 @@ public class InventoryControllerTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private ProductSearchService productSearchService;
+
     @InjectMocks
     private InventoryController inventoryController;
 
@@ -43,14 +65,34 @@ public class InventoryControllerTest {
 
     @Test
     public void testAddProduct() {
-        when(inventoryService.addProduct(product)).thenReturn(product);
+        when(inventoryService.addProduct(any(Product.class))).thenReturn(product);
 
-        ResponseEntity<Product> responseEntity = inventoryController.addProduct(product);
+        ResponseEntity<ProductDto> responseEntity = inventoryController.addProduct(ProductDto.from(product));
 
         assertNotNull(responseEntity);
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
-        assertEquals(product, responseEntity.getBody());
-        verify(inventoryService, times(1)).addProduct(product);
+        assertEquals(ProductDto.from(product), responseEntity.getBody());
+        verify(inventoryService, times(1)).addProduct(any(Product.class));
+    }
+
+    @Test
+    public void testAddProduct_BindsDtoWithoutId() throws Exception {
+        ArgumentCaptor<Product> added = ArgumentCaptor.forClass(Product.class);
+        when(inventoryService.addProduct(added.capture())).thenReturn(product);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(inventoryController).build();
+
+        mockMvc.perform(post("/api/inventory/add-product")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":99,\"upc\":\"1234567890\",\"name\":\"Test Product\","
+                                + "\"wholesalePrice\":100,\"retailPrice\":150,\"quantity\":10}"))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1));
+
+        assertNull(added.getValue().getId());
+        assertEquals("1234567890", added.getValue().getUpc());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(added.getValue().getRetailPrice()));
+        assertEquals(10, added.getValue().getQuantity());
     }
 
     @Test
@@ -59,11 +101,11 @@ public class InventoryControllerTest {
         products.add(product);
         when(inventoryService.getAllProducts()).thenReturn(products);
 
-        ResponseEntity<List<Product>> responseEntity = inventoryController.getProducts();
+        ResponseEntity<List<ProductDto>> responseEntity = inventoryController.getProducts();
 
         assertNotNull(responseEntity);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals(products, responseEntity.getBody());
+        assertEquals(List.of(ProductDto.from(product)), responseEntity.getBody());
         verify(inventoryService, times(1)).getAllProducts();
     }
 
@@ -71,14 +113,29 @@ public class InventoryControllerTest {
     public void testGetProductById_ProductFound() {
         when(inventoryService.getProductById(product.getId())).thenReturn(product);
 
-        ResponseEntity<Product> responseEntity = inventoryController.getProductById(product.getId());
+        ResponseEntity<ProductDto> responseEntity = inventoryController.getProductById(product.getId());
 
         assertNotNull(responseEntity);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
-        assertEquals(product, responseEntity.getBody());
+        assertEquals(ProductDto.from(product), responseEntity.getBody());
         verify(inventoryService, times(1)).getProductById(product.getId());
     }
 
+    @Test
+    public void testGetProductById_ProductNotFoundProblem() throws Exception {
+        when(inventoryService.getProductById(product.getId())).thenThrow(new ProductNotFoundException("Product with ID " + product.getId() + " not found"));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(inventoryController)
+                .setControllerAdvice(new GlobalExceptionHandler(new ProblemResponses(new ProblemProperties())))
+                .build();
+
+        mockMvc.perform(get("/api/inventory/product/" + product.getId()))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(header().string("Cache-Control", "max-age=10, public"))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("Product with ID " + product.getId() + " not found"));
+    }
+
     @Test
     public void testGetProductById_ProductNotFound() {
         when(inventoryService.getProductById(product.getId())).thenThrow(new ProductNotFoundException("Product with ID " + product.getId() + " not found"));
@@ -90,4 +147,75 @@ public class InventoryControllerTest {
         assertEquals("Product with ID " + product.getId() + " not found", exception.getMessage());
         verify(inventoryService, times(1)).getProductById(product.getId());
     }
+
+    @Test
+    public void testGetAvailableQuantity() {
+        when(inventoryService.getAvailableQuantity(product.getId())).thenReturn(7);
+
+        ResponseEntity<Integer> responseEntity = inventoryController.getAvailableQuantity(product.getId());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(7, responseEntity.getBody());
+        verify(inventoryService, times(1)).getAvailableQuantity(product.getId());
+    }
+
+    @Test
+    public void testGetProductById_CborNegotiated() throws Exception {
+        when(inventoryService.getProductById(product.getId())).thenReturn(product);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(inventoryController).build();
+
+        MvcResult result = mockMvc.perform(get("/api/inventory/product/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+
+        ProductDto dto = new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), ProductDto.class);
+        assertEquals(product.getId(), dto.getId());
+        assertEquals(product.getUpc(), dto.getUpc());
+        assertEquals(0, product.getRetailPrice().compareTo(dto.getRetailPrice()));
+        assertEquals(product.getQuantity(), dto.getQuantity());
+    }
+
+    @Test
+    public void testGetProductById_JsonRemainsDefault() throws Exception {
+        when(inventoryService.getProductById(product.getId())).thenReturn(product);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(inventoryController).build();
+
+        mockMvc.perform(get("/api/inventory/product/1").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.upc").value("1234567890"))
+                .andExpect(jsonPath("$.name").value("Test Product"))
+                .andExpect(jsonPath("$.wholesalePrice").value(100))
+                .andExpect(jsonPath("$.retailPrice").value(150))
+                .andExpect(jsonPath("$.quantity").value(10));
+        mockMvc.perform(get("/api/inventory/product/1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testSearchProducts() throws Exception {
+        ProductSearchResultDto page = ProductSearchResultDto.builder()
+                .query("test prod").page(1).size(5).total(6).products(List.of(product)).build();
+        when(productSearchService.search("test prod", 1, 5)).thenReturn(page);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(inventoryController).build();
+
+        mockMvc.perform(get("/api/inventory/products/search").param("q", "test prod").param("page", "1").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.products[0].name").value("Test Product"));
+    }
+
+    @Test
+    public void testSearchProducts_InvalidQuery() throws Exception {
+        when(productSearchService.search("--", 0, 20)).thenThrow(new IllegalArgumentException("Search query must contain a letter or digit"));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(inventoryController)
+                .setControllerAdvice(new GlobalExceptionHandler(new ProblemResponses(new ProblemProperties())))
+                .build();
+
+        mockMvc.perform(get("/api/inventory/products/search").param("q", "--"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,119 @@
+package org.example.microservice.search;
+
+import org.example.microservice.search.ProductSearchIndex.MatchType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ProductSearchIndex(4);
+        index.put(1L, "0001", "Apple Juice");
+        index.put(2L, "0002", "Apple");
+        index.put(3L, "0003", "Pineapple Slices");
+        index.put(4L, "0004", "Green Apples, 1kg");
+        index.put(5L, "0005", "Orange Juice");
+        index.put(6L, "0006", "Chocolate Milk");
+    }
+
+    @Test
+    public void testSearch_RankedByMatchType() {
+        ProductSearchIndex.Hits hits = index.search("apple", 0, 10);
+
+        assertArrayEquals(new long[]{2L, 1L, 3L, 4L}, hits.productIds());
+        assertArrayEquals(new MatchType[]{MatchType.EXACT, MatchType.PREFIX, MatchType.SUBSTRING, MatchType.SUBSTRING},
+                hits.matchTypes());
+        assertEquals(4, hits.total());
+    }
+
+    @Test
+    public void testSearch_UpcFirst() {
+        index.put(7L, "apple", "Apple Crumble");
+
+        ProductSearchIndex.Hits hits = index.search("apple", 0, 2);
+
+        assertArrayEquals(new long[]{7L, 2L}, hits.productIds());
+        assertEquals(MatchType.UPC, hits.matchTypes()[0]);
+        assertEquals(5, hits.total());
+        assertArrayEquals(new long[]{5L}, index.search("0005", 0, 10).productIds());
+    }
+
+    @Test
+    public void testSearch_Pagination() {
+        assertArrayEquals(new long[]{1L, 3L}, index.search("apple", 1, 2).productIds());
+        assertArrayEquals(new long[]{4L}, index.search("apple", 3, 2).productIds());
+        ProductSearchIndex.Hits pastTheEnd = index.search("apple", 10, 2);
+        assertEquals(0, pastTheEnd.productIds().length);
+        assertEquals(4, pastTheEnd.total());
+    }
+
+    @Test
+    public void testSearch_ShortQueryMatchesWordStarts() {
+        assertArrayEquals(new long[]{1L, 5L}, index.search("ju", 0, 10).productIds());
+        assertArrayEquals(new long[]{2L, 1L, 4L}, index.search("A", 0, 10).productIds());
+        assertEquals(0, index.search("pp", 0, 10).total());
+    }
+
+    @Test
+    public void testSearch_OneCharacterQueryMatchesLaterWords() {
+        ProductSearchIndex index = new ProductSearchIndex(4);
+        index.put(1L, "0001", "Red Ball");
+        index.put(2L, "0002", "Blue Hat");
+
+        assertArrayEquals(new long[]{2L, 1L}, index.search("b", 0, 10).productIds());
+        assertArrayEquals(new MatchType[]{MatchType.PREFIX, MatchType.SUBSTRING}, index.search("b", 0, 10).matchTypes());
+        assertArrayEquals(new long[]{2L}, index.search("h", 0, 10).productIds());
+        assertEquals(0, index.search("a", 0, 10).total());
+
+        index.put(2L, "0002", "Blue Cap");
+        assertEquals(0, index.search("h", 0, 10).total());
+        assertArrayEquals(new long[]{2L}, index.search("c", 0, 10).productIds());
+    }
+
+    @Test
+    public void testSearch_Typos() {
+        ProductSearchIndex.Hits hits = index.search("choclate mlk", 0, 10);
+        assertArrayEquals(new long[]{6L}, hits.productIds());
+        assertEquals(MatchType.FUZZY, hits.matchTypes()[0]);
+
+        // transposition
+        assertArrayEquals(new long[]{5L}, index.search("ornage", 0, 10).productIds());
+        // every word has to match
+        assertEquals(0, index.search("jice milk", 0, 10).total());
+    }
+
+    @Test
+    public void testSearch_NormalizesQuery() {
+        assertArrayEquals(new long[]{4L}, index.search("  GREEN   apples!", 0, 10).productIds());
+        assertThrows(IllegalArgumentException.class, () -> index.search(" -- ", 0, 10));
+    }
+
+    @Test
+    public void testPut_UpdatesNameAndUpc() {
+        index.put(2L, "0102", "Banana");
+
+        assertEquals(6, index.size());
+        assertArrayEquals(new long[]{1L, 3L, 4L}, index.search("apple", 0, 10).productIds());
+        assertArrayEquals(new long[]{2L}, index.search("banan", 0, 10).productIds());
+        assertArrayEquals(new long[]{2L}, index.search("0102", 0, 10).productIds());
+        assertEquals(0, index.search("0002", 0, 10).total());
+
+        index.put(2L, "0102", "Apple");
+        assertArrayEquals(new long[]{2L, 1L, 3L, 4L}, index.search("apple", 0, 10).productIds());
+    }
+
+    @Test
+    public void testEditDistance() {
+        assertEquals(0, ProductSearchIndex.editDistance("milk", "milk", 1));
+        assertEquals(1, ProductSearchIndex.editDistance("milk", "mlk", 1));
+        assertEquals(1, ProductSearchIndex.editDistance("milk", "mlik", 1));
+        assertEquals(2, ProductSearchIndex.editDistance("milk", "mkli", 1));
+        assertEquals(2, ProductSearchIndex.editDistance("chocolate", "chcolat", 2));
+        assertEquals(3, ProductSearchIndex.editDistance("a", "abcd", 2));
+    }
+}
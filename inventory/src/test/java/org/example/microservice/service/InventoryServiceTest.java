@@ -1,14 +1,19 @@
 package org.example.microservice.service;
 
+import org.example.microservice.catalog.CatalogIndex;
+import org.example.microservice.catalog.ProductChangedEvent;
 import org.example.microservice.exception.ProductNotFoundException;
 import org.example.microservice.model.Product;
+import org.example.microservice.pricing.PricingEngine;
 import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.stock.StockAllocator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -24,6 +29,12 @@ public class InventoryServiceTest {
     @Mock
     private InventoryRepository inventoryRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private StockAllocator stockAllocator;
+
     @InjectMocks
     private InventoryService inventoryService;
 
@@ -51,6 +62,7 @@ public class InventoryServiceTest {
         assertEquals("Test Product", savedProduct.getName());
         verify(inventoryRepository, times(1)).findProductByUpc(product.getUpc());
         verify(inventoryRepository, times(1)).save(product);
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(product));
     }
 
     @Test
@@ -122,6 +134,59 @@ public class InventoryServiceTest {
         assertEquals("Test Product", updatedProduct.getName());
         verify(inventoryRepository, times(1)).findById(product.getId());
         verify(inventoryRepository, times(1)).save(product);
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(product));
+    }
+
+    @Test
+    public void testUpdateProduct_StockBuckets() {
+        Product update = new Product();
+        update.setQuantity(25);
+        when(stockAllocator.isEnabled()).thenReturn(true);
+        when(inventoryRepository.findById(product.getId())).thenReturn(Optional.of(product));
+        when(inventoryRepository.save(product)).thenReturn(product);
+
+        inventoryService.updateProduct(product.getId(), update);
+
+        assertEquals(25, product.getQuantity());
+        verify(stockAllocator, times(1)).setStock(product.getId(), 25);
+    }
+
+    @Test
+    public void testGetAvailableQuantity() {
+        when(inventoryRepository.findById(product.getId())).thenReturn(Optional.of(product));
+
+        assertEquals(10, inventoryService.getAvailableQuantity(product.getId()));
+
+        when(stockAllocator.isEnabled()).thenReturn(true);
+        when(inventoryRepository.existsById(product.getId())).thenReturn(true);
+        when(stockAllocator.available(product.getId())).thenReturn(7);
+
+        assertEquals(7, inventoryService.getAvailableQuantity(product.getId()));
+        assertThrows(ProductNotFoundException.class, () -> inventoryService.getAvailableQuantity(2L));
+    }
+
+    @Test
+    public void testGetProduct_FromCatalogIndex() {
+        CatalogIndex catalogIndex = new CatalogIndex(PricingEngine.standard(), 4);
+        catalogIndex.put(product);
+        InventoryService indexedService = new InventoryService(inventoryRepository, eventPublisher, stockAllocator, catalogIndex);
+
+        Product byId = indexedService.getProductById(product.getId());
+        Product byUpc = indexedService.getProductByUpc(product.getUpc());
+
+        assertEquals("Test Product", byId.getName());
+        assertEquals(new BigDecimal("150.00"), byId.getRetailPrice());
+        assertEquals(10, byId.getQuantity());
+        assertEquals(product.getId(), byUpc.getId());
+        verifyNoInteractions(inventoryRepository);
+
+        // products the index does not hold, and available quantities, come from the database
+        when(inventoryRepository.findById(2L)).thenReturn(Optional.empty());
+        assertThrows(ProductNotFoundException.class, () -> indexedService.getProductById(2L));
+        assertNull(indexedService.getProductByUpc("0000000000"));
+        product.setQuantity(4);
+        when(inventoryRepository.findById(product.getId())).thenReturn(Optional.of(product));
+        assertEquals(4, indexedService.getAvailableQuantity(product.getId()));
     }
 
     @Test
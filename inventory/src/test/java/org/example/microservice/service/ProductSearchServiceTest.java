@@ -0,0 +1,69 @@
+package org.example.microservice.service;
+
+import org.example.microservice.dto.ProductSearchResultDto;
+import org.example.microservice.model.Product;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.search.ProductSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductSearchServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    private ProductSearchService productSearchService;
+
+    @BeforeEach
+    public void setup() {
+        ProductSearchIndex index = new ProductSearchIndex(16);
+        index.put(1L, "0001", "Apple Juice");
+        index.put(2L, "0002", "Apple");
+        index.put(3L, "0003", "Pineapple Slices");
+        productSearchService = new ProductSearchService(index, inventoryRepository);
+    }
+
+    private static Product product(long id, String name) {
+        return new Product(id, String.format("%04d", id), name, null, BigDecimal.ONE, 1);
+    }
+
+    @Test
+    public void testSearch_ProductsInRankOrder() {
+        when(inventoryRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product(1L, "Apple Juice"), product(2L, "Apple")));
+
+        ProductSearchResultDto result = productSearchService.search("apple", 0, 2);
+
+        assertEquals(3, result.getTotal());
+        assertEquals(List.of(2L, 1L), result.getProducts().stream().map(Product::getId).toList());
+        verify(inventoryRepository, times(1)).findAllById(List.of(2L, 1L));
+    }
+
+    @Test
+    public void testSearch_SkipsProductsGoneFromDatabase() {
+        when(inventoryRepository.findAllById(List.of(3L))).thenReturn(List.of());
+
+        ProductSearchResultDto result = productSearchService.search("apple", 1, 2);
+
+        assertEquals(1, result.getPage());
+        assertTrue(result.getProducts().isEmpty());
+    }
+
+    @Test
+    public void testSearch_InvalidPage() {
+        assertThrows(IllegalArgumentException.class, () -> productSearchService.search("apple", -1, 20));
+        assertThrows(IllegalArgumentException.class, () -> productSearchService.search("apple", 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> productSearchService.search("apple", 0, ProductSearchService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(inventoryRepository);
+    }
+}
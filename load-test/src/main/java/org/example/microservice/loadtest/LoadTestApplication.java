@@ -0,0 +1,87 @@
+package org.example.microservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Boots the store locally (unless {@code --launch=false}), seeds products through the gateway and runs each
+ * configured scenario in turn, writing histograms, {@code summary.csv} and {@code errors.csv} to the output
+ * directory. With several {@code --profiles} the whole run is repeated per profile, each in its own
+ * sub-directory, and {@code comparison.csv} puts them side by side.
+ */
+@Slf4j
+public class LoadTestApplication {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Files.createDirectories(config.getOutput());
+        log.info("Writing results to {}", config.getOutput());
+
+        List<String> profiles = config.getProfiles();
+        for (String profile : profiles) {
+            LoadTestConfig run = profiles.size() > 1
+                    ? config.toBuilder().output(config.getOutput().resolve(profile)).build()
+                    : config;
+            run(run, profile);
+        }
+        if (profiles.size() > 1) {
+            log.info("Wrote {}", RunComparison.write(config.getOutput(), profiles));
+        }
+        System.exit(0);
+    }
+
+    private static void run(LoadTestConfig config, String profile) throws Exception {
+        Files.createDirectories(config.getOutput());
+        try (ServiceLauncher launcher = new ServiceLauncher(config, profile)) {
+            if (config.isLaunch()) {
+                launcher.start();
+            }
+            StoreClient client = new StoreClient(config.getGatewayUrl(), config.getRequestTimeout());
+            List<Long> productIds = seedProducts(client, config.getProducts());
+
+            OpenModelDriver driver = new OpenModelDriver(config.getMaxInFlight());
+            for (Map.Entry<Scenario, Double> entry : config.getScenarios().entrySet()) {
+                Scenario scenario = entry.getKey();
+                LoadTestResults results = new LoadTestResults(scenario.getScenarioName());
+                log.info("Running {} at {}/s: {} warmup, {} measured", scenario.getScenarioName(), entry.getValue(),
+                        config.getWarmup(), config.getDuration());
+                long arrivals = driver.run(results, entry.getValue(), config.getWarmup(), config.getDuration(),
+                        () -> scenario.arrive(client, results, productIds));
+                results.write(config.getOutput());
+                report(results, arrivals);
+            }
+        }
+    }
+
+    private static List<Long> seedProducts(StoreClient client, int count) {
+        LoadTestResults seeding = new LoadTestResults("seed");
+        List<CompletableFuture<JsonNode>> added = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            added.add(client.addProduct(seeding, "LOAD-" + i, 1_000_000_000));
+        }
+        List<Long> productIds = new ArrayList<>(count);
+        for (CompletableFuture<JsonNode> product : added) {
+            productIds.add(product.join().get("id").asLong());
+        }
+        log.info("Seeded {} products", productIds.size());
+        return productIds;
+    }
+
+    private static void report(LoadTestResults results, long arrivals) {
+        log.info("{}: {} arrivals", results.getScenario(), arrivals);
+        for (Map.Entry<String, Histogram> entry : results.histograms().entrySet()) {
+            Histogram histogram = entry.getValue();
+            log.info("  {}: count={} p50={}ms p99={}ms p99.9={}ms max={}ms", entry.getKey(), histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+        }
+        results.errors().forEach((key, count) -> log.warn("  error {}: {}", key.replace('\t', ' '), count));
+    }
+}
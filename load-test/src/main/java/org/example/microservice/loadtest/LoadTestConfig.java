@@ -0,0 +1,138 @@
+package org.example.microservice.loadtest;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, parsed from {@code --key=value} arguments. See the README for the full list.
+ */
+@Data
+@Builder(toBuilder = true)
+public class LoadTestConfig {
+    public static final String DEFAULT_PROFILE = "default";
+
+    public enum Database {
+        /**
+         * An in-memory H2 database served over TCP by the load test process.
+         */
+        H2,
+        /**
+         * An existing PostgreSQL database, by default the one the services use ({@code POSTGRES_*} variables).
+         */
+        POSTGRES
+    }
+
+    private boolean launch;
+    private Path projectDir;
+    private Database database;
+    private String dbUrl;
+    private String dbUser;
+    private String dbPassword;
+    private String gatewayUrl;
+    /**
+     * Spring profiles the services are launched with, one full run each; {@code default} adds none.
+     */
+    private List<String> profiles;
+    private Map<Scenario, Double> scenarios;
+    private Duration warmup;
+    private Duration duration;
+    private int products;
+    private int maxInFlight;
+    private Duration requestTimeout;
+    private Duration startupTimeout;
+    private Path output;
+
+    public static LoadTestConfig parse(String... args) {
+        Map<String, String> values = arguments(args);
+        Database database = Database.valueOf(values.getOrDefault("db", "h2").toUpperCase());
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        LoadTestConfig config = LoadTestConfig.builder()
+                .launch(Boolean.parseBoolean(values.getOrDefault("launch", "true")))
+                .projectDir(Path.of(values.getOrDefault("project-dir", ".")).toAbsolutePath().normalize())
+                .database(database)
+                .dbUrl(values.getOrDefault("db-url", database == Database.POSTGRES
+                        ? "jdbc:postgresql://localhost:5432/" + env("POSTGRES_DATABASE") : null))
+                .dbUser(values.getOrDefault("db-user", database == Database.POSTGRES ? env("POSTGRES_USER") : "sa"))
+                .dbPassword(values.getOrDefault("db-password", database == Database.POSTGRES ? env("POSTGRES_Password") : ""))
+                .gatewayUrl(values.getOrDefault("gateway-url", "http://localhost:8080"))
+                .profiles(Arrays.stream(values.getOrDefault("profiles", DEFAULT_PROFILE).split(",")).map(String::trim).toList())
+                .scenarios(parseScenarios(values.getOrDefault("scenarios", "browse,add-to-cart,checkout-storm"),
+                        Double.parseDouble(values.getOrDefault("rate", "100"))))
+                .warmup(parseDuration(values.getOrDefault("warmup", "10s")))
+                .duration(parseDuration(values.getOrDefault("duration", "60s")))
+                .products(Integer.parseInt(values.getOrDefault("products", "100")))
+                .maxInFlight(Integer.parseInt(values.getOrDefault("max-in-flight", "1000")))
+                .requestTimeout(parseDuration(values.getOrDefault("request-timeout", "5s")))
+                .startupTimeout(parseDuration(values.getOrDefault("startup-timeout", "180s")))
+                .output(Path.of(values.getOrDefault("output", "load-test/results/" + timestamp)).toAbsolutePath())
+                .build();
+        if (config.getDatabase() == Database.POSTGRES && config.getDbUrl().endsWith("/")) {
+            throw new IllegalArgumentException("Set POSTGRES_DATABASE or --db-url for --db=postgres");
+        }
+        if (!config.isLaunch() && config.getProfiles().size() > 1) {
+            throw new IllegalArgumentException("Comparing --profiles needs --launch=true");
+        }
+        return config;
+    }
+
+    /**
+     * Splits {@code --key=value} arguments into a map of keys to values.
+     */
+    static Map<String, String> arguments(String... args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return values;
+    }
+
+    /**
+     * Parses {@code browse:200,checkout-storm} into scenarios and arrival rates (requests per second); scenarios
+     * without a rate get {@code defaultRate}.
+     */
+    static Map<Scenario, Double> parseScenarios(String value, double defaultRate) {
+        Map<Scenario, Double> scenarios = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            double rate = parts.length > 1 ? Double.parseDouble(parts[1]) : defaultRate;
+            if (rate <= 0) {
+                throw new IllegalArgumentException("Arrival rate must be positive: " + entry);
+            }
+            scenarios.put(Scenario.fromName(parts[0]), rate);
+        }
+        return scenarios;
+    }
+
+    /**
+     * Parses durations written as {@code 500ms}, {@code 30s} or {@code 2m}.
+     */
+    static Duration parseDuration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+
+    private static String env(String name) {
+        String value = System.getenv(name);
+        return value != null ? value : "";
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.microservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts of one scenario, keyed by operation name. The scenario's end-to-end
+ * latency is recorded under {@value #ARRIVAL}, measured from the intended arrival time so that queueing
+ * behind slow responses is part of the number; individual operations are measured from when they were sent.
+ */
+public class LoadTestResults {
+    public static final String ARRIVAL = "arrival";
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final String scenario;
+    private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    public LoadTestResults(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public String getScenario() {
+        return scenario;
+    }
+
+    public void recordLatency(String operation, long nanos) {
+        recorders.computeIfAbsent(operation, name -> new Recorder(SIGNIFICANT_DIGITS))
+                .recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0)));
+    }
+
+    /**
+     * Counts a failed operation.
+     *
+     * @param operation the operation name
+     * @param kind what went wrong, for example {@code HTTP 500}, {@code timeout} or {@code dropped}
+     */
+    public void recordError(String operation, String kind) {
+        errors.computeIfAbsent(operation + "\t" + kind.replace(',', ';'), key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Throws away everything recorded so far, at the end of the warmup.
+     */
+    public void reset() {
+        recorders.values().forEach(Recorder::reset);
+        histograms.clear();
+        errors.clear();
+    }
+
+    /**
+     * Snapshots the recorders; call once the scenario has finished.
+     *
+     * @return the latency histogram of each operation, in microseconds
+     */
+    public Map<String, Histogram> histograms() {
+        recorders.forEach((operation, recorder) -> histograms.merge(operation, recorder.getIntervalHistogram(), (a, b) -> {
+            a.add(b);
+            return a;
+        }));
+        return new TreeMap<>(histograms);
+    }
+
+    public Map<String, Long> errors() {
+        Map<String, Long> counts = new TreeMap<>();
+        errors.forEach((key, count) -> counts.put(key, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Writes {@code <scenario>/<operation>.hgrm} (percentile distribution in milliseconds),
+     * {@code <scenario>/<operation>.hlog} (the raw histogram, for HdrHistogram tooling) and appends the scenario
+     * to {@code summary.csv} and {@code errors.csv} in {@code outputDir}.
+     *
+     * @param outputDir the run's output directory
+     */
+    public void write(Path outputDir) {
+        try {
+            Path scenarioDir = Files.createDirectories(outputDir.resolve(scenario));
+            Path summary = outputDir.resolve("summary.csv");
+            if (Files.notExists(summary)) {
+                Files.writeString(summary, "scenario,operation,count,mean_ms,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms\n");
+            }
+            for (Map.Entry<String, Histogram> entry : histograms().entrySet()) {
+                String operation = entry.getKey();
+                Histogram histogram = entry.getValue();
+                try (PrintStream out = new PrintStream(Files.newOutputStream(scenarioDir.resolve(operation + ".hgrm")))) {
+                    histogram.outputPercentileDistribution(out, 1000.0);
+                }
+                try (PrintStream out = new PrintStream(Files.newOutputStream(scenarioDir.resolve(operation + ".hlog")))) {
+                    HistogramLogWriter writer = new HistogramLogWriter(out);
+                    writer.outputLogFormatVersion();
+                    writer.outputLegend();
+                    writer.outputIntervalHistogram(histogram);
+                }
+                Files.writeString(summary, String.format(Locale.ROOT, "%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        scenario, operation, histogram.getTotalCount(), histogram.getMean() / 1000.0,
+                        millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                        histogram.getMaxValue() / 1000.0), StandardOpenOption.APPEND);
+            }
+
+            Path errorFile = outputDir.resolve("errors.csv");
+            if (Files.notExists(errorFile)) {
+                Files.writeString(errorFile, "scenario,operation,error,count\n");
+            }
+            StringBuilder lines = new StringBuilder();
+            errors().forEach((key, count) -> lines.append(scenario).append(',')
+                    .append(key.replace('\t', ',')).append(',').append(count).append('\n'));
+            Files.writeString(errorFile, lines, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
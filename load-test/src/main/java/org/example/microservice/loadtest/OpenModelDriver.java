@@ -0,0 +1,95 @@
+package org.example.microservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load: arrivals are scheduled at a fixed rate whether or not earlier ones have completed, the way
+ * independent users show up. A closed loop of N virtual users would instead slow down when the system does and
+ * hide exactly the queueing we want to see.
+ * <p>
+ * Each arrival's latency is measured from its scheduled time, not from when the driver got around to sending
+ * it, which corrects for coordinated omission. Arrivals beyond {@code maxInFlight} are not sent and count as
+ * {@code dropped} errors, so an overloaded system shows up in the error breakdown rather than as unbounded
+ * memory growth in the driver.
+ */
+@Slf4j
+public class OpenModelDriver {
+    private final int maxInFlight;
+
+    public OpenModelDriver(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Runs a warmup phase, discards what it recorded, then runs the measured phase and waits for outstanding
+     * arrivals to finish.
+     *
+     * @param results where latencies and errors are recorded; the end-to-end latency goes under
+     *                {@link LoadTestResults#ARRIVAL}
+     * @param ratePerSecond arrivals per second
+     * @param warmup how long to run before recording
+     * @param duration how long to record
+     * @param arrival starts one arrival and returns its completion
+     * @return the number of arrivals scheduled in the measured phase
+     */
+    public long run(LoadTestResults results, double ratePerSecond, Duration warmup, Duration duration,
+                    Supplier<CompletableFuture<?>> arrival) {
+        if (!warmup.isZero()) {
+            drive(results, ratePerSecond, warmup, arrival);
+            results.reset();
+        }
+        return drive(results, ratePerSecond, duration, arrival);
+    }
+
+    private long drive(LoadTestResults results, double ratePerSecond, Duration duration,
+                       Supplier<CompletableFuture<?>> arrival) {
+        AtomicInteger inFlight = new AtomicInteger();
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long arrivals = 0;
+
+        for (long intended = start; intended < end; intended = start + arrivals * intervalNanos) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            arrivals++;
+            if (inFlight.get() >= maxInFlight) {
+                results.recordError(LoadTestResults.ARRIVAL, "dropped");
+                continue;
+            }
+            inFlight.incrementAndGet();
+            long scheduledAt = intended;
+            CompletableFuture<?> completion;
+            try {
+                completion = arrival.get();
+            } catch (RuntimeException ex) {
+                completion = CompletableFuture.failedFuture(ex);
+            }
+            completion.whenComplete((ignored, failure) -> {
+                inFlight.decrementAndGet();
+                if (failure == null) {
+                    results.recordLatency(LoadTestResults.ARRIVAL, System.nanoTime() - scheduledAt);
+                } else {
+                    results.recordError(LoadTestResults.ARRIVAL, "failed");
+                }
+            });
+        }
+
+        long drainDeadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(Duration.ofMillis(10).toNanos());
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} arrivals of {} still in flight after the drain timeout", inFlight.get(), results.getScenario());
+        }
+        return arrivals;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.microservice.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Joins the {@code summary.csv} and {@code errors.csv} of several runs, one per profile, into a single
+ * {@code comparison.csv} with one row per scenario and operation and a group of columns per run.
+ */
+public final class RunComparison {
+    private static final String[] COLUMNS = {"count", "errors", "p50_ms", "p99_ms", "p99_9_ms"};
+
+    private RunComparison() {
+    }
+
+    /**
+     * @param outputDir directory holding one sub-directory per run
+     * @param runs the run names, in column order
+     * @return the written file
+     */
+    public static Path write(Path outputDir, List<String> runs) {
+        try {
+            Map<String, Map<String, String[]>> rows = new LinkedHashMap<>();
+            for (String run : runs) {
+                Map<String, Long> errors = new LinkedHashMap<>();
+                List<String> errorLines = Files.readAllLines(outputDir.resolve(run).resolve("errors.csv"));
+                for (String line : errorLines.subList(1, errorLines.size())) {
+                    String[] fields = line.split(",");
+                    errors.merge(fields[0] + "," + fields[1], Long.parseLong(fields[3]), Long::sum);
+                }
+                List<String> summaryLines = Files.readAllLines(outputDir.resolve(run).resolve("summary.csv"));
+                for (String line : summaryLines.subList(1, summaryLines.size())) {
+                    // scenario,operation,count,mean_ms,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms
+                    String[] fields = line.split(",");
+                    String key = fields[0] + "," + fields[1];
+                    rows.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(run, new String[]{
+                            fields[2], String.valueOf(errors.getOrDefault(key, 0L)), fields[4], fields[6], fields[7]});
+                }
+            }
+
+            StringBuilder csv = new StringBuilder("scenario,operation");
+            for (String run : runs) {
+                for (String column : COLUMNS) {
+                    csv.append(',').append(run).append('_').append(column);
+                }
+            }
+            csv.append('\n');
+            rows.forEach((key, byRun) -> {
+                csv.append(key);
+                for (String run : runs) {
+                    String[] values = byRun.getOrDefault(run, new String[COLUMNS.length]);
+                    for (String value : values) {
+                        csv.append(',').append(value != null ? value : "");
+                    }
+                }
+                csv.append('\n');
+            });
+            return Files.writeString(outputDir.resolve("comparison.csv"), csv);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.microservice.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * What a single arrival does. Steps of one arrival run in sequence; arrivals themselves overlap freely.
+ */
+public enum Scenario {
+    /**
+     * Product page views, with one in ten arrivals listing the whole catalog.
+     */
+    BROWSE("browse") {
+        @Override
+        CompletableFuture<?> arrive(StoreClient client, LoadTestResults results, List<Long> productIds) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextInt(10) == 0) {
+                return client.getProducts(results);
+            }
+            return client.getProduct(results, productIds.get(random.nextInt(productIds.size())));
+        }
+    },
+    /**
+     * Adds a random product to a new cart, then prices the cart.
+     */
+    ADD_TO_CART("add-to-cart") {
+        @Override
+        CompletableFuture<?> arrive(StoreClient client, LoadTestResults results, List<Long> productIds) {
+            long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+            return client.addToCart(results, productId, 1)
+                    .thenCompose(cart -> client.getTotal(results, List.of(cart.get("id").asLong())));
+        }
+    },
+    /**
+     * Every arrival adds the same product to a new cart and checks it out, so all of them update one
+     * inventory row.
+     */
+    CHECKOUT_STORM("checkout-storm") {
+        @Override
+        CompletableFuture<?> arrive(StoreClient client, LoadTestResults results, List<Long> productIds) {
+            return client.addToCart(results, productIds.get(0), 1)
+                    .thenCompose(cart -> client.checkout(results, List.of(cart.get("id").asLong())));
+        }
+    };
+
+    private final String scenarioName;
+
+    Scenario(String scenarioName) {
+        this.scenarioName = scenarioName;
+    }
+
+    public String getScenarioName() {
+        return scenarioName;
+    }
+
+    abstract CompletableFuture<?> arrive(StoreClient client, LoadTestResults results, List<Long> productIds);
+
+    public static Scenario fromName(String name) {
+        return Arrays.stream(values())
+                .filter(scenario -> scenario.scenarioName.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown scenario " + name + ", expected one of "
+                        + Arrays.stream(values()).map(Scenario::getScenarioName).toList()));
+    }
+}
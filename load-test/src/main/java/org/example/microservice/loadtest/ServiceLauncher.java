@@ -0,0 +1,178 @@
+package org.example.microservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.tools.Server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the discovery server, inventory, shopping-cart and the gateway as separate JVMs from their executable
+ * jars, in dependency order, and stops them again on {@link #close()}. All of them run with the
+ * {@code fast-propagation} profile so the gateway can route to the services seconds after they start, plus the
+ * profile under test unless it is {@code default}. Output of each service goes to
+ * {@code <output>/logs/<service>.log}.
+ * <p>
+ * With {@link LoadTestConfig.Database#H2} an in-memory H2 database is served over TCP from this process and the
+ * services reach it with the H2 driver, which is put on their classpath through Spring Boot's
+ * {@code PropertiesLauncher} and {@code loader.path}. Each profile gets its own database, so compared runs start
+ * from the same empty state.
+ */
+@Slf4j
+public class ServiceLauncher implements AutoCloseable {
+    private static final String VERSION = "1.0-SNAPSHOT";
+
+    private final LoadTestConfig config;
+    private final String profile;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Deque<Process> processes = new ArrayDeque<>();
+    private Server databaseServer;
+
+    public ServiceLauncher(LoadTestConfig config, String profile) {
+        this.config = config;
+        this.profile = profile;
+    }
+
+    /**
+     * Starts everything and returns once each service answers its readiness probe.
+     */
+    public void start() {
+        if (profile.contains("virtual-threads") && Runtime.version().feature() < 21) {
+            log.warn("Running on Java {}: the services will ignore spring.threads.virtual.enabled",
+                    Runtime.version().feature());
+        }
+        try {
+            String databaseUrl = config.getDbUrl();
+            String databaseDriver = "org.postgresql.Driver";
+            if (config.getDatabase() == LoadTestConfig.Database.H2) {
+                databaseServer = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+                databaseUrl = "jdbc:h2:tcp://localhost:" + databaseServer.getPort() + "/mem:store-" + profile + ";DB_CLOSE_DELAY=-1";
+                databaseDriver = "org.h2.Driver";
+                log.info("Serving in-memory H2 database at {}", databaseUrl);
+            }
+            List<String> database = List.of(
+                    "--spring.datasource.url=" + databaseUrl,
+                    "--spring.datasource.driverClassName=" + databaseDriver,
+                    "--spring.datasource.username=" + config.getDbUser(),
+                    "--spring.datasource.password=" + config.getDbPassword());
+
+            launch("discovery-server", "discovery-server-" + VERSION + ".jar",
+                    List.of("--discovery.snapshot.enabled=false"), List.of("http://localhost:8761/eureka/apps"));
+            // Started one at a time: both run schema updates against the shared products table.
+            launch("inventory", "inventory-" + VERSION + "-exec.jar", database, List.of("http://localhost:8081/actuator/health"));
+            launch("shopping-cart", "shopping-cart-" + VERSION + "-exec.jar", database, List.of("http://localhost:8082/actuator/health"));
+            // The gateway is ready once it has discovered both services.
+            launch("api-gateway", "api-gateway-" + VERSION + ".jar", List.of(), List.of(
+                    config.getGatewayUrl() + "/api/inventory/products",
+                    config.getGatewayUrl() + "/api/shopping-cart/all-items"));
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not start the H2 database server", ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void launch(String service, String jarName, List<String> arguments, List<String> readinessUrls) throws IOException {
+        Path jar = config.getProjectDir().resolve(service).resolve("target").resolve(jarName);
+        if (Files.notExists(jar)) {
+            throw new IllegalStateException(jar + " not found, run `mvn -DskipTests package` first");
+        }
+        Path logs = Files.createDirectories(config.getOutput().resolve("logs"));
+
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx512m"));
+        if (databaseServer != null && !arguments.isEmpty()) {
+            command.addAll(List.of("-Dloader.path=" + h2Jar(), "-cp", jar.toString(),
+                    "org.springframework.boot.loader.launch.PropertiesLauncher"));
+        } else {
+            command.addAll(List.of("-jar", jar.toString()));
+        }
+        command.add("--spring.profiles.active=fast-propagation"
+                + (LoadTestConfig.DEFAULT_PROFILE.equals(profile) ? "" : "," + profile));
+        command.addAll(arguments);
+
+        log.info("Starting {} ({} profile)", service, profile);
+        Process process = new ProcessBuilder(command)
+                .directory(logs.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logs.resolve(service + ".log").toFile())
+                .start();
+        processes.push(process);
+        for (String url : readinessUrls) {
+            awaitReady(service, process, url);
+        }
+        log.info("{} is up", service);
+    }
+
+    private void awaitReady(String service, Process process, String url) {
+        long deadline = System.nanoTime() + config.getStartupTimeout().toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(2)).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(service + " exited with code " + process.exitValue()
+                        + ", see " + config.getOutput().resolve("logs").resolve(service + ".log"));
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // not listening yet
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + service, ex);
+            }
+            sleep(Duration.ofMillis(500));
+        }
+        throw new IllegalStateException(service + " did not answer " + url + " within " + config.getStartupTimeout());
+    }
+
+    private static Path h2Jar() {
+        try {
+            return Path.of(Server.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot locate the H2 jar", ex);
+        }
+    }
+
+    static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        while (!processes.isEmpty()) {
+            Process process = processes.pop();
+            process.destroy();
+            try {
+                if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        if (databaseServer != null) {
+            databaseServer.stop();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.example.microservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.tools.Server;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long inventory and shopping-cart take from process start to their first successful request,
+ * once started from their executable jars ({@code default}) and once from the {@code fast-startup} build: the
+ * {@code -cds} jar with its Spring AOT initializers, the AppCDS archive of its training run and the
+ * {@code fast-startup} profile. Each service is started {@code --runs} times per mode, one JVM at a time and the
+ * modes taking turns, and {@code startup.csv} in the output directory lists every run; medians are logged.
+ * <p>
+ * The first request lists the catalog or the carts, so it includes whatever lazy initialization put off. The
+ * services run without a discovery server and with Eureka registration off. Before anything is measured each
+ * service is started once in {@code default} mode, which creates its tables (the {@code fast-startup} profile
+ * does not) and warms the page cache. With {@link LoadTestConfig.Database#H2} all runs share one in-memory
+ * database served over TCP from this process.
+ */
+@Slf4j
+public class StartupBenchmark {
+    private static final String VERSION = "1.0-SNAPSHOT";
+    static final String DEFAULT_MODE = "default";
+    static final String FAST_STARTUP_MODE = "fast-startup";
+
+    private record Target(String service, String mainClass, String firstRequest) {
+    }
+
+    private static final List<Target> TARGETS = List.of(
+            new Target("inventory", "org.example.microservice.InventoryApplication",
+                    "http://localhost:8081/api/inventory/products"),
+            new Target("shopping-cart", "org.example.microservice.ShoppingCartApplication",
+                    "http://localhost:8082/api/shopping-cart/all-items"));
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private List<String> database;
+    private Path h2Jar;
+
+    StartupBenchmark(LoadTestConfig config) {
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = LoadTestConfig.arguments(args);
+        int runs = Integer.parseInt(values.getOrDefault("runs", "5"));
+        List<String> services = Arrays.stream(values.getOrDefault("services", "inventory,shopping-cart").split(","))
+                .map(String::trim).toList();
+        List<String> modes = Arrays.stream(values.getOrDefault("modes", DEFAULT_MODE + "," + FAST_STARTUP_MODE).split(","))
+                .map(String::trim).toList();
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Files.createDirectories(config.getOutput());
+        log.info("Writing results to {}", config.getOutput());
+
+        Server databaseServer = null;
+        try {
+            StartupBenchmark benchmark = new StartupBenchmark(config);
+            if (config.getDatabase() == LoadTestConfig.Database.H2) {
+                databaseServer = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+                benchmark.useH2(databaseServer.getPort());
+            } else {
+                benchmark.useDatabase(config.getDbUrl(), "org.postgresql.Driver");
+            }
+            benchmark.run(targets(services), modes, runs);
+        } finally {
+            if (databaseServer != null) {
+                databaseServer.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static List<Target> targets(List<String> services) {
+        List<Target> targets = new ArrayList<>();
+        for (String service : services) {
+            targets.add(TARGETS.stream().filter(target -> target.service().equals(service)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown service: " + service)));
+        }
+        return targets;
+    }
+
+    private void useH2(int port) {
+        try {
+            h2Jar = Path.of(Server.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot locate the H2 jar", ex);
+        }
+        String url = "jdbc:h2:tcp://localhost:" + port + "/mem:startup;DB_CLOSE_DELAY=-1";
+        log.info("Serving in-memory H2 database at {}", url);
+        useDatabase(url, "org.h2.Driver");
+    }
+
+    private void useDatabase(String url, String driver) {
+        database = List.of(
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.driverClassName=" + driver,
+                "--spring.datasource.username=" + config.getDbUser(),
+                "--spring.datasource.password=" + config.getDbPassword());
+    }
+
+    private void run(List<Target> targets, List<String> modes, int runs) throws IOException {
+        for (Target target : targets) {
+            log.info("Creating the tables of {}", target.service());
+            start(target, DEFAULT_MODE);
+        }
+
+        Map<String, List<Long>> results = new LinkedHashMap<>();
+        try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(config.getOutput().resolve("startup.csv")))) {
+            csv.println("service,mode,run,millis");
+            for (int run = 1; run <= runs; run++) {
+                for (Target target : targets) {
+                    for (String mode : modes) {
+                        long millis = start(target, mode);
+                        log.info("{} ({}), run {}: first successful request after {} ms", target.service(), mode, run, millis);
+                        csv.println(String.join(",", target.service(), mode, String.valueOf(run), String.valueOf(millis)));
+                        results.computeIfAbsent(target.service() + " (" + mode + ")", key -> new ArrayList<>()).add(millis);
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, List<Long>> entry : results.entrySet()) {
+            List<Long> millis = entry.getValue().stream().sorted().toList();
+            log.info("{}: median {} ms, min {} ms, max {} ms", entry.getKey(), millis.get(millis.size() / 2),
+                    millis.get(0), millis.get(millis.size() - 1));
+        }
+    }
+
+    /**
+     * Starts the service, waits for its first successful request and stops it again.
+     *
+     * @return milliseconds from starting the process to the response of that request
+     */
+    private long start(Target target, String mode) throws IOException {
+        Path logs = Files.createDirectories(config.getOutput().resolve("logs"));
+        Path logFile = logs.resolve(target.service() + "-" + mode + ".log");
+        List<String> command = command(target, mode);
+
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(logs.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        try {
+            awaitFirstRequest(target, process, logFile);
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        } finally {
+            stop(process);
+        }
+    }
+
+    private List<String> command(Target target, String mode) {
+        Path targetDir = config.getProjectDir().resolve(target.service()).resolve("target");
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx512m"));
+        if (FAST_STARTUP_MODE.equals(mode)) {
+            Path jar = existing(targetDir.resolve(target.service() + "-" + VERSION + "-cds.jar"));
+            Path archive = existing(targetDir.resolve(target.service() + ".jsa"));
+            // The H2 driver goes after the jar: the archive stays usable as long as its class path is a prefix.
+            String classPath = h2Jar != null ? jar + File.pathSeparator + h2Jar : jar.toString();
+            command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                    "-cp", classPath, target.mainClass(), "--spring.profiles.active=" + FAST_STARTUP_MODE));
+        } else if (DEFAULT_MODE.equals(mode)) {
+            Path jar = existing(targetDir.resolve(target.service() + "-" + VERSION + "-exec.jar"));
+            if (h2Jar != null) {
+                command.addAll(List.of("-Dloader.path=" + h2Jar, "-cp", jar.toString(),
+                        "org.springframework.boot.loader.launch.PropertiesLauncher"));
+            } else {
+                command.addAll(List.of("-jar", jar.toString()));
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        command.addAll(database);
+        command.addAll(List.of("--eureka.client.register-with-eureka=false", "--eureka.client.fetch-registry=false"));
+        return command;
+    }
+
+    private static Path existing(Path file) {
+        if (Files.notExists(file)) {
+            throw new IllegalStateException(file + " not found, run `mvn -Pfast-startup -DskipTests package` first");
+        }
+        return file;
+    }
+
+    private void awaitFirstRequest(Target target, Process process, Path logFile) {
+        long deadline = System.nanoTime() + config.getStartupTimeout().toNanos();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target.firstRequest()))
+                .timeout(Duration.ofSeconds(10)).GET().build();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(target.service() + " exited with code " + process.exitValue()
+                        + ", see " + logFile);
+            }
+            try {
+                if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ex) {
+                // not listening yet
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for " + target.service(), ex);
+            }
+            ServiceLauncher.sleep(Duration.ofMillis(10));
+        }
+        throw new IllegalStateException(target.service() + " did not answer " + target.firstRequest() + " within "
+                + config.getStartupTimeout() + ", see " + logFile);
+    }
+
+    private static void stop(Process process) {
+        process.destroy();
+        try {
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
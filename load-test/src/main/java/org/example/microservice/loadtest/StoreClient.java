@@ -0,0 +1,145 @@
+package org.example.microservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Asynchronous client for the store API behind the gateway. Every call records its latency, or the reason it
+ * failed, under its operation name in the given {@link LoadTestResults}; failed calls complete exceptionally
+ * with {@link OperationFailedException} so a scenario stops at the first failed step.
+ */
+public class StoreClient {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String gatewayUrl;
+    private final Duration requestTimeout;
+
+    public StoreClient(String gatewayUrl, Duration requestTimeout) {
+        this.gatewayUrl = gatewayUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors())))
+                .build();
+    }
+
+    public CompletableFuture<JsonNode> getProducts(LoadTestResults results) {
+        return send(results, "get-products", get("/api/inventory/products"));
+    }
+
+    public CompletableFuture<JsonNode> getProduct(LoadTestResults results, long productId) {
+        return send(results, "get-product", get("/api/inventory/product/" + productId));
+    }
+
+    public CompletableFuture<JsonNode> addProduct(LoadTestResults results, String upc, int quantity) {
+        return send(results, "add-product", post("/api/inventory/add-product", Map.of(
+                "upc", upc,
+                "name", "Load test " + upc,
+                "wholesalePrice", 10,
+                "retailPrice", 15,
+                "quantity", quantity)));
+    }
+
+    public CompletableFuture<JsonNode> addToCart(LoadTestResults results, long productId, int quantity) {
+        return send(results, "add-to-cart", post("/api/shopping-cart/add-to-cart", Map.of(
+                "shoppingCartId", 0,
+                "productId", productId,
+                "purchaseQuantity", quantity)));
+    }
+
+    public CompletableFuture<JsonNode> getTotal(LoadTestResults results, List<Long> cartIds) {
+        return send(results, "get-total", post("/api/shopping-cart/add-total", cartIds));
+    }
+
+    public CompletableFuture<JsonNode> checkout(LoadTestResults results, List<Long> cartIds) {
+        return send(results, "checkout", post("/api/shopping-cart/checkout", cartIds));
+    }
+
+    /**
+     * Plain GET without recording, used to wait for routes to come up.
+     *
+     * @param path the path below the gateway URL
+     * @return the HTTP status, or -1 if the request failed
+     */
+    public int probe(String path) {
+        try {
+            return httpClient.send(get(path).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            return -1;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(gatewayUrl + path))
+                    .timeout(requestTimeout)
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private CompletableFuture<JsonNode> send(LoadTestResults results, String operation, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        String kind = describe(failure);
+                        results.recordError(operation, kind);
+                        throw new OperationFailedException(operation + ": " + kind);
+                    }
+                    results.recordLatency(operation, System.nanoTime() - start);
+                    if (response.statusCode() >= 400) {
+                        results.recordError(operation, "HTTP " + response.statusCode());
+                        throw new OperationFailedException(operation + ": HTTP " + response.statusCode());
+                    }
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException ex) {
+                        results.recordError(operation, "unreadable body");
+                        throw new OperationFailedException(operation + ": unreadable body");
+                    }
+                });
+    }
+
+    private static String describe(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+        if (cause instanceof HttpTimeoutException) {
+            return "timeout";
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    public static class OperationFailedException extends RuntimeException {
+        public OperationFailedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.microservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpenModelDriverTest {
+
+    private static CompletableFuture<?> completeAfter(long millis) {
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRun_ArrivalsFollowRateAndIgnoreWarmup() {
+        LoadTestResults results = new LoadTestResults("scenario");
+        AtomicInteger started = new AtomicInteger();
+        OpenModelDriver driver = new OpenModelDriver(1_000);
+
+        long arrivals = driver.run(results, 200, Duration.ofMillis(200), Duration.ofMillis(500), () -> {
+            started.incrementAndGet();
+            return completeAfter(20);
+        });
+
+        assertEquals(100, arrivals);
+        assertEquals(140, started.get());
+        Histogram histogram = results.histograms().get(LoadTestResults.ARRIVAL);
+        assertEquals(100, histogram.getTotalCount());
+        assertTrue(histogram.getMinValue() >= 20_000, "latency includes the 20 ms response time");
+        assertTrue(results.errors().isEmpty());
+    }
+
+    @Test
+    public void testRun_LatencyMeasuredFromIntendedStart() {
+        LoadTestResults results = new LoadTestResults("scenario");
+        OpenModelDriver driver = new OpenModelDriver(1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // The first arrival stalls the driver thread for 200 ms; the arrivals queued behind it must not look fast.
+        driver.run(results, 100, Duration.ZERO, Duration.ofMillis(300), () -> {
+            if (calls.getAndIncrement() == 0) {
+                ServiceLauncher.sleep(Duration.ofMillis(200));
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+
+        Histogram histogram = results.histograms().get(LoadTestResults.ARRIVAL);
+        assertEquals(30, histogram.getTotalCount());
+        assertTrue(histogram.getValueAtPercentile(50) >= 50_000,
+                "median " + histogram.getValueAtPercentile(50) + " us should include the stall");
+    }
+
+    @Test
+    public void testRun_DropsArrivalsBeyondMaxInFlight() {
+        LoadTestResults results = new LoadTestResults("scenario");
+        OpenModelDriver driver = new OpenModelDriver(5);
+
+        driver.run(results, 100, Duration.ZERO, Duration.ofMillis(300), () -> completeAfter(1_000));
+
+        assertEquals(5, results.histograms().get(LoadTestResults.ARRIVAL).getTotalCount());
+        assertEquals(25L, results.errors().get("arrival\tdropped"));
+    }
+
+    @Test
+    public void testWrite_HistogramsAndCsvFiles(@TempDir Path output) throws Exception {
+        LoadTestResults results = new LoadTestResults("checkout-storm");
+        results.recordLatency("checkout", TimeUnit.MILLISECONDS.toNanos(12));
+        results.recordLatency("checkout", TimeUnit.MILLISECONDS.toNanos(30));
+        results.recordError("checkout", "HTTP 500");
+        results.recordError("checkout", "HTTP 500");
+
+        results.write(output);
+
+        assertTrue(Files.exists(output.resolve("checkout-storm").resolve("checkout.hgrm")));
+        assertTrue(Files.exists(output.resolve("checkout-storm").resolve("checkout.hlog")));
+        List<String> summary = Files.readAllLines(output.resolve("summary.csv"));
+        assertEquals(2, summary.size());
+        assertTrue(summary.get(1).startsWith("checkout-storm,checkout,2,"));
+        assertEquals(List.of("scenario,operation,error,count", "checkout-storm,checkout,HTTP 500,2"),
+                Files.readAllLines(output.resolve("errors.csv")));
+    }
+
+    @Test
+    public void testCompare_OneColumnGroupPerRun(@TempDir Path output) throws Exception {
+        for (String run : List.of("default", "virtual-threads")) {
+            LoadTestResults results = new LoadTestResults("browse");
+            results.recordLatency("get-product", TimeUnit.MILLISECONDS.toNanos(run.equals("default") ? 40 : 10));
+            if (run.equals("default")) {
+                results.recordError("get-product", "timeout");
+            }
+            results.write(output.resolve(run));
+        }
+
+        List<String> comparison = Files.readAllLines(RunComparison.write(output, List.of("default", "virtual-threads")));
+
+        assertEquals("scenario,operation,default_count,default_errors,default_p50_ms,default_p99_ms,default_p99_9_ms,"
+                + "virtual-threads_count,virtual-threads_errors,virtual-threads_p50_ms,virtual-threads_p99_ms,"
+                + "virtual-threads_p99_9_ms", comparison.get(0));
+        assertTrue(comparison.get(1).startsWith("browse,get-product,1,1,40."), comparison.get(1));
+        assertTrue(comparison.get(1).contains(",1,0,10."), comparison.get(1));
+    }
+
+    @Test
+    public void testParseProfiles() {
+        assertEquals(List.of("default"), LoadTestConfig.parse().getProfiles());
+        assertEquals(List.of("default", "virtual-threads"),
+                LoadTestConfig.parse("--profiles=default, virtual-threads").getProfiles());
+        assertThrows(IllegalArgumentException.class,
+                () -> LoadTestConfig.parse("--launch=false", "--profiles=default,virtual-threads"));
+    }
+
+    @Test
+    public void testParseScenarios() {
+        assertEquals(List.of(Scenario.BROWSE, Scenario.CHECKOUT_STORM),
+                List.copyOf(LoadTestConfig.parseScenarios("browse:200,checkout-storm", 50).keySet()));
+        assertEquals(50.0, LoadTestConfig.parseScenarios("browse:200,checkout-storm", 50).get(Scenario.CHECKOUT_STORM));
+        assertThrows(IllegalArgumentException.class, () -> LoadTestConfig.parseScenarios("unknown", 50));
+        assertEquals(Duration.ofMillis(1500), LoadTestConfig.parseDuration("1500ms"));
+        assertEquals(Duration.ofMinutes(2), LoadTestConfig.parseDuration("2m"));
+    }
+}
@@ -0,0 +1,430 @@
+package org.example.microservice.catalog;
+
+import org.example.microservice.model.Product;
+import org.example.microservice.pricing.PricingEngine;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-memory copy of the {@code products} table, held column by column in primitive arrays: each product takes
+ * a slot, and its ID, UPC, name, prices (in minor units, see {@link PricingEngine}) and quantity sit at that
+ * index of the matching array. Slots are found through open-addressing hash tables on ID and UPC, so looking a
+ * product up and reading its columns does not allocate, unlike a {@code Product} entity with boxed keys and
+ * {@code BigDecimal} prices.
+ * <p>
+ * Slots are never freed; a product keeps its slot for the life of the index. Reads may run concurrently with
+ * each other and with {@link #put}. Each column getter sees its column as it was after a complete {@code put},
+ * but two getters called one after the other may see two different {@code put}s: to read several columns of a
+ * product together, copy them into a {@link Row} with {@link #read}, which sees one {@code put} for all of them.
+ */
+public class CatalogIndex {
+    public static final int NOT_FOUND = -1;
+    /**
+     * Stored in a price column for a product without that price.
+     */
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    private final PricingEngine pricingEngine;
+    private final StampedLock lock = new StampedLock();
+    private final LongIntHashMap slotsById;
+    // slot + 1 of the product with each UPC, 0 for a free entry
+    private int[] slotsByUpc;
+    private int upcMask;
+
+    private long[] ids;
+    private String[] upcs;
+    private String[] names;
+    private long[] wholesalePrices;
+    private long[] retailPrices;
+    private int[] quantities;
+    private int size;
+
+    /**
+     * The columns of one product, filled in by {@link #read}. A caller can reuse one row for many reads, so that
+     * looking products up allocates nothing.
+     */
+    public static final class Row {
+        private long id;
+        private String upc;
+        private String name;
+        private long wholesalePrice;
+        private long retailPrice;
+        private int quantity;
+
+        public long getId() {
+            return id;
+        }
+
+        public String getUpc() {
+            return upc;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the wholesale price in minor units, or {@link #NO_PRICE}
+         */
+        public long getWholesalePrice() {
+            return wholesalePrice;
+        }
+
+        /**
+         * @return the retail price in minor units, or {@link #NO_PRICE}
+         */
+        public long getRetailPrice() {
+            return retailPrice;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    public CatalogIndex(PricingEngine pricingEngine, int expectedSize) {
+        this.pricingEngine = pricingEngine;
+        slotsById = new LongIntHashMap(expectedSize);
+        int upcTableSize = LongIntHashMap.tableSize(expectedSize);
+        slotsByUpc = new int[upcTableSize];
+        upcMask = upcTableSize - 1;
+        int capacity = Math.max(16, expectedSize);
+        ids = new long[capacity];
+        upcs = new String[capacity];
+        names = new String[capacity];
+        wholesalePrices = new long[capacity];
+        retailPrices = new long[capacity];
+        quantities = new int[capacity];
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds the product, or replaces the columns of the product with the same ID.
+     *
+     * @param product a product with an ID and a UPC
+     */
+    public void put(Product product) {
+        put(product.getId(), product.getUpc(), product.getName(), toMinorUnits(product.getWholesalePrice()),
+                toMinorUnits(product.getRetailPrice()), product.getQuantity());
+    }
+
+    /**
+     * @param wholesalePrice in minor units, or {@link #NO_PRICE}
+     * @param retailPrice in minor units, or {@link #NO_PRICE}
+     */
+    public void put(long id, String upc, String name, long wholesalePrice, long retailPrice, int quantity) {
+        if (upc == null) {
+            throw new IllegalArgumentException("Product " + id + " has no UPC");
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotsById.get(id);
+            if (slot == LongIntHashMap.MISSING) {
+                slot = size;
+                if (slot == ids.length) {
+                    growColumns();
+                }
+                ids[slot] = id;
+                slotsById.put(id, slot);
+                size++;
+            } else if (upcs[slot] != null && !upc.equals(upcs[slot])) {
+                removeUpc(slot);
+            }
+            if (upcs[slot] == null) {
+                upcs[slot] = upc;
+                addUpc(slot);
+            }
+            names[slot] = name;
+            wholesalePrices[slot] = wholesalePrice;
+            retailPrices[slot] = retailPrice;
+            quantities[slot] = quantity;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the slot of the product with this ID, or {@link #NOT_FOUND}
+     */
+    public int slotOf(long id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotsById.get(id);
+            return slot == LongIntHashMap.MISSING ? NOT_FOUND : slot;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the slot of the product with this UPC, or {@link #NOT_FOUND}
+     */
+    public int slotOfUpc(String upc) {
+        long stamp = lock.readLock();
+        try {
+            return findUpc(upc);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long id(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return ids[checkSlot(slot)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public String upc(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return upcs[checkSlot(slot)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public String name(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return names[checkSlot(slot)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the wholesale price in minor units, or {@link #NO_PRICE}
+     */
+    public long wholesalePrice(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return wholesalePrices[checkSlot(slot)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the retail price in minor units, or {@link #NO_PRICE}
+     */
+    public long retailPrice(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return retailPrices[checkSlot(slot)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int quantity(int slot) {
+        long stamp = lock.readLock();
+        try {
+            return quantities[checkSlot(slot)];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copies every column of the product in {@code slot} into {@code row}, all as of the same {@link #put}. Tries
+     * without locking first and only takes the read lock if a {@code put} ran in the meantime.
+     *
+     * @param slot from {@link #slotOf} or {@link #slotOfUpc}; {@link #NOT_FOUND} is allowed
+     * @return false, leaving {@code row} as it was, if there is no product in the slot
+     */
+    public boolean read(int slot, Row row) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L && slot >= 0) {
+            // columns read without the lock may be torn or from before a growColumns, so nothing is trusted, or
+            // written to the row, until the stamp is validated
+            long[] ids = this.ids;
+            String[] upcs = this.upcs;
+            String[] names = this.names;
+            long[] wholesalePrices = this.wholesalePrices;
+            long[] retailPrices = this.retailPrices;
+            int[] quantities = this.quantities;
+            int size = this.size;
+            if (slot < size && slot < ids.length && slot < upcs.length && slot < names.length
+                    && slot < wholesalePrices.length && slot < retailPrices.length && slot < quantities.length) {
+                long id = ids[slot];
+                String upc = upcs[slot];
+                String name = names[slot];
+                long wholesalePrice = wholesalePrices[slot];
+                long retailPrice = retailPrices[slot];
+                int quantity = quantities[slot];
+                if (lock.validate(stamp)) {
+                    fill(row, id, upc, name, wholesalePrice, retailPrice, quantity);
+                    return true;
+                }
+            } else if (lock.validate(stamp)) {
+                return false;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            if (slot < 0 || slot >= size) {
+                return false;
+            }
+            fill(row, ids[slot], upcs[slot], names[slot], wholesalePrices[slot], retailPrices[slot], quantities[slot]);
+            return true;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static void fill(Row row, long id, String upc, String name, long wholesalePrice, long retailPrice,
+                             int quantity) {
+        row.id = id;
+        row.upc = upc;
+        row.name = name;
+        row.wholesalePrice = wholesalePrice;
+        row.retailPrice = retailPrice;
+        row.quantity = quantity;
+    }
+
+    /**
+     * Copies the product out of the index, for callers that need an entity; the copy is detached from any
+     * persistence context.
+     *
+     * @return the product with this ID, or {@code null}
+     */
+    public Product get(long id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slotsById.get(id);
+            return slot == LongIntHashMap.MISSING ? null : toProduct(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return a copy of the product with this UPC, or {@code null}
+     */
+    public Product getByUpc(String upc) {
+        long stamp = lock.readLock();
+        try {
+            int slot = findUpc(upc);
+            return slot == NOT_FOUND ? null : toProduct(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return a product with the columns of {@code row}, detached from any persistence context
+     */
+    public Product toProduct(Row row) {
+        return new Product(row.id, row.upc, row.name, toDecimal(row.wholesalePrice), toDecimal(row.retailPrice),
+                row.quantity);
+    }
+
+    private Product toProduct(int slot) {
+        return new Product(ids[slot], upcs[slot], names[slot], toDecimal(wholesalePrices[slot]),
+                toDecimal(retailPrices[slot]), quantities[slot]);
+    }
+
+    private long toMinorUnits(BigDecimal price) {
+        return price == null ? NO_PRICE : pricingEngine.toMinorUnits(price);
+    }
+
+    private BigDecimal toDecimal(long price) {
+        return price == NO_PRICE ? null : pricingEngine.toDecimal(price);
+    }
+
+    private int checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("No product in slot " + slot);
+        }
+        return slot;
+    }
+
+    private int findUpc(String upc) {
+        if (upc == null) {
+            return NOT_FOUND;
+        }
+        for (int i = upcIndex(upc); slotsByUpc[i] != 0; i = (i + 1) & upcMask) {
+            if (upc.equals(upcs[slotsByUpc[i] - 1])) {
+                return slotsByUpc[i] - 1;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    private void addUpc(int slot) {
+        int existing = findUpc(upcs[slot]);
+        if (existing != NOT_FOUND) {
+            // the UPC moved to another product before the event that takes it off the old one arrived
+            removeUpc(existing);
+        }
+        int i = upcIndex(upcs[slot]);
+        while (slotsByUpc[i] != 0) {
+            i = (i + 1) & upcMask;
+        }
+        slotsByUpc[i] = slot + 1;
+        if (size > upcMask * 3 / 4) {
+            rehashUpcs(slotsByUpc.length * 2);
+        }
+    }
+
+    /**
+     * Takes the slot's current UPC out of the UPC table and clears it, shifting later entries of the probe
+     * sequence back so that no lookup stops early at the freed entry.
+     */
+    private void removeUpc(int slot) {
+        int gap = upcIndex(upcs[slot]);
+        while (slotsByUpc[gap] != slot + 1) {
+            gap = (gap + 1) & upcMask;
+        }
+        for (int i = (gap + 1) & upcMask; slotsByUpc[i] != 0; i = (i + 1) & upcMask) {
+            int home = upcIndex(upcs[slotsByUpc[i] - 1]);
+            if (((i - home) & upcMask) >= ((i - gap) & upcMask)) {
+                slotsByUpc[gap] = slotsByUpc[i];
+                gap = i;
+            }
+        }
+        slotsByUpc[gap] = 0;
+        upcs[slot] = null;
+    }
+
+    private void rehashUpcs(int capacity) {
+        slotsByUpc = new int[capacity];
+        upcMask = capacity - 1;
+        for (int slot = 0; slot < size; slot++) {
+            if (upcs[slot] != null) {
+                int i = upcIndex(upcs[slot]);
+                while (slotsByUpc[i] != 0) {
+                    i = (i + 1) & upcMask;
+                }
+                slotsByUpc[i] = slot + 1;
+            }
+        }
+    }
+
+    private int upcIndex(String upc) {
+        return LongIntHashMap.mix(upc.hashCode()) & upcMask;
+    }
+
+    private void growColumns() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        upcs = Arrays.copyOf(upcs, capacity);
+        names = Arrays.copyOf(names, capacity);
+        wholesalePrices = Arrays.copyOf(wholesalePrices, capacity);
+        retailPrices = Arrays.copyOf(retailPrices, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.microservice.catalog;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.model.Product;
+import org.example.microservice.pricing.PricingEngine;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Keeps a {@link CatalogIndex} of the {@code products} table: loaded once the context's singletons exist,
+ * before the web server takes requests, then updated from the {@link ProductChangedEvent}s of this process
+ * once their transaction commits. Changes made by other services reach the index on its next start only.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "catalog.index", name = "enabled", havingValue = "true")
+public class CatalogIndexConfig {
+    private static final String LOAD_QUERY =
+            "SELECT id, upc, name, wholesale_price, retail_price, quantity FROM products";
+
+    @Bean
+    public CatalogIndex catalogIndex(PricingEngine pricingEngine,
+                                     @Value("${catalog.index.expected-size:1024}") int expectedSize) {
+        return new CatalogIndex(pricingEngine, expectedSize);
+    }
+
+    /**
+     * Eager even under {@code spring.main.lazy-initialization}; the README's fast-startup section explains why.
+     */
+    @Bean
+    @Lazy(false)
+    public CatalogIndexUpdater catalogIndexUpdater(CatalogIndex catalogIndex, JdbcTemplate jdbcTemplate,
+                                                   @Value("${catalog.index.load-on-startup:true}") boolean loadOnStartup) {
+        return new CatalogIndexUpdater(catalogIndex, jdbcTemplate, loadOnStartup);
+    }
+
+    @Bean
+    public MeterBinder catalogIndexMetrics(CatalogIndex catalogIndex) {
+        return registry -> Gauge.builder("catalog.index.size", catalogIndex, CatalogIndex::size)
+                .description("Products held by the in-memory catalog index")
+                .register(registry);
+    }
+
+    @RequiredArgsConstructor
+    public static class CatalogIndexUpdater implements SmartInitializingSingleton {
+        private final CatalogIndex catalogIndex;
+        private final JdbcTemplate jdbcTemplate;
+        private final boolean loadOnStartup;
+
+        @Override
+        public void afterSingletonsInstantiated() {
+            if (!loadOnStartup) {
+                log.info("Not loading the catalog index: catalog.index.load-on-startup is false");
+                return;
+            }
+            long start = System.nanoTime();
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(LOAD_QUERY);
+                statement.setFetchSize(1_000);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> catalogIndex.put(new Product(resultSet.getLong("id"),
+                    resultSet.getString("upc"), resultSet.getString("name"), resultSet.getBigDecimal("wholesale_price"),
+                    resultSet.getBigDecimal("retail_price"), resultSet.getInt("quantity"))));
+            log.info("Loaded {} products into the catalog index in {} ms", catalogIndex.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+
+        @TransactionalEventListener(fallbackExecution = true)
+        public void onProductChanged(ProductChangedEvent event) {
+            catalogIndex.put(event.product());
+        }
+    }
+}
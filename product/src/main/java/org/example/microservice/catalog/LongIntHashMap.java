@@ -0,0 +1,98 @@
+package org.example.microservice.catalog;
+
+/**
+ * Open-addressing map from {@code long} keys to non-negative {@code int} values, with linear probing over two
+ * parallel arrays. Neither keys nor values are boxed, so {@link #get} does not allocate. Not thread-safe.
+ */
+public class LongIntHashMap {
+    public static final int MISSING = -1;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    // value + 1, so that 0 marks a free entry whatever the key
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the value for {@code key}, or {@link #MISSING}
+     */
+    public int get(long key) {
+        for (int i = index(key); values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i] - 1;
+            }
+        }
+        return MISSING;
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+        int i = index(key);
+        for (; values[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value + 1;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value + 1;
+        if (++size > resizeAt) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != 0) {
+                int i = index(oldKeys[j]);
+                while (values[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int index(long key) {
+        return mix(key) & mask;
+    }
+
+    /**
+     * Spreads sequential keys such as database IDs over the table (Fibonacci hashing).
+     */
+    static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    static int tableSize(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.microservice.catalog;
+
+import org.example.microservice.model.Product;
+
+/**
+ * Published by the services after they save a {@link Product}, carrying the product as saved.
+ */
+public record ProductChangedEvent(Product product) {
+}
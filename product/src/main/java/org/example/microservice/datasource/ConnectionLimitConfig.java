@@ -0,0 +1,72 @@
+package org.example.microservice.datasource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Puts a {@link ConnectionLimitingDataSource} in front of the application's {@code dataSource} bean, whether
+ * that is the auto-configured pool or the read/write router. Enabled by the {@code virtual-threads} profile.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.connection-limit", name = "enabled", havingValue = "true")
+public class ConnectionLimitConfig {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+    // Hikari's own default, applied when the pool starts if maximum-pool-size is not set
+    private static final int DEFAULT_MAX_CONCURRENT = 10;
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment) {
+        ConnectionLimitProperties properties = Binder.get(environment)
+                .bind("datasource.connection-limit", ConnectionLimitProperties.class)
+                .orElseGet(ConnectionLimitProperties::new);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int maxConcurrent = properties.getMaxConcurrent() > 0 ? properties.getMaxConcurrent() : poolSize(dataSource);
+                log.info("Limiting {} to {} concurrent connections", beanName, maxConcurrent);
+                return new ConnectionLimitingDataSource(dataSource, maxConcurrent, properties.getAcquireTimeout());
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConnectionLimitingDataSource limiter;
+            try {
+                limiter = dataSource.unwrap(ConnectionLimitingDataSource.class);
+            } catch (SQLException ex) {
+                return;
+            }
+            Gauge.builder("datasource.connection.limit.available", limiter, ConnectionLimitingDataSource::getAvailablePermits)
+                    .description("Connection permits not in use")
+                    .register(registry);
+            Gauge.builder("datasource.connection.limit.waiting", limiter, ConnectionLimitingDataSource::getWaiting)
+                    .description("Threads waiting for a connection permit")
+                    .register(registry);
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        HikariConfigMXBean pool = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        return pool != null && pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : DEFAULT_MAX_CONCURRENT;
+    }
+}
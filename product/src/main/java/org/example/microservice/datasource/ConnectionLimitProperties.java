@@ -0,0 +1,25 @@
+package org.example.microservice.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.connection-limit")
+public class ConnectionLimitProperties {
+    /**
+     * Bounds concurrent connection use with a semaphore in front of the DataSource when true.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Connections that may be checked out at once. 0 uses the Hikari maximum pool size.
+     */
+    private int maxConcurrent = 0;
+
+    /**
+     * How long a caller waits for a connection before the request fails.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+}
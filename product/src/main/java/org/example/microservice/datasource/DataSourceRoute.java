@@ -0,0 +1,6 @@
+package org.example.microservice.datasource;
+
+public enum DataSourceRoute {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,46 @@
+package org.example.microservice.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "datasource.routing")
+public class DataSourceRoutingProperties {
+    /**
+     * Sends read-only transactions to the replica when true. The primary is configured through spring.datasource.*.
+     */
+    private boolean enabled = false;
+
+    private Replica replica = new Replica();
+
+    /**
+     * Replica lag above which read-only work falls back to the primary.
+     */
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+
+    /**
+     * How often the replica lag is checked.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * Query returning the replica lag in seconds. The default works for a PostgreSQL streaming replica.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_is_in_recovery() "
+            + "THEN COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) ELSE 0 END";
+
+    /**
+     * How long reads stay on the primary after a write, so a caller sees its own writes even if the replica lags.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.microservice.datasource;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to the replica and everything else to the primary. Reads fall back to the
+ * primary while the replica lags too far behind and while the current request is pinned by
+ * {@link ReadYourWritesContext}. Must be wrapped in a {@code LazyConnectionDataSourceProxy}, so the connection
+ * is only fetched once the transaction's read-only flag is known.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicationLagMonitor lagMonitor;
+    private final Duration readYourWritesWindow;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicationLagMonitor lagMonitor,
+                                      Duration readYourWritesWindow) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWritesWindow = readYourWritesWindow;
+        setTargetDataSources(Map.of(DataSourceRoute.PRIMARY, primary, DataSourceRoute.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentRoute();
+    }
+
+    public DataSourceRoute currentRoute() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (lagMonitor.isReplicaUsable() && !ReadYourWritesContext.isPinnedToPrimary()) {
+                return DataSourceRoute.REPLICA;
+            }
+            return DataSourceRoute.PRIMARY;
+        }
+        registerWriteTracking();
+        return DataSourceRoute.PRIMARY;
+    }
+
+    private void registerWriteTracking() {
+        if (!ReadYourWritesContext.isActive() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof WriteTracking) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new WriteTracking());
+    }
+
+    private final class WriteTracking implements TransactionSynchronization {
+        @Override
+        public void afterCommit() {
+            long pinnedUntil = ReadYourWritesContext.markWritten(readYourWritesWindow);
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (pinnedUntil > 0 && attributes instanceof ServletRequestAttributes servletAttributes) {
+                HttpServletResponse response = servletAttributes.getResponse();
+                if (response != null && !response.isCommitted()) {
+                    response.setHeader(ReadYourWritesContext.HEADER, Long.toString(pinnedUntil));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.microservice.datasource;
+
+import java.time.Duration;
+
+/**
+ * Per-request read-your-writes state. While a request is pinned, read-only transactions go to the primary.
+ * A request is pinned when it carries {@link #HEADER} from an earlier response in the same request chain, or
+ * once it has committed a write itself.
+ */
+public final class ReadYourWritesContext {
+    /**
+     * Epoch millis until which the caller's reads should stay on the primary. Set on responses after a write and
+     * expected back on follow-up requests of the same chain.
+     */
+    public static final String HEADER = "X-Read-Your-Writes-Until";
+
+    private static final ThreadLocal<long[]> PINNED_UNTIL = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    /**
+     * Starts tracking for the current request.
+     *
+     * @param pinnedUntilMillis epoch millis carried by the caller, or 0 if none
+     */
+    public static void begin(long pinnedUntilMillis) {
+        PINNED_UNTIL.set(new long[]{pinnedUntilMillis});
+    }
+
+    public static void end() {
+        PINNED_UNTIL.remove();
+    }
+
+    public static boolean isActive() {
+        return PINNED_UNTIL.get() != null;
+    }
+
+    public static boolean isPinnedToPrimary() {
+        long[] pinnedUntil = PINNED_UNTIL.get();
+        return pinnedUntil != null && pinnedUntil[0] > System.currentTimeMillis();
+    }
+
+    /**
+     * Pins the rest of the current request, and callers that echo {@link #HEADER}, to the primary.
+     *
+     * @param window how long reads should stay on the primary
+     * @return the epoch millis the request is pinned until, or 0 outside a tracked request
+     */
+    public static long markWritten(Duration window) {
+        long[] pinnedUntil = PINNED_UNTIL.get();
+        if (pinnedUntil == null) {
+            return 0;
+        }
+        pinnedUntil[0] = Math.max(pinnedUntil[0], System.currentTimeMillis() + window.toMillis());
+        return pinnedUntil[0];
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.microservice.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the replica is behind. Until a check succeeds with a lag under the limit, the
+ * replica is considered unusable and read-only work stays on the primary.
+ */
+@Slf4j
+public class ReplicationLagMonitor {
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private volatile boolean replicaUsable;
+    private volatile double lastLagSeconds = -1;
+
+    public ReplicationLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    public void check() {
+        boolean usable;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            lastLagSeconds = resultSet.next() ? resultSet.getDouble(1) : -1;
+            usable = lastLagSeconds >= 0 && lastLagSeconds * 1000 <= maxLag.toMillis();
+        } catch (Exception ex) {
+            log.warn("Replica lag check failed: {}", ex.getMessage());
+            lastLagSeconds = -1;
+            usable = false;
+        }
+        if (usable != replicaUsable) {
+            log.info("Replica is now {} (lag: {} s, limit: {} s)", usable ? "in use" : "bypassed",
+                    lastLagSeconds, maxLag.toSeconds());
+        }
+        replicaUsable = usable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public double getLastLagSeconds() {
+        return lastLagSeconds;
+    }
+}
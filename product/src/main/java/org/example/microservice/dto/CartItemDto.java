@@ -0,0 +1,25 @@
+package org.example.microservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Wire representation of a shopping cart line. Carries the product ID and unit price instead of the full
+ * nested product, which callers can look up separately when they need it.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CartItemDto {
+    private Long id;
+    private Long productId;
+    private BigDecimal unitPrice;
+    private int quantity;
+    private boolean checkout;
+    private BigDecimal totalAmount;
+}
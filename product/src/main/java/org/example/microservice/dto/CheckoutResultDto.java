@@ -0,0 +1,17 @@
+package org.example.microservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutResultDto {
+    private List<ProductDto> products;
+    private List<String> messages;
+}
@@ -0,0 +1,44 @@
+package org.example.microservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.microservice.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Wire representation of a {@link Product}, decoupled from the JPA entity. The product endpoints read and write it
+ * as JSON or CBOR, whichever the client asks for.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductDto {
+    private Long id;
+    private String upc;
+    private String name;
+    private BigDecimal wholesalePrice;
+    private BigDecimal retailPrice;
+    private int quantity;
+
+    public static ProductDto from(Product product) {
+        return ProductDto.builder()
+                .id(product.getId())
+                .upc(product.getUpc())
+                .name(product.getName())
+                .wholesalePrice(product.getWholesalePrice())
+                .retailPrice(product.getRetailPrice())
+                .quantity(product.getQuantity())
+                .build();
+    }
+
+    /**
+     * A new, unsaved product with these fields. The ID is not copied: the database assigns it.
+     */
+    public Product toProduct() {
+        return new Product(null, upc, name, wholesalePrice, retailPrice, quantity);
+    }
+}
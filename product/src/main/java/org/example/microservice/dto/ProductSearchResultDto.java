@@ -0,0 +1,27 @@
+package org.example.microservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.microservice.model.Product;
+
+import java.util.List;
+
+/**
+ * One page of a product search, best matches first.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchResultDto {
+    private String query;
+    private int page;
+    private int size;
+    /**
+     * Products matched across all pages.
+     */
+    private int total;
+    private List<Product> products;
+}
@@ -0,0 +1,24 @@
+package org.example.microservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An expected outcome that ends a request, such as a lookup of an ID that does not exist, as opposed to a fault.
+ * It is answered with its {@link #getStatus() status} and message, so it records no stack trace and takes no
+ * suppressed exceptions: filling in the stack would cost more than the lookup that missed.
+ */
+public abstract class DomainException extends RuntimeException {
+    private final HttpStatus status;
+
+    protected DomainException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    /**
+     * @return the status the request is answered with
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.microservice.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ProductNotFoundException extends DomainException {
+    public ProductNotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.microservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many JDBC statements and entity loads each request caused, as the {@code http.server.requests.jdbc.statements}
+ * and {@code http.server.requests.entity.loads} distribution summaries tagged with the request method and URI
+ * template. A jump in either for an endpoint is the signature of an N+1 regression.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            record("http.server.requests.jdbc.statements", "statements", request, uri, QueryCounter.statements());
+            record("http.server.requests.entity.loads", "entities", request, uri, QueryCounter.entityLoads());
+        }
+    }
+
+    private void record(String name, String unit, HttpServletRequest request, String uri, long value) {
+        DistributionSummary.builder(name)
+                .baseUnit(unit)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
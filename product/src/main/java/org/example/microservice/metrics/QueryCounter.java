@@ -0,0 +1,43 @@
+package org.example.microservice.metrics;
+
+/**
+ * Per-thread counts of the JDBC statements Hibernate prepares and the entities it loads. {@link QueryCountFilter}
+ * resets them at the start of each request; tests can do the same around a single service call.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+
+    private QueryCounter() {
+    }
+
+    public static void reset() {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS] = 0;
+        counts[ENTITY_LOADS] = 0;
+    }
+
+    /**
+     * @return the JDBC statements prepared on this thread since the last {@link #reset()}
+     */
+    public static long statements() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    /**
+     * @return the entities loaded on this thread since the last {@link #reset()}, whether by ID, by query or
+     * through an association
+     */
+    public static long entityLoads() {
+        return COUNTS.get()[ENTITY_LOADS];
+    }
+
+    static void statementPrepared() {
+        COUNTS.get()[STATEMENTS]++;
+    }
+
+    static void entityLoaded() {
+        COUNTS.get()[ENTITY_LOADS]++;
+    }
+}
@@ -18,8 +18,10 @@ public class Product {
     @Column(nullable = false, unique = true)
     private String upc;
     private String name;
+    @Column(precision = 19, scale = 2)
     private BigDecimal wholesalePrice;
 
+    @Column(precision = 19, scale = 2)
     private BigDecimal retailPrice;
 
     private int quantity;
@@ -0,0 +1,24 @@
+package org.example.microservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * One share of a product's stock. A product's stock is the sum of its buckets, see
+ * {@link org.example.microservice.stock.StockAllocator}.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stock_buckets", uniqueConstraints = @UniqueConstraint(columnNames = {"productId", "bucket"}))
+public class StockBucket {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private Long productId;
+    private int bucket;
+    private int quantity;
+}
@@ -0,0 +1,15 @@
+package org.example.microservice.pricing;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PricingProperties.class)
+public class PricingConfig {
+
+    @Bean
+    public PricingEngine pricingEngine(PricingProperties properties) {
+        return new PricingEngine(properties);
+    }
+}
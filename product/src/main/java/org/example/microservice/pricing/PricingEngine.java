@@ -0,0 +1,204 @@
+package org.example.microservice.pricing;
+
+import org.example.microservice.model.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prices cart lines in minor units (cents for a scale of 2) held in {@code long}s. Tiers and promotions are
+ * compiled once into primitive arrays, so pricing a line does no allocation; {@link BigDecimal} is only used to
+ * convert prices in ({@link #toMinorUnits}) and totals out ({@link #toDecimal}). Converting a price in does not
+ * allocate either unless it has more decimal places than the currency, so neither does
+ * {@link #lineTotal(Product, int)}.
+ * <p>
+ * A line is priced as unit price times the units charged for: a {@code BUY_X_GET_Y} promotion takes the free
+ * units out first, then a {@code PERCENT_OFF} promotion and the volume tier reached by the line's quantity each
+ * take their discount off the line. Each discount is rounded half-even to a whole minor unit as it is taken off,
+ * so a line with both a {@code PERCENT_OFF} promotion and a tier is rounded twice. Arithmetic that does not fit
+ * in a {@code long} throws an {@link ArithmeticException}.
+ */
+public class PricingEngine {
+    public static final int NO_PROMOTION = -1;
+    private static final long BASIS_POINTS = 10_000;
+    /**
+     * Below this many minor units a price survives the trip through a {@code double} in {@link #toMinorUnits}
+     * exactly: the two roundings on the way are each at most half an ulp, together under a quarter of a unit.
+     */
+    private static final double EXACT_DOUBLE_LIMIT = 0x1p50;
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9};
+
+    private final int scale;
+    private final int[] tierMinQuantity;
+    private final int[] tierBasisPoints;
+    private final Map<String, Integer> promotionByUpc = new HashMap<>();
+    private final PricingProperties.Promotion.Type[] promotionType;
+    private final int[] promotionBasisPoints;
+    private final int[] promotionBuy;
+    private final int[] promotionFree;
+
+    public PricingEngine(PricingProperties properties) {
+        if (properties.getScale() < 0 || properties.getScale() > 9) {
+            throw new IllegalArgumentException("pricing.scale must be between 0 and 9: " + properties.getScale());
+        }
+        scale = properties.getScale();
+
+        PricingProperties.Tier[] tiers = properties.getTiers().toArray(PricingProperties.Tier[]::new);
+        Arrays.sort(tiers, Comparator.comparingInt(PricingProperties.Tier::getMinQuantity));
+        tierMinQuantity = new int[tiers.length];
+        tierBasisPoints = new int[tiers.length];
+        for (int i = 0; i < tiers.length; i++) {
+            if (tiers[i].getMinQuantity() < 1) {
+                throw new IllegalArgumentException("Tier minimum quantity must be positive: " + tiers[i]);
+            }
+            tierMinQuantity[i] = tiers[i].getMinQuantity();
+            tierBasisPoints[i] = basisPoints(tiers[i].getDiscountBasisPoints());
+        }
+
+        List<PricingProperties.Promotion> promotions = properties.getPromotions();
+        promotionType = new PricingProperties.Promotion.Type[promotions.size()];
+        promotionBasisPoints = new int[promotions.size()];
+        promotionBuy = new int[promotions.size()];
+        promotionFree = new int[promotions.size()];
+        for (int i = 0; i < promotions.size(); i++) {
+            PricingProperties.Promotion promotion = promotions.get(i);
+            if (promotion.getType() == null || promotion.getUpc() == null) {
+                throw new IllegalArgumentException("Promotion needs a type and a UPC: " + promotion);
+            }
+            if (promotionByUpc.put(promotion.getUpc(), i) != null) {
+                throw new IllegalArgumentException("More than one promotion for UPC " + promotion.getUpc());
+            }
+            promotionType[i] = promotion.getType();
+            if (promotion.getType() == PricingProperties.Promotion.Type.PERCENT_OFF) {
+                promotionBasisPoints[i] = basisPoints(promotion.getDiscountBasisPoints());
+            } else {
+                if (promotion.getBuy() < 1 || promotion.getFree() < 1) {
+                    throw new IllegalArgumentException("buy and free must be positive: " + promotion);
+                }
+                promotionBuy[i] = promotion.getBuy();
+                promotionFree[i] = promotion.getFree();
+            }
+        }
+    }
+
+    /**
+     * Prices with no tiers or promotions and a scale of 2: a line costs unit price times quantity.
+     */
+    public static PricingEngine standard() {
+        return new PricingEngine(new PricingProperties());
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    /**
+     * @return the promotion index for the UPC, or {@link #NO_PROMOTION}
+     */
+    public int promotionFor(String upc) {
+        Integer promotion = upc != null ? promotionByUpc.get(upc) : null;
+        return promotion != null ? promotion : NO_PROMOTION;
+    }
+
+    /**
+     * Prices one line of {@code product}, converting its retail price at the edge.
+     *
+     * @return the line total in minor units
+     */
+    public long lineTotal(Product product, int quantity) {
+        return lineTotal(toMinorUnits(product.getRetailPrice()), quantity, promotionFor(product.getUpc()));
+    }
+
+    /**
+     * @param unitPrice unit price in minor units
+     * @param quantity units on the line
+     * @param promotion from {@link #promotionFor}
+     * @return the line total in minor units
+     */
+    public long lineTotal(long unitPrice, int quantity, int promotion) {
+        if (quantity < 0) {
+            throw new IllegalArgumentException("Negative quantity: " + quantity);
+        }
+        long charged = quantity;
+        int promotionBasisPoints = 0;
+        if (promotion != NO_PROMOTION) {
+            if (promotionType[promotion] == PricingProperties.Promotion.Type.BUY_X_GET_Y) {
+                int group = promotionBuy[promotion] + promotionFree[promotion];
+                charged -= (long) (quantity / group) * promotionFree[promotion];
+            } else {
+                promotionBasisPoints = this.promotionBasisPoints[promotion];
+            }
+        }
+        long total = Math.multiplyExact(unitPrice, charged);
+        if (promotionBasisPoints > 0) {
+            total = discount(total, promotionBasisPoints);
+        }
+        int tierBasisPoints = tierBasisPoints(quantity);
+        if (tierBasisPoints > 0) {
+            total = discount(total, tierBasisPoints);
+        }
+        return total;
+    }
+
+    private int tierBasisPoints(int quantity) {
+        for (int i = tierMinQuantity.length - 1; i >= 0; i--) {
+            if (quantity >= tierMinQuantity[i]) {
+                return tierBasisPoints[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return {@code amount} less {@code basisPoints} hundredths of a percent, rounded half-even
+     */
+    static long discount(long amount, int basisPoints) {
+        return divideHalfEven(Math.multiplyExact(amount, BASIS_POINTS - basisPoints), BASIS_POINTS);
+    }
+
+    static long divideHalfEven(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long twiceRemainder = Math.abs(dividend % divisor) * 2;
+        if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+            quotient += dividend < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Converts an amount to minor units, rounding half-even to the currency scale. An amount with no more decimal
+     * places than the currency and under 2<sup>50</sup> minor units, which covers prices read from the database,
+     * is converted through {@link BigDecimal#doubleValue}, which does not allocate for such amounts, rather than
+     * through {@code setScale().unscaledValue()}, which allocates a {@code BigDecimal} and a {@code BigInteger}.
+     *
+     * @throws ArithmeticException if the amount does not fit in a {@code long}
+     */
+    public long toMinorUnits(BigDecimal amount) {
+        if (amount.scale() >= 0 && amount.scale() <= scale) {
+            double minorUnits = amount.doubleValue() * POWERS_OF_TEN[scale];
+            if (Math.abs(minorUnits) < EXACT_DOUBLE_LIMIT) {
+                return Math.round(minorUnits);
+            }
+        }
+        return amount.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    /**
+     * @return the amount with the currency scale, e.g. {@code 1999} as {@code 19.99}
+     */
+    public BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    private static int basisPoints(int basisPoints) {
+        if (basisPoints < 0 || basisPoints > BASIS_POINTS) {
+            throw new IllegalArgumentException("Discount must be between 0 and 10000 basis points: " + basisPoints);
+        }
+        return basisPoints;
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.microservice.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "pricing")
+public class PricingProperties {
+    /**
+     * Digits after the decimal point of the currency; amounts are kept as whole multiples of 10^-scale.
+     */
+    private int scale = 2;
+
+    /**
+     * Volume discounts on a cart line; the tier with the highest minimum quantity that the line reaches applies.
+     */
+    private List<Tier> tiers = new ArrayList<>();
+
+    /**
+     * Product promotions, applied before the volume tier.
+     */
+    private List<Promotion> promotions = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Tier {
+        private int minQuantity;
+        /**
+         * Discount in hundredths of a percent: 500 is 5%.
+         */
+        private int discountBasisPoints;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Promotion {
+        public enum Type {
+            /**
+             * {@code discount-basis-points} off the line.
+             */
+            PERCENT_OFF,
+            /**
+             * For every {@code buy} units paid, {@code free} more are free.
+             */
+            BUY_X_GET_Y
+        }
+
+        private String upc;
+        private Type type;
+        private int discountBasisPoints;
+        private int buy;
+        private int free;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.microservice.problem;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ProblemProperties.class)
+public class ProblemConfig {
+
+    @Bean
+    public ProblemResponses problemResponses(ProblemProperties properties) {
+        return new ProblemResponses(properties);
+    }
+}
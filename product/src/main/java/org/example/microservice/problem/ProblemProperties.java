@@ -0,0 +1,20 @@
+package org.example.microservice.problem;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "problem")
+public class ProblemProperties {
+    /**
+     * How long clients and caches may reuse a 404; zero marks it {@code no-store} like every other error.
+     */
+    private Duration notFoundMaxAge = Duration.ofSeconds(10);
+
+    /**
+     * Each kind of domain error is logged at most once per interval, with a count of those left out.
+     */
+    private Duration logInterval = Duration.ofSeconds(10);
+}
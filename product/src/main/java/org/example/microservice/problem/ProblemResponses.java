@@ -0,0 +1,43 @@
+package org.example.microservice.problem;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.exception.DomainException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the error responses of both services: an RFC 7807 {@link ProblemDetail} with the status and message,
+ * served as {@code application/problem+json}. A 404 may be cached for {@link ProblemProperties#getNotFoundMaxAge()},
+ * so repeated probes of missing IDs can be answered by a cache in front of the service; other errors depend on
+ * state that can change with the next request and are {@code no-store}.
+ * <p>
+ * Domain errors are logged here, rate-limited per exception class, rather than where they are thrown.
+ */
+@Slf4j
+public class ProblemResponses {
+    private final CacheControl notFoundCacheControl;
+    private final RateLimitedLogger domainErrorLog;
+
+    public ProblemResponses(ProblemProperties properties) {
+        this.notFoundCacheControl = properties.getNotFoundMaxAge().isZero()
+                ? CacheControl.noStore()
+                : CacheControl.maxAge(properties.getNotFoundMaxAge().toSeconds(), TimeUnit.SECONDS).cachePublic();
+        this.domainErrorLog = new RateLimitedLogger(log, properties.getLogInterval());
+    }
+
+    public ResponseEntity<ProblemDetail> of(DomainException ex) {
+        domainErrorLog.warn(ex.getClass(), () -> ex.getStatus().value() + " " + ex.getClass().getSimpleName() + ": " + ex.getMessage());
+        return of(ex.getStatus(), ex.getMessage());
+    }
+
+    public ResponseEntity<ProblemDetail> of(HttpStatus status, String detail) {
+        CacheControl cacheControl = status == HttpStatus.NOT_FOUND ? notFoundCacheControl : CacheControl.noStore();
+        return ResponseEntity.status(status)
+                .cacheControl(cacheControl)
+                .body(ProblemDetail.forStatusAndDetail(status, detail));
+    }
+}
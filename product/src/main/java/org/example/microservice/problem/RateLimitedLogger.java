@@ -0,0 +1,54 @@
+package org.example.microservice.problem;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Logs at most one message per key and interval. The first message after a quiet interval says how many were
+ * left out before it, so a flood of identical misses costs one line every interval instead of one per request.
+ * Keys should come from a small fixed set, such as exception classes: each is remembered for good.
+ */
+public class RateLimitedLogger {
+    private final Logger logger;
+    private final long intervalNanos;
+    private final Map<Object, Window> windows = new ConcurrentHashMap<>();
+
+    private static final class Window {
+        final AtomicLong next = new AtomicLong(System.nanoTime());
+        final LongAdder suppressed = new LongAdder();
+    }
+
+    public RateLimitedLogger(Logger logger, Duration interval) {
+        this.logger = logger;
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Logs the message at WARN unless one was logged for {@code key} within the interval; it is only built if
+     * it is logged.
+     */
+    public void warn(Object key, Supplier<String> message) {
+        if (!logger.isWarnEnabled()) {
+            return;
+        }
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        long now = System.nanoTime();
+        long next = window.next.get();
+        if (now - next < 0 || !window.next.compareAndSet(next, now + intervalNanos)) {
+            window.suppressed.increment();
+            return;
+        }
+        long suppressed = window.suppressed.sumThenReset();
+        if (suppressed > 0) {
+            logger.warn("{} ({} more not logged)", message.get(), suppressed);
+        } else {
+            logger.warn(message.get());
+        }
+    }
+}
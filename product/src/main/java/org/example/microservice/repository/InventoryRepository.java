@@ -1,11 +1,23 @@
 package org.example.microservice.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.microservice.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Product, Long> {
     public Product findProductByUpc(String upc);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> lockById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Product p set p.quantity = :quantity where p.id = :id")
+    int updateQuantity(@Param("id") Long id, @Param("quantity") int quantity);
 }
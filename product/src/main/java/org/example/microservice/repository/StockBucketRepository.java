@@ -0,0 +1,35 @@
+package org.example.microservice.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.microservice.model.StockBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface StockBucketRepository extends JpaRepository<StockBucket, Long> {
+
+    /**
+     * @return 1 if the bucket held at least {@code quantity} and was decremented, 0 otherwise
+     */
+    @Modifying
+    @Query("update StockBucket b set b.quantity = b.quantity - :quantity "
+            + "where b.productId = :productId and b.bucket = :bucket and b.quantity >= :quantity")
+    int decrement(@Param("productId") Long productId, @Param("bucket") int bucket, @Param("quantity") int quantity);
+
+    /**
+     * @return the product's stock, or {@code null} if it has no buckets
+     */
+    @Query("select sum(b.quantity) from StockBucket b where b.productId = :productId")
+    Long sumQuantity(@Param("productId") Long productId);
+
+    /**
+     * Locks the product's buckets, always in bucket order so that two callers cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from StockBucket b where b.productId = :productId order by b.bucket")
+    List<StockBucket> lockBuckets(@Param("productId") Long productId);
+}
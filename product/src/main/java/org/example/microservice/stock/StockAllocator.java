@@ -0,0 +1,203 @@
+package org.example.microservice.stock;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.catalog.ProductChangedEvent;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.StockBucket;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.StockBucketRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits each product's stock over {@link StockProperties#getCount()} rows of {@code stock_buckets}, so that
+ * concurrent checkouts of one product decrement different rows instead of queueing on the lock of its
+ * {@code products} row.
+ * <p>
+ * An allocation takes the whole quantity from one bucket, starting at a random one, with a conditional
+ * decrement that cannot take a bucket below zero. Only when no single bucket holds enough are all the
+ * product's buckets locked and drawn from together. Buckets drift apart as they are drawn from, so the
+ * products this process allocated from are rebalanced in the background, which also copies their stock to
+ * {@code products.quantity} and publishes a {@link ProductChangedEvent} with it; between rebalances that column
+ * trails the buckets and {@link #available} is the figure to check.
+ * <p>
+ * A product without buckets, such as one created before buckets were enabled, gets them from its
+ * {@code quantity} column on its first allocation.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StockAllocator {
+    private final StockBucketRepository bucketRepository;
+    private final InventoryRepository inventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockProperties properties;
+    private final Set<Long> pendingRebalance = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @return whether stock is kept in buckets; when it is not, none of the other methods may be called
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Replaces the product's stock, spread evenly over its buckets.
+     */
+    public void setStock(long productId, int quantity) {
+        transactionTemplate.executeWithoutResult(status -> spread(productId, bucketRepository.lockBuckets(productId), quantity));
+    }
+
+    /**
+     * @return the product's stock: the sum of its buckets, or its {@code quantity} column if it has none
+     */
+    public int available(long productId) {
+        Long sum = bucketRepository.sumQuantity(productId);
+        if (sum != null) {
+            return Math.toIntExact(sum);
+        }
+        return inventoryRepository.findById(productId).map(Product::getQuantity).orElse(0);
+    }
+
+    /**
+     * Takes {@code quantity} units of the product's stock. Joins the caller's transaction if there is one.
+     *
+     * @return false, leaving the stock as it was, if the product has less than {@code quantity} units
+     */
+    public boolean allocate(long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        int count = properties.getCount();
+        int first = ThreadLocalRandom.current().nextInt(count);
+        for (int i = 0; i < count; i++) {
+            int bucket = (first + i) % count;
+            Integer decremented = transactionTemplate.execute(status -> bucketRepository.decrement(productId, bucket, quantity));
+            if (decremented != null && decremented == 1) {
+                pendingRebalance.add(productId);
+                return true;
+            }
+        }
+        boolean allocated = Boolean.TRUE.equals(transactionTemplate.execute(status -> allocateAcrossBuckets(productId, quantity)));
+        if (allocated) {
+            pendingRebalance.add(productId);
+        }
+        return allocated;
+    }
+
+    /**
+     * Evens out the buckets of every product allocated from since the last call and refreshes its
+     * {@code products.quantity}. A product that fails is retried on the next call.
+     */
+    public void rebalancePending() {
+        List<Long> productIds = new ArrayList<>(pendingRebalance);
+        pendingRebalance.removeAll(productIds);
+        for (Long productId : productIds) {
+            try {
+                rebalance(productId);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to rebalance stock of product ID {}: {}", productId, ex.getMessage());
+                pendingRebalance.add(productId);
+            }
+        }
+    }
+
+    /**
+     * Spreads the product's stock evenly over its buckets again and copies it to {@code products.quantity}. The
+     * product as updated is published in a {@link ProductChangedEvent}, which reaches transactional listeners
+     * such as the catalog index once the rebalance commits.
+     */
+    public void rebalance(long productId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<StockBucket> buckets = bucketRepository.lockBuckets(productId);
+            if (buckets.isEmpty()) {
+                return;
+            }
+            int total = Math.toIntExact(sum(buckets));
+            spread(productId, buckets, total);
+            inventoryRepository.updateQuantity(productId, total);
+            inventoryRepository.findById(productId)
+                    .ifPresent(product -> eventPublisher.publishEvent(new ProductChangedEvent(product)));
+            log.debug("Rebalanced {} units of product ID {} over {} buckets", total, productId, properties.getCount());
+        });
+    }
+
+    private boolean allocateAcrossBuckets(long productId, int quantity) {
+        List<StockBucket> buckets = bucketRepository.lockBuckets(productId);
+        if (buckets.isEmpty()) {
+            buckets = createBuckets(productId);
+        }
+        if (sum(buckets) < quantity) {
+            return false;
+        }
+        int remaining = quantity;
+        for (StockBucket bucket : buckets) {
+            int taken = Math.min(remaining, bucket.getQuantity());
+            bucket.setQuantity(bucket.getQuantity() - taken);
+            remaining -= taken;
+        }
+        bucketRepository.saveAll(buckets);
+        return true;
+    }
+
+    /**
+     * Seeds the buckets of a product that has none from its {@code quantity} column. The product row is locked
+     * first, so of two processes doing this at once the second finds the first one's buckets.
+     */
+    private List<StockBucket> createBuckets(long productId) {
+        Product product = inventoryRepository.lockById(productId).orElse(null);
+        if (product == null) {
+            return List.of();
+        }
+        List<StockBucket> buckets = bucketRepository.lockBuckets(productId);
+        if (!buckets.isEmpty()) {
+            return buckets;
+        }
+        log.info("Splitting {} units of product ID {} into {} buckets", product.getQuantity(), productId,
+                properties.getCount());
+        return spread(productId, buckets, product.getQuantity());
+    }
+
+    /**
+     * Sets the buckets below {@link StockProperties#getCount()} to even shares of {@code quantity}, creating the
+     * missing ones, and empties any above it, left from a larger count.
+     *
+     * @param buckets the product's buckets, locked
+     * @return the product's buckets
+     */
+    private List<StockBucket> spread(long productId, List<StockBucket> buckets, int quantity) {
+        int count = properties.getCount();
+        StockBucket[] shares = new StockBucket[count];
+        for (StockBucket bucket : buckets) {
+            if (bucket.getBucket() < count) {
+                shares[bucket.getBucket()] = bucket;
+            } else {
+                bucket.setQuantity(0);
+            }
+        }
+        List<StockBucket> all = new ArrayList<>(buckets);
+        for (int i = 0; i < count; i++) {
+            if (shares[i] == null) {
+                shares[i] = new StockBucket(null, productId, i, 0);
+                all.add(shares[i]);
+            }
+            shares[i].setQuantity(quantity / count + (i < quantity % count ? 1 : 0));
+        }
+        return bucketRepository.saveAll(all);
+    }
+
+    private static long sum(List<StockBucket> buckets) {
+        long sum = 0;
+        for (StockBucket bucket : buckets) {
+            sum += bucket.getQuantity();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.microservice.stock;
+
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.StockBucketRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Always defines the {@link StockAllocator}, so services can ask it whether buckets are enabled. The
+ * repositories and transaction manager are only looked up when they are, which keeps the allocator available
+ * without JPA, under the {@code reactive} profile.
+ */
+@Configuration
+@EnableConfigurationProperties(StockProperties.class)
+public class StockConfig {
+
+    @Bean
+    public StockAllocator stockAllocator(StockProperties properties,
+                                         ObjectProvider<StockBucketRepository> bucketRepository,
+                                         ObjectProvider<InventoryRepository> inventoryRepository,
+                                         ObjectProvider<PlatformTransactionManager> transactionManager,
+                                         ApplicationEventPublisher eventPublisher) {
+        if (!properties.isEnabled()) {
+            return new StockAllocator(null, null, null, null, properties);
+        }
+        return new StockAllocator(bucketRepository.getObject(), inventoryRepository.getObject(),
+                new TransactionTemplate(transactionManager.getObject()), eventPublisher, properties);
+    }
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "stock.buckets", name = "enabled", havingValue = "true")
+    static class StockRebalancingConfig implements SchedulingConfigurer {
+        private final StockProperties properties;
+        private final ObjectProvider<StockAllocator> stockAllocator;
+
+        StockRebalancingConfig(StockProperties properties, ObjectProvider<StockAllocator> stockAllocator) {
+            this.properties = properties;
+            this.stockAllocator = stockAllocator;
+        }
+
+        @Override
+        public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+            taskRegistrar.addFixedDelayTask(() -> stockAllocator.getObject().rebalancePending(),
+                    properties.getRebalanceInterval());
+        }
+    }
+}
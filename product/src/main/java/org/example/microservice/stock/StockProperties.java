@@ -0,0 +1,25 @@
+package org.example.microservice.stock;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stock.buckets")
+public class StockProperties {
+    /**
+     * Whether stock is drawn from {@code stock_buckets} instead of the {@code quantity} column of {@code products}.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Buckets each product's stock is split into; concurrent checkouts of one product spread over this many rows.
+     */
+    private int count = 8;
+
+    /**
+     * How often products this service allocated from are rebalanced and their {@code quantity} column refreshed.
+     */
+    private Duration rebalanceInterval = Duration.ofSeconds(1);
+}
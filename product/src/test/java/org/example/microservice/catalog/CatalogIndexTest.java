@@ -0,0 +1,158 @@
+package org.example.microservice.catalog;
+
+import org.example.microservice.model.Product;
+import org.example.microservice.pricing.PricingEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogIndexTest {
+
+    private CatalogIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new CatalogIndex(PricingEngine.standard(), 4);
+    }
+
+    private static Product product(long id, String upc, String retailPrice, int quantity) {
+        return new Product(id, upc, "Product " + id, null, new BigDecimal(retailPrice), quantity);
+    }
+
+    @Test
+    public void testPut_LookupByIdAndUpc() {
+        index.put(product(7L, "UPC-7", "19.99", 3));
+
+        int slot = index.slotOf(7L);
+        assertEquals(slot, index.slotOfUpc("UPC-7"));
+        assertEquals(1999, index.retailPrice(slot));
+        assertEquals(CatalogIndex.NO_PRICE, index.wholesalePrice(slot));
+        assertEquals(3, index.quantity(slot));
+        assertEquals("Product 7", index.name(slot));
+        assertEquals(CatalogIndex.NOT_FOUND, index.slotOf(8L));
+        assertEquals(CatalogIndex.NOT_FOUND, index.slotOfUpc("UPC-8"));
+
+        Product copy = index.get(7L);
+        assertEquals(new BigDecimal("19.99"), copy.getRetailPrice());
+        assertNull(copy.getWholesalePrice());
+        assertEquals("UPC-7", index.getByUpc("UPC-7").getUpc());
+        assertNull(index.get(8L));
+    }
+
+    @Test
+    public void testRead_CopiesWholeRow() {
+        index.put(product(7L, "UPC-7", "19.99", 3));
+        CatalogIndex.Row row = new CatalogIndex.Row();
+
+        assertTrue(index.read(index.slotOfUpc("UPC-7"), row));
+        assertEquals(7L, row.getId());
+        assertEquals("UPC-7", row.getUpc());
+        assertEquals("Product 7", row.getName());
+        assertEquals(CatalogIndex.NO_PRICE, row.getWholesalePrice());
+        assertEquals(1999, row.getRetailPrice());
+        assertEquals(3, row.getQuantity());
+
+        assertFalse(index.read(index.slotOf(8L), row));
+        assertFalse(index.read(1, row));
+        assertEquals(7L, row.getId());
+    }
+
+    @Test
+    public void testRead_NeverMixesTwoPuts() throws InterruptedException {
+        // every put keeps price == quantity, so a row that mixes two puts shows up as a mismatch
+        index.put(1L, "UPC-1", null, CatalogIndex.NO_PRICE, 0, 0);
+        int slot = index.slotOf(1L);
+        Thread writer = new Thread(() -> {
+            for (int i = 1; i <= 200_000; i++) {
+                index.put(1L, "UPC-1", null, CatalogIndex.NO_PRICE, i, i);
+                // grows the columns now and then, so reads also race with growColumns
+                if (i % 20_000 == 0) {
+                    index.put(i + 1L, "UPC-" + i, null, CatalogIndex.NO_PRICE, 0, 0);
+                }
+            }
+        });
+        writer.start();
+        CatalogIndex.Row row = new CatalogIndex.Row();
+        while (writer.isAlive()) {
+            assertTrue(index.read(slot, row));
+            assertEquals(row.getRetailPrice(), row.getQuantity());
+        }
+        writer.join();
+    }
+
+    @Test
+    public void testPut_UpdateKeepsSlotAndMovesUpc() {
+        index.put(product(1L, "OLD", "1.00", 1));
+        int slot = index.slotOf(1L);
+
+        index.put(product(1L, "NEW", "2.50", 5));
+
+        assertEquals(1, index.size());
+        assertEquals(slot, index.slotOf(1L));
+        assertEquals(slot, index.slotOfUpc("NEW"));
+        assertEquals(CatalogIndex.NOT_FOUND, index.slotOfUpc("OLD"));
+        assertEquals(250, index.retailPrice(slot));
+        assertEquals(5, index.quantity(slot));
+    }
+
+    @Test
+    public void testPut_CollidingUpcHashes() {
+        // "Aa" and "BB" share a String hash code, so they probe the same entries
+        index.put(product(1L, "Aa", "1.00", 1));
+        index.put(product(2L, "BB", "2.00", 2));
+        index.put(product(3L, "AaAa", "3.00", 3));
+        index.put(product(4L, "BBBB", "4.00", 4));
+
+        index.put(product(1L, "C", "1.00", 1));
+
+        assertEquals(CatalogIndex.NOT_FOUND, index.slotOfUpc("Aa"));
+        assertEquals(index.slotOf(1L), index.slotOfUpc("C"));
+        assertEquals(index.slotOf(2L), index.slotOfUpc("BB"));
+        assertEquals(index.slotOf(3L), index.slotOfUpc("AaAa"));
+        assertEquals(index.slotOf(4L), index.slotOfUpc("BBBB"));
+    }
+
+    @Test
+    public void testPut_GrowsPastExpectedSize() {
+        for (long id = 1; id <= 100_000; id++) {
+            index.put(id, "UPC-" + id, null, CatalogIndex.NO_PRICE, id, (int) id % 50);
+        }
+
+        assertEquals(100_000, index.size());
+        for (long id = 1; id <= 100_000; id++) {
+            int slot = index.slotOf(id);
+            assertEquals(id, index.id(slot));
+            assertEquals(slot, index.slotOfUpc("UPC-" + id));
+            assertEquals(id, index.retailPrice(slot));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> index.quantity(100_000));
+    }
+
+    @Test
+    public void testUpdater_LoadsTableAndAppliesEvents() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:catalog-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE products (id BIGINT PRIMARY KEY, upc VARCHAR(255), name VARCHAR(255), "
+                + "wholesale_price NUMERIC(19, 2), retail_price NUMERIC(19, 2), quantity INT)");
+        jdbcTemplate.update("INSERT INTO products VALUES (1, 'UPC-1', 'Apple', 0.50, 0.99, 10)");
+        jdbcTemplate.update("INSERT INTO products VALUES (2, 'UPC-2', 'Pear', NULL, 1.25, 0)");
+        CatalogIndexConfig.CatalogIndexUpdater updater = new CatalogIndexConfig.CatalogIndexUpdater(index, jdbcTemplate, true);
+
+        updater.afterSingletonsInstantiated();
+
+        assertEquals(2, index.size());
+        assertEquals(50, index.wholesalePrice(index.slotOf(1L)));
+        assertEquals(CatalogIndex.NO_PRICE, index.wholesalePrice(index.slotOfUpc("UPC-2")));
+
+        updater.onProductChanged(new ProductChangedEvent(product(2L, "UPC-2", "1.30", 4)));
+
+        assertEquals(130, index.retailPrice(index.slotOf(2L)));
+        assertEquals(4, index.quantity(index.slotOf(2L)));
+    }
+}
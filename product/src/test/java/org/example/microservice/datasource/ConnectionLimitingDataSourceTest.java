@@ -0,0 +1,88 @@
+package org.example.microservice.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConnectionLimitingDataSourceTest {
+
+    private DataSource database;
+
+    @BeforeEach
+    public void setUp() {
+        database = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:limit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @Test
+    public void testGetConnection_PermitHeldUntilClose() throws Exception {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(database, 2, Duration.ofSeconds(1));
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+
+        first.close();
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(1, dataSource.getAvailablePermits());
+        second.close();
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testGetConnection_TimesOutWhenAllInUse() throws Exception {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(database, 1, Duration.ofMillis(50));
+
+        try (Connection ignored = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        }
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testGetConnection_WaiterServedWhenConnectionClosed() throws Exception {
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(database, 1, Duration.ofSeconds(5));
+        Connection held = dataSource.getConnection();
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try (Connection connection = dataSource.getConnection()) {
+                return connection.isValid(1);
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (dataSource.getWaiting() == 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1, dataSource.getWaiting());
+
+        held.close();
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testGetConnection_FailureReleasesPermit() throws Exception {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenThrow(new SQLException("database down"));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(failing, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.microservice.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes real transactions across two embedded databases standing in for the primary and the replica. Each
+ * database identifies itself through a one-row {@code node} table; the replica also reports a configurable lag.
+ */
+public class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicationLagMonitor lagMonitor;
+    private JdbcTemplate routed;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate readWriteTransaction;
+
+    private static DataSource embedded(String name) {
+        return new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    @BeforeEach
+    public void setUp() {
+        DataSource primaryDataSource = embedded("primary");
+        DataSource replicaDataSource = embedded("replica");
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        primary.execute("CREATE TABLE node (name VARCHAR(16))");
+        primary.execute("INSERT INTO node VALUES ('primary')");
+        replica.execute("CREATE TABLE node (name VARCHAR(16))");
+        replica.execute("INSERT INTO node VALUES ('replica')");
+        replica.execute("CREATE TABLE replication_lag (seconds DOUBLE)");
+        replica.execute("INSERT INTO replication_lag VALUES (0)");
+
+        lagMonitor = new ReplicationLagMonitor(replicaDataSource, "SELECT seconds FROM replication_lag",
+                Duration.ofSeconds(5));
+        lagMonitor.check();
+
+        DataSource routingDataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(
+                primaryDataSource, replicaDataSource, lagMonitor, Duration.ofSeconds(5)));
+        routed = new JdbcTemplate(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routingDataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReadYourWritesContext.end();
+    }
+
+    private String node(TransactionTemplate transaction) {
+        return transaction.execute(status -> routed.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    @Test
+    public void testReadOnlyTransactionUsesReplica() {
+        assertEquals("replica", node(readOnlyTransaction));
+    }
+
+    @Test
+    public void testReadWriteTransactionUsesPrimary() {
+        assertEquals("primary", node(readWriteTransaction));
+    }
+
+    @Test
+    public void testLaggingReplicaFallsBackToPrimary() {
+        replica.update("UPDATE replication_lag SET seconds = 30");
+        lagMonitor.check();
+
+        assertFalse(lagMonitor.isReplicaUsable());
+        assertEquals("primary", node(readOnlyTransaction));
+
+        replica.update("UPDATE replication_lag SET seconds = 1");
+        lagMonitor.check();
+
+        assertEquals("replica", node(readOnlyTransaction));
+    }
+
+    @Test
+    public void testFailingLagCheckFallsBackToPrimary() {
+        replica.execute("DROP TABLE replication_lag");
+        lagMonitor.check();
+
+        assertEquals("primary", node(readOnlyTransaction));
+    }
+
+    @Test
+    public void testReadsAfterWriteInSameRequestStayOnPrimary() {
+        ReadYourWritesContext.begin(0);
+        assertEquals("replica", node(readOnlyTransaction));
+
+        readWriteTransaction.executeWithoutResult(status -> routed.update("UPDATE node SET name = 'primary'"));
+
+        assertTrue(ReadYourWritesContext.isPinnedToPrimary());
+        assertEquals("primary", node(readOnlyTransaction));
+    }
+
+    @Test
+    public void testPinCarriedFromEarlierRequest() {
+        ReadYourWritesContext.begin(System.currentTimeMillis() + 10_000);
+
+        assertEquals("primary", node(readOnlyTransaction));
+    }
+
+    @Test
+    public void testExpiredPinUsesReplica() {
+        ReadYourWritesContext.begin(System.currentTimeMillis() - 1);
+
+        assertEquals("replica", node(readOnlyTransaction));
+    }
+}
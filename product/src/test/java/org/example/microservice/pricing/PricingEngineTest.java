@@ -0,0 +1,197 @@
+package org.example.microservice.pricing;
+
+import org.example.microservice.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PricingEngineTest {
+
+    private static PricingEngine engine(List<PricingProperties.Tier> tiers, List<PricingProperties.Promotion> promotions) {
+        PricingProperties properties = new PricingProperties();
+        properties.setTiers(tiers);
+        properties.setPromotions(promotions);
+        return new PricingEngine(properties);
+    }
+
+    private static PricingProperties.Promotion percentOff(String upc, int basisPoints) {
+        return new PricingProperties.Promotion(upc, PricingProperties.Promotion.Type.PERCENT_OFF, basisPoints, 0, 0);
+    }
+
+    private static PricingProperties.Promotion buyXGetY(String upc, int buy, int free) {
+        return new PricingProperties.Promotion(upc, PricingProperties.Promotion.Type.BUY_X_GET_Y, 0, buy, free);
+    }
+
+    @Test
+    public void testLineTotal_Standard() {
+        PricingEngine engine = PricingEngine.standard();
+        Product product = new Product();
+        product.setUpc("UPC-1");
+        product.setRetailPrice(new BigDecimal("19.99"));
+
+        assertEquals(5997, engine.lineTotal(product, 3));
+        assertEquals(new BigDecimal("59.97"), engine.toDecimal(engine.lineTotal(product, 3)));
+        assertEquals(0, engine.lineTotal(product, 0));
+    }
+
+    @Test
+    public void testDivideHalfEven() {
+        assertEquals(2, PricingEngine.divideHalfEven(25, 10));
+        assertEquals(4, PricingEngine.divideHalfEven(35, 10));
+        assertEquals(3, PricingEngine.divideHalfEven(26, 10));
+        assertEquals(2, PricingEngine.divideHalfEven(24, 10));
+        assertEquals(-2, PricingEngine.divideHalfEven(-25, 10));
+        assertEquals(-4, PricingEngine.divideHalfEven(-35, 10));
+    }
+
+    @Test
+    public void testToMinorUnits_RoundsHalfEven() {
+        PricingEngine engine = PricingEngine.standard();
+
+        assertEquals(1000, engine.toMinorUnits(BigDecimal.TEN));
+        assertEquals(1002, engine.toMinorUnits(new BigDecimal("10.025")));
+        assertEquals(1004, engine.toMinorUnits(new BigDecimal("10.035")));
+        assertEquals(1003, engine.toMinorUnits(new BigDecimal("10.0251")));
+        assertThrows(ArithmeticException.class, () -> engine.toMinorUnits(new BigDecimal("1E20")));
+    }
+
+    @Test
+    public void testToMinorUnits_MatchesSetScale() {
+        Random random = new Random(42);
+        for (int scale = 0; scale <= 9; scale++) {
+            PricingProperties properties = new PricingProperties();
+            properties.setScale(scale);
+            PricingEngine engine = new PricingEngine(properties);
+            for (int i = 0; i < 10_000; i++) {
+                // up to and past the 2^50 minor units converted through a double
+                long unscaled = random.nextLong() >> random.nextInt(64);
+                BigDecimal amount = BigDecimal.valueOf(unscaled, random.nextInt(scale + 1));
+                long expected;
+                try {
+                    expected = amount.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+                } catch (ArithmeticException ex) {
+                    assertThrows(ArithmeticException.class, () -> engine.toMinorUnits(amount));
+                    continue;
+                }
+                assertEquals(expected, engine.toMinorUnits(amount), amount::toString);
+            }
+            long limit = 1L << 50;
+            assertEquals(limit - 1, engine.toMinorUnits(BigDecimal.valueOf(limit - 1, scale)));
+            assertEquals(-(limit - 1), engine.toMinorUnits(BigDecimal.valueOf(-(limit - 1), scale)));
+            assertEquals(limit, engine.toMinorUnits(BigDecimal.valueOf(limit, scale)));
+        }
+    }
+
+    @Test
+    public void testLineTotal_HighestTierReached() {
+        PricingEngine engine = engine(List.of(
+                new PricingProperties.Tier(100, 1_000),
+                new PricingProperties.Tier(10, 500)), List.of());
+
+        assertEquals(9 * 250, engine.lineTotal(250, 9, PricingEngine.NO_PROMOTION));
+        assertEquals(2375, engine.lineTotal(250, 10, PricingEngine.NO_PROMOTION));
+        assertEquals(22500, engine.lineTotal(250, 100, PricingEngine.NO_PROMOTION));
+    }
+
+    @Test
+    public void testLineTotal_DiscountRoundsHalfEven() {
+        PricingEngine engine = engine(List.of(), List.of(percentOff("A", 5_000), percentOff("B", 2_500)));
+
+        // 50% of 5 and 7 minor units: 2.5 rounds to 2, 3.5 rounds to 4
+        assertEquals(2, engine.lineTotal(5, 1, engine.promotionFor("A")));
+        assertEquals(4, engine.lineTotal(7, 1, engine.promotionFor("A")));
+        // 75% of 2: 1.5 rounds to 2
+        assertEquals(2, engine.lineTotal(2, 1, engine.promotionFor("B")));
+    }
+
+    @Test
+    public void testLineTotal_BuyXGetY() {
+        PricingEngine engine = engine(List.of(new PricingProperties.Tier(6, 1_000)), List.of(buyXGetY("A", 2, 1)));
+        int promotion = engine.promotionFor("A");
+
+        assertEquals(200, engine.lineTotal(100, 2, promotion));
+        assertEquals(200, engine.lineTotal(100, 3, promotion));
+        assertEquals(300, engine.lineTotal(100, 4, promotion));
+        // six units: two free, then the tier takes 10% off the four charged
+        assertEquals(360, engine.lineTotal(100, 6, promotion));
+        assertEquals(PricingEngine.NO_PROMOTION, engine.promotionFor("B"));
+        assertEquals(PricingEngine.NO_PROMOTION, engine.promotionFor(null));
+    }
+
+    @Test
+    public void testLineTotal_OverflowThrows() {
+        PricingEngine engine = PricingEngine.standard();
+
+        assertThrows(ArithmeticException.class,
+                () -> engine.lineTotal(Long.MAX_VALUE / 2, 3, PricingEngine.NO_PROMOTION));
+    }
+
+    @Test
+    public void testConstructor_RejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(List.of(new PricingProperties.Tier(0, 500)), List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(List.of(new PricingProperties.Tier(10, 10_001)), List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(List.of(), List.of(buyXGetY("A", 0, 1))));
+        assertThrows(IllegalArgumentException.class,
+                () -> engine(List.of(), List.of(percentOff("A", 500), percentOff("A", 1_000))));
+    }
+
+    @Test
+    public void testLineTotal_MatchesBigDecimalReference() {
+        List<PricingProperties.Tier> tiers = List.of(
+                new PricingProperties.Tier(5, 250),
+                new PricingProperties.Tier(20, 1_250));
+        List<PricingProperties.Promotion> promotions = List.of(percentOff("P", 3_333), buyXGetY("B", 3, 2));
+        PricingEngine engine = engine(tiers, promotions);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(random.nextInt(1_000_000), 2);
+            int quantity = random.nextInt(50);
+            String upc = switch (random.nextInt(3)) {
+                case 0 -> "P";
+                case 1 -> "B";
+                default -> "N";
+            };
+
+            BigDecimal expected = referenceLineTotal(unitPrice, quantity, upc, tiers);
+            long actual = engine.lineTotal(engine.toMinorUnits(unitPrice), quantity, engine.promotionFor(upc));
+            assertEquals(expected, engine.toDecimal(actual), () -> unitPrice + " x " + quantity + " " + upc);
+        }
+    }
+
+    /**
+     * The rules of the test's configuration applied with {@link BigDecimal} arithmetic.
+     */
+    private static BigDecimal referenceLineTotal(BigDecimal unitPrice, int quantity, String upc,
+                                                 List<PricingProperties.Tier> tiers) {
+        int charged = "B".equals(upc) ? quantity - quantity / 5 * 2 : quantity;
+        BigDecimal total = unitPrice.multiply(BigDecimal.valueOf(charged));
+        if ("P".equals(upc)) {
+            total = referenceDiscount(total, 3_333);
+        }
+        int tierBasisPoints = 0;
+        for (PricingProperties.Tier tier : tiers) {
+            if (quantity >= tier.getMinQuantity()) {
+                tierBasisPoints = tier.getDiscountBasisPoints();
+            }
+        }
+        if (tierBasisPoints > 0) {
+            total = referenceDiscount(total, tierBasisPoints);
+        }
+        return total.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static BigDecimal referenceDiscount(BigDecimal amount, int basisPoints) {
+        return amount.multiply(BigDecimal.valueOf(10_000 - basisPoints))
+                .divide(BigDecimal.valueOf(10_000))
+                .setScale(2, RoundingMode.HALF_EVEN);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.microservice.problem;
+
+import org.example.microservice.exception.DomainException;
+import org.example.microservice.exception.ProductNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ProblemResponsesTest {
+
+    @Test
+    public void testDomainException_NoStackTrace() {
+        DomainException exception = new ProductNotFoundException("Product not found");
+
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        exception.addSuppressed(new IllegalStateException());
+        assertEquals(0, exception.getSuppressed().length);
+    }
+
+    @Test
+    public void testOf_NotFoundIsCacheable() {
+        ResponseEntity<ProblemDetail> response = new ProblemResponses(new ProblemProperties())
+                .of(new ProductNotFoundException("Product with ID 7 not found"));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("max-age=10, public", response.getHeaders().getCacheControl());
+        assertEquals(404, response.getBody().getStatus());
+        assertEquals("Product with ID 7 not found", response.getBody().getDetail());
+    }
+
+    @Test
+    public void testOf_OtherErrorsAreNotStored() {
+        ProblemProperties properties = new ProblemProperties();
+        ProblemResponses problemResponses = new ProblemResponses(properties);
+
+        assertEquals("no-store", problemResponses.of(HttpStatus.CONFLICT, "Insufficient quantity").getHeaders().getCacheControl());
+        assertEquals("no-store", problemResponses.of(HttpStatus.INTERNAL_SERVER_ERROR, null).getHeaders().getCacheControl());
+
+        properties.setNotFoundMaxAge(Duration.ZERO);
+        assertEquals("no-store", new ProblemResponses(properties).of(HttpStatus.NOT_FOUND, "Product not found")
+                .getHeaders().getCacheControl());
+    }
+
+    @Test
+    public void testRateLimitedLogger_CountsSuppressed() throws InterruptedException {
+        Logger logger = mock(Logger.class);
+        when(logger.isWarnEnabled()).thenReturn(true);
+        RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(logger, Duration.ofMillis(200));
+
+        for (int i = 0; i < 5; i++) {
+            rateLimitedLogger.warn("miss", () -> "Product not found");
+        }
+        rateLimitedLogger.warn("other", () -> "Shopping cart not found");
+        verify(logger).warn("Product not found");
+        verify(logger).warn("Shopping cart not found");
+
+        Thread.sleep(250);
+        rateLimitedLogger.warn("miss", () -> "Product not found");
+        verify(logger).warn("{} ({} more not logged)", "Product not found", 4L);
+        verify(logger, times(2)).warn(anyString());
+        verify(logger, times(1)).warn(anyString(), any(), any());
+    }
+}
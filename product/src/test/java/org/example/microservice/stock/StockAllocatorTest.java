@@ -0,0 +1,161 @@
+package org.example.microservice.stock;
+
+import org.example.microservice.catalog.ProductChangedEvent;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.StockBucket;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.StockBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockAllocatorTest {
+
+    @Mock
+    private StockBucketRepository bucketRepository;
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private StockAllocator stockAllocator;
+
+    @BeforeEach
+    public void setUp() {
+        StockProperties properties = new StockProperties();
+        properties.setEnabled(true);
+        properties.setCount(4);
+        stockAllocator = new StockAllocator(bucketRepository, inventoryRepository,
+                new TransactionTemplate(transactionManager), eventPublisher, properties);
+    }
+
+    private static List<StockBucket> buckets(int... quantities) {
+        List<StockBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < quantities.length; i++) {
+            buckets.add(new StockBucket((long) i + 1, 1L, i, quantities[i]));
+        }
+        return buckets;
+    }
+
+    private static int[] quantities(List<StockBucket> buckets) {
+        return buckets.stream().mapToInt(StockBucket::getQuantity).toArray();
+    }
+
+    @Test
+    public void testAllocate_FromOneBucket() {
+        lenient().when(bucketRepository.decrement(eq(1L), anyInt(), eq(2))).thenReturn(0);
+        when(bucketRepository.decrement(1L, 2, 2)).thenReturn(1);
+
+        assertTrue(stockAllocator.allocate(1L, 2));
+        verify(bucketRepository, never()).lockBuckets(anyLong());
+    }
+
+    @Test
+    public void testAllocate_AcrossBuckets() {
+        List<StockBucket> buckets = buckets(1, 1, 1, 0);
+        when(bucketRepository.decrement(eq(1L), anyInt(), eq(2))).thenReturn(0);
+        when(bucketRepository.lockBuckets(1L)).thenReturn(buckets);
+
+        assertTrue(stockAllocator.allocate(1L, 2));
+
+        assertArrayEquals(new int[]{0, 0, 1, 0}, quantities(buckets));
+        verify(bucketRepository, times(4)).decrement(eq(1L), anyInt(), eq(2));
+        verify(bucketRepository, times(1)).saveAll(buckets);
+    }
+
+    @Test
+    public void testAllocate_InsufficientStock() {
+        List<StockBucket> buckets = buckets(1, 1, 0, 0);
+        when(bucketRepository.decrement(eq(1L), anyInt(), eq(3))).thenReturn(0);
+        when(bucketRepository.lockBuckets(1L)).thenReturn(buckets);
+
+        assertFalse(stockAllocator.allocate(1L, 3));
+
+        assertArrayEquals(new int[]{1, 1, 0, 0}, quantities(buckets));
+        verify(bucketRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testAllocate_CreatesBucketsFromProductQuantity() {
+        Product product = new Product(1L, "UPC-1", "Product 1", null, BigDecimal.ONE, 10);
+        when(bucketRepository.decrement(eq(1L), anyInt(), eq(5))).thenReturn(0);
+        when(bucketRepository.lockBuckets(1L)).thenReturn(List.of());
+        when(inventoryRepository.lockById(1L)).thenReturn(Optional.of(product));
+        List<List<StockBucket>> saved = new ArrayList<>();
+        when(bucketRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+
+        assertTrue(stockAllocator.allocate(1L, 5));
+
+        List<StockBucket> buckets = saved.get(saved.size() - 1);
+        assertEquals(4, buckets.size());
+        assertArrayEquals(new int[]{0, 1, 2, 2}, quantities(buckets));
+    }
+
+    @Test
+    public void testRebalance() {
+        List<StockBucket> buckets = buckets(0, 5, 1, 0, 3);
+        when(bucketRepository.lockBuckets(1L)).thenReturn(buckets);
+        when(bucketRepository.saveAll(anyList())).then(returnsFirstArg());
+        Product product = new Product(1L, "UPC-1", "Product 1", BigDecimal.valueOf(100), BigDecimal.valueOf(150), 9);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        stockAllocator.rebalance(1L);
+
+        // the fifth bucket is left from a larger bucket count
+        assertArrayEquals(new int[]{3, 2, 2, 2, 0}, quantities(buckets));
+        verify(inventoryRepository, times(1)).updateQuantity(1L, 9);
+        verify(eventPublisher, times(1)).publishEvent(new ProductChangedEvent(product));
+    }
+
+    @Test
+    public void testRebalancePending_RetriesFailures() {
+        when(bucketRepository.decrement(1L, 0, 1)).thenReturn(1);
+        lenient().when(bucketRepository.decrement(eq(1L), intThat(bucket -> bucket != 0), eq(1))).thenReturn(0);
+        when(bucketRepository.lockBuckets(1L)).thenThrow(new IllegalStateException("lock timeout"))
+                .thenReturn(buckets(0, 1, 1, 1));
+        stockAllocator.allocate(1L, 1);
+
+        stockAllocator.rebalancePending();
+        stockAllocator.rebalancePending();
+        stockAllocator.rebalancePending();
+
+        verify(bucketRepository, times(2)).lockBuckets(1L);
+        verify(inventoryRepository, times(1)).updateQuantity(1L, 3);
+    }
+
+    @Test
+    public void testAvailable() {
+        when(bucketRepository.sumQuantity(1L)).thenReturn(12L);
+        when(bucketRepository.sumQuantity(2L)).thenReturn(null);
+        when(inventoryRepository.findById(2L))
+                .thenReturn(Optional.of(new Product(2L, "UPC-2", "Product 2", null, BigDecimal.ONE, 4)));
+
+        assertEquals(12, stockAllocator.available(1L));
+        assertEquals(4, stockAllocator.available(2L));
+        assertEquals(0, stockAllocator.available(3L));
+    }
+}
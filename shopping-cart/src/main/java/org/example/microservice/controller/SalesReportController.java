@@ -0,0 +1,42 @@
+package org.example.microservice.controller;
+
+import lombok.AllArgsConstructor;
+import org.example.microservice.model.DailySales;
+import org.example.microservice.model.HourlySales;
+import org.example.microservice.model.ProductSales;
+import org.example.microservice.service.SalesReportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@Profile("!reactive")
+@AllArgsConstructor
+@RequestMapping("/api/shopping-cart/sales")
+public class SalesReportController {
+    private final SalesReportService salesReportService;
+
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<ProductSales> getProductSales(@PathVariable long productId) {
+        return ResponseEntity.ok(salesReportService.getProductSales(productId));
+    }
+
+    @GetMapping("/daily/{date}")
+    public ResponseEntity<DailySales> getDailySales(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(salesReportService.getDailySales(date));
+    }
+
+    @GetMapping("/hourly/{date}")
+    public ResponseEntity<List<HourlySales>> getHourlySales(@PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(salesReportService.getHourlySales(date));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Long> backfill(@RequestParam(defaultValue = "false") boolean rebuild) {
+        return ResponseEntity.ok(salesReportService.backfill(rebuild));
+    }
+}
@@ -1,20 +1,23 @@
 package org.example.microservice.controller;
 
 import lombok.AllArgsConstructor;
+import org.example.microservice.dto.CartItemDto;
+import org.example.microservice.dto.CheckoutResultDto;
+import org.example.microservice.dto.ProductDto;
 import org.example.microservice.dto.ShoppingCartDto;
 import org.example.microservice.model.Product;
 import org.example.microservice.model.ShoppingCart;
 import org.example.microservice.service.ShoppingCartService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @RestController
+@Profile("!reactive")
 @AllArgsConstructor
 @RequestMapping("/api/shopping-cart")
 public class ShoppingCartController {
@@ -22,9 +25,9 @@ public class ShoppingCartController {
     private final ShoppingCartService shoppingCartService;
 
     @PostMapping("/add-to-cart")
-    public ResponseEntity<ShoppingCart> addToCart(@RequestBody ShoppingCartDto shoppingCartDto) {
+    public ResponseEntity<CartItemDto> addToCart(@RequestBody ShoppingCartDto shoppingCartDto) {
         ShoppingCart shoppingCart = shoppingCartService.addToCart(shoppingCartDto);
-        return ResponseEntity.ok(shoppingCart);
+        return ResponseEntity.ok(toCartItem(shoppingCart));
     }
 
     @PostMapping("/add-total")
@@ -34,21 +37,35 @@ public class ShoppingCartController {
     }
 
     @PostMapping("/checkout")
-    public ResponseEntity<Map<String, Object>> checkout(@RequestBody List<Long> ids) {
+    public ResponseEntity<CheckoutResultDto> checkout(@RequestBody List<Long> ids) {
         List<Object> result = shoppingCartService.checkout(ids);
         List<Product> products = (List<Product>) result.get(0);
         List<String> messages = (List<String>) result.get(1);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("products", products);
-        response.put("messages", messages);
-
+        CheckoutResultDto response = CheckoutResultDto.builder()
+                .products(products.stream().map(ProductDto::from).toList())
+                .messages(messages)
+                .build();
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/all-items")
-    public ResponseEntity<List<ShoppingCart>> getAllNonCheckedOutItems() {
-        List<ShoppingCart> allItems = shoppingCartService.getAllNonCheckedOutItems();
+    public ResponseEntity<List<CartItemDto>> getAllNonCheckedOutItems() {
+        List<CartItemDto> allItems = shoppingCartService.getAllNonCheckedOutItems().stream()
+                .map(ShoppingCartController::toCartItem)
+                .toList();
         return ResponseEntity.ok(allItems);
     }
+
+    private static CartItemDto toCartItem(ShoppingCart shoppingCart) {
+        Product product = shoppingCart.getProduct();
+        return CartItemDto.builder()
+                .id(shoppingCart.getId())
+                .productId(product != null ? product.getId() : null)
+                .unitPrice(product != null ? product.getRetailPrice() : null)
+                .quantity(shoppingCart.getQuantity())
+                .checkout(shoppingCart.isCheckout())
+                .totalAmount(shoppingCart.getTotalAmount())
+                .build();
+    }
 }
@@ -1,7 +1,9 @@
 package org.example.microservice.exception;
 
-public class AlreadyCheckedOutException extends RuntimeException{
+import org.springframework.http.HttpStatus;
+
+public class AlreadyCheckedOutException extends DomainException {
     public AlreadyCheckedOutException (String message){
-        super(message);
+        super(HttpStatus.CONFLICT, message);
     }
 }
@@ -1,34 +1,28 @@
 package org.example.microservice.exception;
 
+import lombok.RequiredArgsConstructor;
+import org.example.microservice.problem.ProblemResponses;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+/**
+ * Answers product and cart misses with 404, and insufficient stock and carts already checked out with 409.
+ */
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
+    private final ProblemResponses problemResponses;
 
-    @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<String> handleProductNotFoundException(ProductNotFoundException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    @ExceptionHandler(DomainException.class)
+    public ResponseEntity<ProblemDetail> handleDomainException(DomainException ex) {
+        return problemResponses.of(ex);
     }
 
-    @ExceptionHandler(InsufficientQuantityException.class)
-    public ResponseEntity<String> handleInsufficientQuantityException(InsufficientQuantityException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
-    }
-
-    @ExceptionHandler(ShoppingCartNotFoundException.class)
-    public ResponseEntity<String> handleShoppingCartNotFoundException(ShoppingCartNotFoundException ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
-    }
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleGenericException(Exception ex) {
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
-    }
-
-    @ExceptionHandler(AlreadyCheckedOutException.class)
-    public ResponseEntity<String> handleAlreadyCheckedOutException(Exception ex){
-        return new ResponseEntity<>(ex.getMessage(), HttpStatus.FOUND);
+    public ResponseEntity<ProblemDetail> handleGenericException(Exception ex) {
+        return problemResponses.of(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
     }
 }
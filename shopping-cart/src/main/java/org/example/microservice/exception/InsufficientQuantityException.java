@@ -1,7 +1,9 @@
 package org.example.microservice.exception;
 
-public class InsufficientQuantityException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class InsufficientQuantityException extends DomainException {
     public InsufficientQuantityException(String message) {
-        super(message);
+        super(HttpStatus.CONFLICT, message);
     }
 }
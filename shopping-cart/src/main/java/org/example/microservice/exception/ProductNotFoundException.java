@@ -1,7 +0,0 @@
-package org.example.microservice.exception;
-
-public class ProductNotFoundException extends RuntimeException {
-    public ProductNotFoundException(String message) {
-        super(message);
-    }
-}
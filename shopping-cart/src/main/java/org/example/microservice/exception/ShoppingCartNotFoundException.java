@@ -1,7 +1,9 @@
 package org.example.microservice.exception;
 
-public class ShoppingCartNotFoundException extends RuntimeException {
+import org.springframework.http.HttpStatus;
+
+public class ShoppingCartNotFoundException extends DomainException {
     public ShoppingCartNotFoundException(String message) {
-        super(message);
+        super(HttpStatus.NOT_FOUND, message);
     }
 }
@@ -0,0 +1,28 @@
+package org.example.microservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Everything checked out on one day, in the zone of {@code sales.rollup.zone}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_sales")
+public class DailySales {
+    @Id
+    private LocalDate saleDate;
+    private long quantity;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    private long checkouts;
+}
@@ -0,0 +1,28 @@
+package org.example.microservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Everything checked out in one hour, starting at {@code hourStart}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "hourly_sales")
+public class HourlySales {
+    @Id
+    private Instant hourStart;
+    private long quantity;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    private long checkouts;
+}
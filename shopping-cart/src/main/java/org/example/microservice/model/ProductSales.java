@@ -0,0 +1,27 @@
+package org.example.microservice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Everything ever checked out of one product: units, amount and the number of carts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_sales")
+public class ProductSales {
+    @Id
+    private Long productId;
+    private long quantity;
+
+    @Column(precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    private long checkouts;
+}
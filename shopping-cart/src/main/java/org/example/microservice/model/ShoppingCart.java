@@ -1,9 +1,12 @@
 package org.example.microservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @AllArgsConstructor
 @NoArgsConstructor
@@ -23,6 +26,16 @@ public class ShoppingCart {
 
     boolean isCheckout = false;
 
+    @Column(precision = 19, scale = 2)
     private BigDecimal totalAmount;
 
+    private Instant checkedOutAt;
+
+    /**
+     * Whether the cart is counted in the sales rollups; checked-out carts that are not get counted by the backfill.
+     */
+    @JsonIgnore
+    @ColumnDefault("false")
+    private boolean rolledUp;
+
 }
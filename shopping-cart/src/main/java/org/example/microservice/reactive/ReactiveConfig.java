@@ -0,0 +1,61 @@
+package org.example.microservice.reactive;
+
+import org.example.microservice.stock.StockProperties;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Registers CBOR codecs with WebFlux, which has none by default; the MVC controller gets them from the message
+ * converter Spring Boot adds when jackson-dataformat-cbor is present.
+ * <p>
+ * Refuses to start with {@code stock.buckets.enabled}: the reactive checkout takes stock off
+ * {@code products.quantity}, which the next rebalance would overwrite with the bucket total, selling the same
+ * units again.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig implements WebFluxConfigurer {
+
+    public ReactiveConfig(StockProperties stockProperties) {
+        if (stockProperties.isEnabled()) {
+            throw new IllegalStateException("The reactive profile does not support stock buckets, "
+                    + "set stock.buckets.enabled=false");
+        }
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new SingleValueCborEncoder());
+        configurer.customCodecs().register(new Jackson2CborDecoder());
+    }
+
+    /**
+     * {@link Jackson2CborEncoder} only encodes single values and rejects every publisher, including the
+     * {@code Mono} a response body is written from. The CBOR endpoints all answer with one value, so a
+     * {@code Mono} is encoded as that value.
+     */
+    static class SingleValueCborEncoder extends Jackson2CborEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+}
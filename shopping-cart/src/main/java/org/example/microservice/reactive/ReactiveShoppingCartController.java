@@ -0,0 +1,79 @@
+package org.example.microservice.reactive;
+
+import lombok.AllArgsConstructor;
+import org.example.microservice.dto.CartItemDto;
+import org.example.microservice.dto.CheckoutResultDto;
+import org.example.microservice.dto.ProductDto;
+import org.example.microservice.dto.ShoppingCartDto;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * The {@code /api/shopping-cart} endpoints of {@link org.example.microservice.controller.ShoppingCartController}
+ * on WebFlux, with the same request and response bodies. {@code /all-items} can also be streamed as
+ * {@code application/x-ndjson}, one cart line per line, written as the rows arrive.
+ */
+@RestController
+@Profile("reactive")
+@AllArgsConstructor
+@RequestMapping("/api/shopping-cart")
+public class ReactiveShoppingCartController {
+    private final ReactiveShoppingCartService shoppingCartService;
+
+    @PostMapping("/add-to-cart")
+    public Mono<ResponseEntity<CartItemDto>> addToCart(@RequestBody ShoppingCartDto shoppingCartDto) {
+        return shoppingCartService.addToCart(shoppingCartDto)
+                .map(shoppingCart -> ResponseEntity.ok(toCartItem(shoppingCart)));
+    }
+
+    @PostMapping("/add-total")
+    public Mono<ResponseEntity<BigDecimal>> getTotal(@RequestBody List<Long> ids) {
+        return shoppingCartService.getTotal(ids).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/checkout")
+    public Mono<ResponseEntity<CheckoutResultDto>> checkout(@RequestBody List<Long> ids) {
+        return shoppingCartService.checkout(ids).map(result -> {
+            List<Product> products = (List<Product>) result.get(0);
+            List<String> messages = (List<String>) result.get(1);
+            return ResponseEntity.ok(CheckoutResultDto.builder()
+                    .products(products.stream().map(ProductDto::from).toList())
+                    .messages(messages)
+                    .build());
+        });
+    }
+
+    @GetMapping("/all-items")
+    public Mono<ResponseEntity<List<CartItemDto>>> getAllNonCheckedOutItems() {
+        return shoppingCartService.getAllNonCheckedOutItems()
+                .map(ReactiveShoppingCartController::toCartItem)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    @GetMapping(value = "/all-items", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<CartItemDto> streamAllNonCheckedOutItems() {
+        return shoppingCartService.getAllNonCheckedOutItems().map(ReactiveShoppingCartController::toCartItem);
+    }
+
+    private static CartItemDto toCartItem(ShoppingCart shoppingCart) {
+        Product product = shoppingCart.getProduct();
+        return CartItemDto.builder()
+                .id(shoppingCart.getId())
+                .productId(product != null ? product.getId() : null)
+                .unitPrice(product != null ? product.getRetailPrice() : null)
+                .quantity(shoppingCart.getQuantity())
+                .checkout(shoppingCart.isCheckout())
+                .totalAmount(shoppingCart.getTotalAmount())
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.microservice.reactive;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking access to the {@code products} and {@code shopping_cart} tables that JPA maps to {@link Product}
+ * and {@link ShoppingCart}. Carts are always read joined with their product, which JPA does with an eager
+ * {@code @ManyToOne}.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveShoppingCartRepository {
+    // Rows requested from the database at a time when streaming; lets a slow client hold back the query
+    static final int STREAM_FETCH_SIZE = 256;
+
+    private static final String SELECT_CART = "SELECT c.id, c.quantity, c.is_checkout, c.total_amount, "
+            + "p.id AS product_id, p.upc, p.name, p.wholesale_price, p.retail_price, p.quantity AS product_quantity "
+            + "FROM shopping_cart c LEFT JOIN products p ON p.id = c.product_id ";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Product> findProductById(long id) {
+        return databaseClient.sql("SELECT id, upc, name, wholesale_price, retail_price, quantity FROM products WHERE id = :id")
+                .bind("id", id)
+                .map(row -> new Product(row.get("id", Long.class), row.get("upc", String.class),
+                        row.get("name", String.class), row.get("wholesale_price", BigDecimal.class),
+                        row.get("retail_price", BigDecimal.class), quantity(row, "quantity")))
+                .one();
+    }
+
+    public Mono<ShoppingCart> findById(long id) {
+        return databaseClient.sql(SELECT_CART + "WHERE c.id = :id")
+                .bind("id", id)
+                .map(ReactiveShoppingCartRepository::toShoppingCart)
+                .one();
+    }
+
+    /**
+     * Streams the open carts as the database produces them, {@value #STREAM_FETCH_SIZE} rows per round trip.
+     */
+    public Flux<ShoppingCart> findByIsCheckoutFalseAndQuantityGreaterThan(int quantity) {
+        return databaseClient.sql(SELECT_CART + "WHERE c.is_checkout = FALSE AND c.quantity > :quantity ORDER BY c.id")
+                .bind("quantity", quantity)
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ReactiveShoppingCartRepository::toShoppingCart)
+                .all();
+    }
+
+    /**
+     * Inserts a new cart or updates an existing one.
+     *
+     * @return the cart, with its generated ID when it was inserted
+     */
+    public Mono<ShoppingCart> save(ShoppingCart shoppingCart) {
+        if (shoppingCart.getId() != null) {
+            return databaseClient.sql("UPDATE shopping_cart SET quantity = :quantity, is_checkout = :checkout, "
+                            + "total_amount = :totalAmount WHERE id = :id")
+                    .bind("quantity", shoppingCart.getQuantity())
+                    .bind("checkout", shoppingCart.isCheckout())
+                    .bind("totalAmount", shoppingCart.getTotalAmount())
+                    .bind("id", shoppingCart.getId())
+                    .then()
+                    .thenReturn(shoppingCart);
+        }
+        return databaseClient.sql("INSERT INTO shopping_cart (quantity, product_id, is_checkout, total_amount) "
+                        + "VALUES (:quantity, :productId, :checkout, :totalAmount)")
+                .bind("quantity", shoppingCart.getQuantity())
+                .bind("productId", shoppingCart.getProduct().getId())
+                .bind("checkout", shoppingCart.isCheckout())
+                .bind("totalAmount", shoppingCart.getTotalAmount())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    shoppingCart.setId(id);
+                    return shoppingCart;
+                });
+    }
+
+    /**
+     * Marks an open cart as checked out. It is left out of the sales rollups until a backfill counts it.
+     *
+     * @return false if the cart was already checked out, possibly by a concurrent request
+     */
+    public Mono<Boolean> markCheckedOut(long id, BigDecimal totalAmount) {
+        return databaseClient.sql("UPDATE shopping_cart SET is_checkout = TRUE, total_amount = :totalAmount, "
+                        + "checked_out_at = CURRENT_TIMESTAMP WHERE id = :id AND is_checkout = FALSE")
+                .bind("totalAmount", totalAmount)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    /**
+     * Takes {@code quantity} units off the product's stock in one statement, so concurrent checkouts of the same
+     * product do not overwrite each other's update, and only if the stock covers them.
+     *
+     * @return 0 if the product has fewer than {@code quantity} units left
+     */
+    public Mono<Long> decrementQuantity(long productId, int quantity) {
+        return databaseClient.sql("UPDATE products SET quantity = quantity - :quantity WHERE id = :id AND quantity >= :quantity")
+                .bind("quantity", quantity)
+                .bind("id", productId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static ShoppingCart toShoppingCart(Readable row) {
+        Long productId = row.get("product_id", Long.class);
+        Product product = productId == null ? null : new Product(productId, row.get("upc", String.class),
+                row.get("name", String.class), row.get("wholesale_price", BigDecimal.class),
+                row.get("retail_price", BigDecimal.class), quantity(row, "product_quantity"));
+        return ShoppingCart.builder()
+                .id(row.get("id", Long.class))
+                .quantity(quantity(row, "quantity"))
+                .product(product)
+                .isCheckout(Boolean.TRUE.equals(row.get("is_checkout", Boolean.class)))
+                .totalAmount(row.get("total_amount", BigDecimal.class))
+                .build();
+    }
+
+    private static int quantity(Readable row, String column) {
+        Integer quantity = row.get(column, Integer.class);
+        return quantity != null ? quantity : 0;
+    }
+}
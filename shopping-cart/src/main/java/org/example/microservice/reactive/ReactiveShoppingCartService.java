@@ -0,0 +1,191 @@
+package org.example.microservice.reactive;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.dto.ShoppingCartDto;
+import org.example.microservice.exception.AlreadyCheckedOutException;
+import org.example.microservice.exception.InsufficientQuantityException;
+import org.example.microservice.exception.ProductNotFoundException;
+import org.example.microservice.exception.ShoppingCartNotFoundException;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.pricing.PricingEngine;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link org.example.microservice.service.ShoppingCartService}, with the same rules,
+ * results and exceptions, signalled through the returned publishers instead of thrown.
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveShoppingCartService {
+    private final ReactiveShoppingCartRepository shoppingCartRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final PricingEngine pricingEngine;
+
+    /**
+     * Adds a product to a shopping cart.
+     *
+     * @param shoppingCartDto the shopping cart data transfer object containing product and quantity information
+     * @return the updated or newly created shopping cart, or an error: {@link ProductNotFoundException},
+     * {@link InsufficientQuantityException}, {@link ShoppingCartNotFoundException} or
+     * {@link AlreadyCheckedOutException}
+     */
+    public Mono<ShoppingCart> addToCart(ShoppingCartDto shoppingCartDto) {
+        log.info("Adding product with ID {} to shopping cart with ID {}", shoppingCartDto.getProductId(), shoppingCartDto.getShoppingCartId());
+        return shoppingCartRepository.findProductById(shoppingCartDto.getProductId())
+                .switchIfEmpty(Mono.error(() -> new ProductNotFoundException("Product not found")))
+                .flatMap(product -> {
+                    if (!addItems(shoppingCartDto.getPurchaseQuantity(), product.getQuantity())) {
+                        log.debug("Insufficient quantity for product: {}. Requested: {}, Available: {}", product.getName(),
+                                shoppingCartDto.getPurchaseQuantity(), product.getQuantity());
+                        return Mono.error(new InsufficientQuantityException("Insufficient quantity for product: " + product.getName()));
+                    }
+                    BigDecimal total = pricingEngine.toDecimal(pricingEngine.lineTotal(product, shoppingCartDto.getPurchaseQuantity()));
+                    if (shoppingCartDto.getShoppingCartId() > 0) {
+                        return updateCart(shoppingCartDto, total);
+                    }
+
+                    log.info("Creating new shopping cart for product with ID {}", shoppingCartDto.getProductId());
+                    return shoppingCartRepository.save(ShoppingCart.builder()
+                            .product(product)
+                            .totalAmount(total)
+                            .quantity(shoppingCartDto.getPurchaseQuantity())
+                            .isCheckout(false)
+                            .build());
+                });
+    }
+
+    private Mono<ShoppingCart> updateCart(ShoppingCartDto shoppingCartDto, BigDecimal total) {
+        return findCart(shoppingCartDto.getShoppingCartId())
+                .flatMap(shoppingCart -> {
+                    if (shoppingCart.isCheckout() || shoppingCart.getQuantity() <= 0) {
+                        return Mono.error(new AlreadyCheckedOutException("Failed to add to cart, this item is already checked out."));
+                    }
+                    log.info("Updating quantity for shopping cart with ID {}", shoppingCartDto.getShoppingCartId());
+                    shoppingCart.setTotalAmount(total);
+                    shoppingCart.setQuantity(shoppingCartDto.getPurchaseQuantity());
+                    return shoppingCartRepository.save(shoppingCart);
+                });
+    }
+
+    /**
+     * Streams the open carts; the database is read only as fast as the subscriber requests them.
+     */
+    public Flux<ShoppingCart> getAllNonCheckedOutItems() {
+        return shoppingCartRepository.findByIsCheckoutFalseAndQuantityGreaterThan(0);
+    }
+
+    /**
+     * Checks if the purchase quantity is less than or equal to the available product quantity.
+     *
+     * @param purchaseQuantity the quantity to be purchased
+     * @param productQuantity the available quantity of the product
+     * @return true if the purchase quantity is less than or equal to the product quantity, false otherwise
+     */
+    public boolean addItems(int purchaseQuantity, int productQuantity) {
+        return purchaseQuantity <= productQuantity;
+    }
+
+    /**
+     * Calculates the total amount for a list of shopping cart IDs. Carts are read one after another and the
+     * first missing one ends the calculation.
+     *
+     * @param shoppingCartIds the list of shopping cart IDs
+     * @return the total amount, or a {@link ShoppingCartNotFoundException} if any shopping cart is not found
+     */
+    public Mono<BigDecimal> getTotal(List<Long> shoppingCartIds) {
+        log.info("Calculating total for shopping cart IDs: {}", shoppingCartIds);
+        return Flux.fromIterable(shoppingCartIds)
+                .concatMap(this::findCart)
+                .filter(shoppingCart -> !shoppingCart.isCheckout())
+                .map(shoppingCart -> pricingEngine.lineTotal(shoppingCart.getProduct(), shoppingCart.getQuantity()))
+                .reduce(0L, Math::addExact)
+                .map(pricingEngine::toDecimal)
+                .doOnNext(total -> log.info("Final total for shopping cart IDs {}: {}", shoppingCartIds, total));
+    }
+
+    /**
+     * Checks out a list of shopping cart IDs, updating product quantities and marking carts as checked out. Each
+     * cart is checked out in its own transaction, as the blocking service does with one save per entity. A cart
+     * whose product no longer has its quantity in stock is left as it is, with a message saying so.
+     *
+     * @param shoppingCartIds the list of shopping cart IDs to check out
+     * @return a list containing the updated products and any messages related to the checkout process, or a
+     * {@link ShoppingCartNotFoundException} if any shopping cart is not found
+     */
+    public Mono<List<Object>> checkout(List<Long> shoppingCartIds) {
+        log.info("Checking out shopping cart IDs: {}", shoppingCartIds);
+        List<Product> products = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+
+        return Flux.fromIterable(shoppingCartIds)
+                .concatMap(id -> findCart(id).flatMap(shoppingCart -> checkout(shoppingCart, messages))
+                        .doOnNext(products::add))
+                .then(Mono.fromSupplier(() -> {
+                    log.info("Checkout complete for shopping cart IDs {}", shoppingCartIds);
+                    List<Object> result = new ArrayList<>();
+                    result.add(products);
+                    result.add(messages);
+                    return result;
+                }));
+    }
+
+    /**
+     * Marks the cart checked out and then takes its quantity off the product's stock, in one transaction. Either
+     * statement only changes its row if the cart is still open and the stock still covers it, so concurrent
+     * checkouts can neither check a cart out twice nor take the stock below zero; when the stock falls short the
+     * transaction is rolled back and the cart stays open.
+     *
+     * @return the product with its stock reduced, or empty with the reason added to {@code messages}
+     */
+    private Mono<Product> checkout(ShoppingCart shoppingCart, List<String> messages) {
+        if (shoppingCart.isCheckout()) {
+            return alreadyCheckedOut(shoppingCart.getId(), messages);
+        }
+        Product product = shoppingCart.getProduct();
+        BigDecimal totalAmount = pricingEngine.toDecimal(pricingEngine.lineTotal(product, shoppingCart.getQuantity()));
+        return shoppingCartRepository.markCheckedOut(shoppingCart.getId(), totalAmount)
+                .flatMap(checkedOut -> {
+                    if (!checkedOut) {
+                        return alreadyCheckedOut(shoppingCart.getId(), messages);
+                    }
+                    return shoppingCartRepository.decrementQuantity(product.getId(), shoppingCart.getQuantity())
+                            .flatMap(rows -> rows > 0
+                                    ? shoppingCartRepository.findProductById(product.getId())
+                                    : Mono.error(new InsufficientQuantityException("Insufficient quantity for product ID "
+                                    + product.getId() + " in shopping cart with ID " + shoppingCart.getId())));
+                })
+                .as(transactionalOperator::transactional)
+                .doOnNext(updatedProduct -> log.info("Checked out product ID {}. Remaining quantity: {}. Total amount: {}",
+                        updatedProduct.getId(), updatedProduct.getQuantity(), totalAmount))
+                .onErrorResume(InsufficientQuantityException.class, ex -> {
+                    log.warn(ex.getMessage());
+                    messages.add(ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private static Mono<Product> alreadyCheckedOut(long shoppingCartId, List<String> messages) {
+        return Mono.fromRunnable(() -> {
+            String message = "Shopping cart with ID " + shoppingCartId + " is already checked out.";
+            log.warn(message);
+            messages.add(message);
+        });
+    }
+
+    private Mono<ShoppingCart> findCart(Long id) {
+        return shoppingCartRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ShoppingCartNotFoundException("Shopping cart not found")));
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.microservice.repository;
+
+import org.example.microservice.model.DailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate> {
+
+    /**
+     * @return 1 if the row was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales (sale_date, quantity, amount, checkouts) SELECT :saleDate, 0, 0, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM daily_sales WHERE sale_date = :saleDate)", nativeQuery = true)
+    int createIfMissing(@Param("saleDate") LocalDate saleDate);
+
+    /**
+     * @return 1, or 0 if the day has no row yet
+     */
+    @Modifying
+    @Query("update DailySales s set s.quantity = s.quantity + :quantity, s.amount = s.amount + :amount, "
+            + "s.checkouts = s.checkouts + :checkouts where s.saleDate = :saleDate")
+    int add(@Param("saleDate") LocalDate saleDate, @Param("quantity") long quantity,
+            @Param("amount") BigDecimal amount, @Param("checkouts") long checkouts);
+
+    @Modifying
+    @Query("update DailySales s set s.quantity = 0, s.amount = 0, s.checkouts = 0")
+    int zero();
+}
@@ -0,0 +1,37 @@
+package org.example.microservice.repository;
+
+import org.example.microservice.model.HourlySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+public interface HourlySalesRepository extends JpaRepository<HourlySales, Instant> {
+
+    List<HourlySales> findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(Instant from, Instant to);
+
+    /**
+     * @return 1 if the row was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO hourly_sales (hour_start, quantity, amount, checkouts) SELECT :hourStart, 0, 0, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM hourly_sales WHERE hour_start = :hourStart)", nativeQuery = true)
+    int createIfMissing(@Param("hourStart") Instant hourStart);
+
+    /**
+     * @return 1, or 0 if the hour has no row yet
+     */
+    @Modifying
+    @Query("update HourlySales s set s.quantity = s.quantity + :quantity, s.amount = s.amount + :amount, "
+            + "s.checkouts = s.checkouts + :checkouts where s.hourStart = :hourStart")
+    int add(@Param("hourStart") Instant hourStart, @Param("quantity") long quantity,
+            @Param("amount") BigDecimal amount, @Param("checkouts") long checkouts);
+
+    @Modifying
+    @Query("update HourlySales s set s.quantity = 0, s.amount = 0, s.checkouts = 0")
+    int zero();
+}
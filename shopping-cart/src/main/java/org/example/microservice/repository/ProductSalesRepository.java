@@ -0,0 +1,33 @@
+package org.example.microservice.repository;
+
+import org.example.microservice.model.ProductSales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+public interface ProductSalesRepository extends JpaRepository<ProductSales, Long> {
+
+    /**
+     * @return 1 if the row was inserted, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = "INSERT INTO product_sales (product_id, quantity, amount, checkouts) SELECT :productId, 0, 0, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM product_sales WHERE product_id = :productId)", nativeQuery = true)
+    int createIfMissing(@Param("productId") long productId);
+
+    /**
+     * @return 1, or 0 if the product has no row yet
+     */
+    @Modifying
+    @Query("update ProductSales s set s.quantity = s.quantity + :quantity, s.amount = s.amount + :amount, "
+            + "s.checkouts = s.checkouts + :checkouts where s.productId = :productId")
+    int add(@Param("productId") long productId, @Param("quantity") long quantity,
+            @Param("amount") BigDecimal amount, @Param("checkouts") long checkouts);
+
+    @Modifying
+    @Query("update ProductSales s set s.quantity = 0, s.amount = 0, s.checkouts = 0")
+    int zero();
+}
@@ -1,10 +1,44 @@
 package org.example.microservice.repository;
 
+import jakarta.persistence.LockModeType;
 import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.sales.CheckedOutCart;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     public List<ShoppingCart> findByIsCheckoutFalseAndQuantityGreaterThan(int quantity);
+
+    /**
+     * Loads the cart and locks its row until the end of the transaction. Its product is not locked.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from ShoppingCart c where c.id = :id")
+    Optional<ShoppingCart> lockById(@Param("id") Long id);
+
+    /**
+     * @return checked-out carts with IDs above {@code after} that are not counted in the sales rollups, in ID order
+     */
+    @Query("select new org.example.microservice.sales.CheckedOutCart(c.id, c.product.id, c.quantity, c.totalAmount, c.checkedOutAt) "
+            + "from ShoppingCart c where c.isCheckout = true and c.rolledUp = false and c.id > :after order by c.id")
+    List<CheckedOutCart> findNotRolledUp(@Param("after") long after, Pageable pageable);
+
+    /**
+     * @return the number of carts marked, fewer than given if some already were
+     */
+    @Modifying
+    @Query("update ShoppingCart c set c.rolledUp = true where c.id in :ids and c.rolledUp = false")
+    int markRolledUp(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update ShoppingCart c set c.rolledUp = false where c.rolledUp = true")
+    int clearRolledUp();
 }
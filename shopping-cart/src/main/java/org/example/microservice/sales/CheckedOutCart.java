@@ -0,0 +1,12 @@
+package org.example.microservice.sales;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * The columns of a checked-out cart the sales rollups are built from.
+ *
+ * @param checkedOutAt null for carts checked out before it was recorded
+ */
+public record CheckedOutCart(Long id, Long productId, int quantity, BigDecimal totalAmount, Instant checkedOutAt) {
+}
@@ -0,0 +1,61 @@
+package org.example.microservice.sales;
+
+import org.example.microservice.repository.DailySalesRepository;
+import org.example.microservice.repository.HourlySalesRepository;
+import org.example.microservice.repository.ProductSalesRepository;
+import org.example.microservice.repository.ShoppingCartRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Defines the {@link SalesRollup}, which needs JPA and so is not available under the {@code reactive} profile,
+ * and schedules its backfill.
+ */
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(SalesProperties.class)
+public class SalesConfig {
+
+    @Bean
+    public SalesRollup salesRollup(ProductSalesRepository productSalesRepository,
+                                   HourlySalesRepository hourlySalesRepository,
+                                   DailySalesRepository dailySalesRepository,
+                                   ShoppingCartRepository shoppingCartRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   SalesProperties properties) {
+        return new SalesRollup(productSalesRepository, hourlySalesRepository, dailySalesRepository,
+                shoppingCartRepository, new TransactionTemplate(transactionManager), properties);
+    }
+
+    @Configuration
+    @EnableScheduling
+    @Profile("!reactive")
+    @ConditionalOnProperty(prefix = "sales.rollup", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class SalesBackfillConfig implements SchedulingConfigurer {
+        private final SalesProperties properties;
+        private final ObjectProvider<SalesRollup> salesRollup;
+
+        SalesBackfillConfig(SalesProperties properties, ObjectProvider<SalesRollup> salesRollup) {
+            this.properties = properties;
+            this.salesRollup = salesRollup;
+        }
+
+        @Override
+        public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+            if (properties.getBackfillInterval().isZero() || properties.getBackfillInterval().isNegative()) {
+                return;
+            }
+            taskRegistrar.addFixedDelayTask(() -> salesRollup.getObject().backfill(false),
+                    properties.getBackfillInterval());
+        }
+    }
+}
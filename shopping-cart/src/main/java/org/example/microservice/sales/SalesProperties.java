@@ -0,0 +1,41 @@
+package org.example.microservice.sales;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+@Data
+@ConfigurationProperties(prefix = "sales.rollup")
+public class SalesProperties {
+    /**
+     * Whether the sales rollups are kept current: by a backfill every {@link #backfillInterval} and, with
+     * {@link #inCheckout}, by the checkouts themselves.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether each checkout also adds its cart to the rollups in its own transaction. Every checkout then updates
+     * the same hour's and day's rows, which serializes concurrent checkouts on those rows; left off, checkouts only
+     * leave their carts for the backfill.
+     */
+    private boolean inCheckout = false;
+
+    /**
+     * Delay between the end of one scheduled backfill and the start of the next, which is how far the rollups
+     * trail checkouts; zero leaves backfills to {@code POST /sales/backfill}.
+     */
+    private Duration backfillInterval = Duration.ofSeconds(10);
+
+    /**
+     * Zone whose calendar days the daily rollup follows. Hours are UTC hours, so a zone whose offset is not a
+     * whole number of hours splits an hour between two days.
+     */
+    private ZoneId zone = ZoneId.of("UTC");
+
+    /**
+     * Checked-out carts the backfill reads and counts per transaction.
+     */
+    private int backfillChunkSize = 1000;
+}
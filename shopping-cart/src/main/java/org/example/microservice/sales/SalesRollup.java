@@ -0,0 +1,226 @@
+package org.example.microservice.sales;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.repository.DailySalesRepository;
+import org.example.microservice.repository.HourlySalesRepository;
+import org.example.microservice.repository.ProductSalesRepository;
+import org.example.microservice.repository.ShoppingCartRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps the sales rollups, {@code product_sales}, {@code hourly_sales} and {@code daily_sales}, current with
+ * checkouts, so a report reads one row per product, hour or day instead of summing every checked-out cart.
+ * <p>
+ * {@link #backfill} counts the checked-out carts that are not rolled up yet, a chunk at a time; {@code SalesConfig}
+ * runs it on a fixed delay. Checkouts leave their carts to it unless {@link SalesProperties#isInCheckout()}, in
+ * which case a checkout adds its cart to its three rows in the checkout's transaction and marks the cart rolled
+ * up. Two checkouts inserting a missing row at once would fail one of them, so {@link #prepare} creates the rows
+ * first, in a transaction of its own; the rows it has seen are remembered, which spares most checkouts this. Rows
+ * are never deleted, only zeroed by a rebuild, so what is remembered stays true. Carts checked out before their
+ * checkout time was recorded only count towards their product.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SalesRollup {
+    private final ProductSalesRepository productSalesRepository;
+    private final HourlySalesRepository hourlySalesRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SalesProperties properties;
+    private final Set<Long> productRows = ConcurrentHashMap.newKeySet();
+    private volatile Instant hourRow;
+    private volatile LocalDate dayRow;
+
+    private record Totals(long quantity, BigDecimal amount, long checkouts) {
+        static Totals of(int quantity, BigDecimal amount) {
+            return new Totals(quantity, amount != null ? amount : BigDecimal.ZERO, 1);
+        }
+
+        Totals plus(Totals other) {
+            return new Totals(quantity + other.quantity, amount.add(other.amount), checkouts + other.checkouts);
+        }
+    }
+
+    /**
+     * @return whether the rollups are kept current at all
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @return whether checkouts add their carts to the rollups themselves; when they do not, {@link #prepare} and
+     * {@link #add} may not be called
+     */
+    public boolean isInCheckout() {
+        return properties.isEnabled() && properties.isInCheckout();
+    }
+
+    /**
+     * @return the start of the UTC hour {@code instant} falls in
+     */
+    public Instant hour(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    /**
+     * @return the day {@code instant} falls on in {@link SalesProperties#getZone()}
+     */
+    public LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant, properties.getZone());
+    }
+
+    /**
+     * Creates the rows a checkout of the product at {@code checkedOutAt} adds to, where they do not exist yet.
+     * Call it before the checkout's transaction: a lost race to insert a row fails the transaction inserting it.
+     */
+    public void prepare(long productId, Instant checkedOutAt) {
+        if (!productRows.contains(productId)) {
+            createRow(() -> productSalesRepository.createIfMissing(productId));
+            productRows.add(productId);
+        }
+        Instant hour = hour(checkedOutAt);
+        if (!hour.equals(hourRow)) {
+            createRow(() -> hourlySalesRepository.createIfMissing(hour));
+            hourRow = hour;
+        }
+        LocalDate day = day(checkedOutAt);
+        if (!day.equals(dayRow)) {
+            createRow(() -> dailySalesRepository.createIfMissing(day));
+            dayRow = day;
+        }
+    }
+
+    /**
+     * Adds a cart to the rollups in the caller's transaction, which should be the one checking it out and marking
+     * it rolled up. The rows were created by {@link #prepare}.
+     */
+    public void add(ShoppingCart shoppingCart) {
+        Totals totals = Totals.of(shoppingCart.getQuantity(), shoppingCart.getTotalAmount());
+        addToProduct(shoppingCart.getProduct().getId(), totals);
+        addToHour(hour(shoppingCart.getCheckedOutAt()), totals);
+        addToDay(day(shoppingCart.getCheckedOutAt()), totals);
+    }
+
+    /**
+     * Counts the checked-out carts that are not rolled up yet, {@link SalesProperties#getBackfillChunkSize()} at a
+     * time in ID order, each chunk in a transaction that also marks its carts rolled up. Backfills of this process
+     * run one at a time. When one in another instance marks some of a chunk's carts first, the chunk is rolled back
+     * and read again, without those carts.
+     *
+     * @param rebuild whether to first zero the rollups and mark every cart as not rolled up, in one transaction,
+     *                so that the whole history is counted again
+     * @return the number of carts counted
+     */
+    public synchronized long backfill(boolean rebuild) {
+        if (rebuild) {
+            transactionTemplate.executeWithoutResult(status -> {
+                productSalesRepository.zero();
+                hourlySalesRepository.zero();
+                dailySalesRepository.zero();
+                shoppingCartRepository.clearRolledUp();
+            });
+            log.info("Zeroed the sales rollups for a rebuild");
+        }
+        long counted = 0;
+        long after = 0;
+        PageRequest chunk = PageRequest.of(0, properties.getBackfillChunkSize());
+        List<CheckedOutCart> carts;
+        while (!(carts = shoppingCartRepository.findNotRolledUp(after, chunk)).isEmpty()) {
+            if (!addChunk(carts)) {
+                log.debug("Carts {} to {} were counted by a concurrent backfill, reading them again",
+                        carts.get(0).id(), carts.get(carts.size() - 1).id());
+                continue;
+            }
+            counted += carts.size();
+            after = carts.get(carts.size() - 1).id();
+            log.debug("Backfilled sales rollups up to cart ID {}", after);
+        }
+        if (counted > 0 || rebuild) {
+            log.info("Backfilled {} checked-out carts into the sales rollups", counted);
+        }
+        return counted;
+    }
+
+    /**
+     * Sums the carts per row and adds the sums. Rows are updated in key order, products before hours before days,
+     * the order a checkout updates its rows in, so a chunk and concurrent checkouts cannot deadlock.
+     *
+     * @return false, having added nothing, if another backfill marked some of the carts rolled up first
+     */
+    private boolean addChunk(List<CheckedOutCart> carts) {
+        Map<Long, Totals> byProduct = new TreeMap<>();
+        Map<Instant, Totals> byHour = new TreeMap<>();
+        Map<LocalDate, Totals> byDay = new TreeMap<>();
+        for (CheckedOutCart cart : carts) {
+            Totals totals = Totals.of(cart.quantity(), cart.totalAmount());
+            if (cart.productId() != null) {
+                byProduct.merge(cart.productId(), totals, Totals::plus);
+            }
+            if (cart.checkedOutAt() != null) {
+                byHour.merge(hour(cart.checkedOutAt()), totals, Totals::plus);
+                byDay.merge(day(cart.checkedOutAt()), totals, Totals::plus);
+            }
+        }
+        byProduct.keySet().forEach(productId -> createRow(() -> productSalesRepository.createIfMissing(productId)));
+        byHour.keySet().forEach(hour -> createRow(() -> hourlySalesRepository.createIfMissing(hour)));
+        byDay.keySet().forEach(day -> createRow(() -> dailySalesRepository.createIfMissing(day)));
+
+        List<Long> ids = carts.stream().map(CheckedOutCart::id).toList();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (shoppingCartRepository.markRolledUp(ids) != ids.size()) {
+                status.setRollbackOnly();
+                return false;
+            }
+            byProduct.forEach(this::addToProduct);
+            byHour.forEach(this::addToHour);
+            byDay.forEach(this::addToDay);
+            return true;
+        }));
+    }
+
+    private void addToProduct(long productId, Totals totals) {
+        requireRow(productSalesRepository.add(productId, totals.quantity(), totals.amount(), totals.checkouts()),
+                "product ID " + productId);
+    }
+
+    private void addToHour(Instant hour, Totals totals) {
+        requireRow(hourlySalesRepository.add(hour, totals.quantity(), totals.amount(), totals.checkouts()),
+                "hour " + hour);
+    }
+
+    private void addToDay(LocalDate day, Totals totals) {
+        requireRow(dailySalesRepository.add(day, totals.quantity(), totals.amount(), totals.checkouts()),
+                "day " + day);
+    }
+
+    private static void requireRow(int updated, String key) {
+        if (updated != 1) {
+            throw new IllegalStateException("No sales rollup row for " + key);
+        }
+    }
+
+    private void createRow(IntSupplier insert) {
+        try {
+            transactionTemplate.execute(status -> insert.getAsInt());
+        } catch (DataIntegrityViolationException ex) {
+            // a concurrent checkout created it first
+        }
+    }
+}
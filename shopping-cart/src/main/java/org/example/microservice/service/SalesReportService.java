@@ -0,0 +1,96 @@
+package org.example.microservice.service;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.model.DailySales;
+import org.example.microservice.model.HourlySales;
+import org.example.microservice.model.ProductSales;
+import org.example.microservice.repository.DailySalesRepository;
+import org.example.microservice.repository.HourlySalesRepository;
+import org.example.microservice.repository.ProductSalesRepository;
+import org.example.microservice.sales.SalesProperties;
+import org.example.microservice.sales.SalesRollup;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sales reports read from the rollups {@link SalesRollup} maintains: one row per product or day and at most 25
+ * hourly rows per day, however many carts have been checked out.
+ */
+@Service
+@Profile("!reactive")
+@RequiredArgsConstructor
+@Slf4j
+@Timed("shopping.cart.service")
+public class SalesReportService {
+    private final ProductSalesRepository productSalesRepository;
+    private final HourlySalesRepository hourlySalesRepository;
+    private final DailySalesRepository dailySalesRepository;
+    private final SalesRollup salesRollup;
+    private final SalesProperties properties;
+
+    /**
+     * @param productId the product ID
+     * @return everything checked out of the product, all zero if nothing was
+     */
+    @Transactional(readOnly = true)
+    public ProductSales getProductSales(long productId) {
+        return productSalesRepository.findById(productId)
+                .orElseGet(() -> new ProductSales(productId, 0, BigDecimal.ZERO, 0));
+    }
+
+    /**
+     * @param date a day in the zone of {@code sales.rollup.zone}
+     * @return everything checked out on that day, all zero if nothing was
+     */
+    @Transactional(readOnly = true)
+    public DailySales getDailySales(LocalDate date) {
+        return dailySalesRepository.findById(date)
+                .orElseGet(() -> new DailySales(date, 0, BigDecimal.ZERO, 0));
+    }
+
+    /**
+     * @param date a day in the zone of {@code sales.rollup.zone}
+     * @return the sales of each UTC hour that starts on that day, in order, hours without sales included as zero
+     */
+    @Transactional(readOnly = true)
+    public List<HourlySales> getHourlySales(LocalDate date) {
+        Instant dayStart = date.atStartOfDay(properties.getZone()).toInstant();
+        Instant from = salesRollup.hour(dayStart);
+        if (from.isBefore(dayStart)) {
+            from = from.plus(Duration.ofHours(1));
+        }
+        Instant to = date.plusDays(1).atStartOfDay(properties.getZone()).toInstant();
+        Map<Instant, HourlySales> sales = hourlySalesRepository
+                .findByHourStartGreaterThanEqualAndHourStartLessThanOrderByHourStart(from, to).stream()
+                .collect(Collectors.toMap(HourlySales::getHourStart, Function.identity()));
+        List<HourlySales> hours = new ArrayList<>();
+        for (Instant hour = from; hour.isBefore(to); hour = hour.plus(Duration.ofHours(1))) {
+            hours.add(sales.getOrDefault(hour, new HourlySales(hour, 0, BigDecimal.ZERO, 0)));
+        }
+        return hours;
+    }
+
+    /**
+     * Counts checked-out carts missing from the rollups into them.
+     *
+     * @param rebuild whether to zero the rollups and count every checked-out cart again
+     * @return the number of carts counted
+     */
+    public long backfill(boolean rebuild) {
+        log.info("Backfilling the sales rollups{}", rebuild ? " from scratch" : "");
+        return salesRollup.backfill(rebuild);
+    }
+}
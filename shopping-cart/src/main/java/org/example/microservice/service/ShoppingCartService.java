@@ -1,7 +1,10 @@
 package org.example.microservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.catalog.CatalogIndex;
+import org.example.microservice.catalog.ProductChangedEvent;
 import org.example.microservice.dto.ShoppingCartDto;
 import org.example.microservice.exception.AlreadyCheckedOutException;
 import org.example.microservice.exception.InsufficientQuantityException;
@@ -9,23 +12,47 @@ import org.example.microservice.exception.ProductNotFoundException;
 import org.example.microservice.exception.ShoppingCartNotFoundException;
 import org.example.microservice.model.Product;
 import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.pricing.PricingEngine;
 import org.example.microservice.repository.InventoryRepository;
 import org.example.microservice.repository.ShoppingCartRepository;
+import org.example.microservice.sales.SalesRollup;
+import org.example.microservice.stock.StockAllocator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 @Service
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Slf4j
+@Timed("shopping.cart.service")
 public class ShoppingCartService {
     private final InventoryRepository inventoryRepository;
     private final ShoppingCartRepository shoppingCartRepository;
+    private final PricingEngine pricingEngine;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockAllocator stockAllocator;
+    private final SalesRollup salesRollup;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Answers the product lookups of {@link #addToCart} when {@code catalog.index.enabled}; null otherwise.
+     */
+    @Nullable
+    private final CatalogIndex catalogIndex;
 
     /**
-     * Adds a product to a shopping cart.
+     * Adds a product to a shopping cart. With a catalog index the product's price and quantity come from the
+     * index, which misses changes made by the inventory service since it was loaded: a quantity too small for the
+     * purchase is checked against the database before the purchase is refused, and checkout prices the cart from
+     * the database.
      *
      * @param shoppingCartDto the shopping cart data transfer object containing product and quantity information
      * @return the updated or newly created shopping cart
@@ -35,34 +62,54 @@ public class ShoppingCartService {
      */
     public ShoppingCart addToCart(ShoppingCartDto shoppingCartDto) {
         log.info("Adding product with ID {} to shopping cart with ID {}", shoppingCartDto.getProductId(), shoppingCartDto.getShoppingCartId());
+        CatalogIndex.Row row = new CatalogIndex.Row();
+        if (catalogIndex != null && catalogIndex.read(catalogIndex.slotOf(shoppingCartDto.getProductId()), row)) {
+            int available = stockAllocator.isEnabled() ? stockAllocator.available(row.getId()) : row.getQuantity();
+            if (!stockAllocator.isEnabled() && !addItems(shoppingCartDto.getPurchaseQuantity(), available)) {
+                available = inventoryRepository.findById(row.getId()).map(Product::getQuantity).orElse(0);
+            }
+            checkAvailable(row.getName(), shoppingCartDto.getPurchaseQuantity(), available);
+            long total = pricingEngine.lineTotal(row.getRetailPrice(), shoppingCartDto.getPurchaseQuantity(),
+                    pricingEngine.promotionFor(row.getUpc()));
+            return saveLine(shoppingCartDto, catalogIndex.toProduct(row), pricingEngine.toDecimal(total));
+        }
+
         Product product = inventoryRepository.findById(shoppingCartDto.getProductId())
-                .orElseThrow(() -> {
-                    log.error("Product with ID {} not found", shoppingCartDto.getProductId());
-                    return new ProductNotFoundException("Product not found");
-                });
-
-        if (!addItems(shoppingCartDto.getPurchaseQuantity(), product.getQuantity())) {
-            log.error("Insufficient quantity for product: {}. Requested: {}, Available: {}", product.getName(),
-                    shoppingCartDto.getPurchaseQuantity(), product.getQuantity());
-            throw new InsufficientQuantityException("Insufficient quantity for product: " + product.getName());
+                .orElseThrow(() -> new ProductNotFoundException("Product not found"));
+        int available = stockAllocator.isEnabled() ? stockAllocator.available(product.getId()) : product.getQuantity();
+        checkAvailable(product.getName(), shoppingCartDto.getPurchaseQuantity(), available);
+        BigDecimal total = pricingEngine.toDecimal(pricingEngine.lineTotal(product, shoppingCartDto.getPurchaseQuantity()));
+        return saveLine(shoppingCartDto, product, total);
+    }
+
+    private void checkAvailable(String productName, int purchaseQuantity, int available) {
+        if (!addItems(purchaseQuantity, available)) {
+            log.debug("Insufficient quantity for product: {}. Requested: {}, Available: {}", productName,
+                    purchaseQuantity, available);
+            throw new InsufficientQuantityException("Insufficient quantity for product: " + productName);
         }
+    }
 
-        BigDecimal total = product.getRetailPrice().multiply(new BigDecimal(shoppingCartDto.getPurchaseQuantity()));
+    /**
+     * Updates the quantity and total of the cart in {@code shoppingCartDto}, or creates a cart for the product if
+     * it has no cart ID.
+     */
+    private ShoppingCart saveLine(ShoppingCartDto shoppingCartDto, Product product, BigDecimal total) {
 
         if (shoppingCartDto.getShoppingCartId() > 0) {
-            ShoppingCart shoppingCart = shoppingCartRepository.findById(shoppingCartDto.getShoppingCartId())
-                    .orElseThrow(() -> {
-                        log.error("Shopping cart with ID {} not found", shoppingCartDto.getShoppingCartId());
-                        return new ShoppingCartNotFoundException("Shopping cart not found");
-                    });
-            if (!shoppingCart.isCheckout() && shoppingCart.getQuantity() > 0) {
-                log.info("Updating quantity for shopping cart with ID {}", shoppingCartDto.getShoppingCartId());
-                shoppingCart.setTotalAmount(total);
-                shoppingCart.setQuantity(shoppingCartDto.getPurchaseQuantity());
-                return shoppingCartRepository.save(shoppingCart);
-            }else {
-                throw new AlreadyCheckedOutException("Failed to add to cart, this item is already checked out.");
-            }
+            // locked, so that a concurrent checkout either sees the new quantity or has already checked it out
+            return transactionTemplate.execute(status -> {
+                ShoppingCart shoppingCart = shoppingCartRepository.lockById(shoppingCartDto.getShoppingCartId())
+                        .orElseThrow(() -> new ShoppingCartNotFoundException("Shopping cart not found"));
+                if (!shoppingCart.isCheckout() && shoppingCart.getQuantity() > 0) {
+                    log.info("Updating quantity for shopping cart with ID {}", shoppingCartDto.getShoppingCartId());
+                    shoppingCart.setTotalAmount(total);
+                    shoppingCart.setQuantity(shoppingCartDto.getPurchaseQuantity());
+                    return shoppingCartRepository.save(shoppingCart);
+                }else {
+                    throw new AlreadyCheckedOutException("Failed to add to cart, this item is already checked out.");
+                }
+            });
         }
 
         log.info("Creating new shopping cart for product with ID {}", shoppingCartDto.getProductId());
@@ -76,6 +123,7 @@ public class ShoppingCartService {
         return shoppingCartRepository.save(newShoppingCart);
     }
 
+    @Transactional(readOnly = true)
     public List<ShoppingCart> getAllNonCheckedOutItems(){
         return shoppingCartRepository.findByIsCheckoutFalseAndQuantityGreaterThan(0);
     }
@@ -99,29 +147,30 @@ public class ShoppingCartService {
      * @return the total amount
      * @throws ShoppingCartNotFoundException if any shopping cart is not found
      */
+    @Transactional(readOnly = true)
     public BigDecimal getTotal(List<Long> shoppingCartIds) {
         log.info("Calculating total for shopping cart IDs: {}", shoppingCartIds);
-        BigDecimal total = BigDecimal.ZERO;
+        long total = 0;
 
         for (Long id : shoppingCartIds) {
             ShoppingCart shoppingCart = shoppingCartRepository.findById(id)
-                    .orElseThrow(() -> {
-                        log.error("Shopping cart with ID {} not found", id);
-                        return new ShoppingCartNotFoundException("Shopping cart not found");
-                    });
+                    .orElseThrow(() -> new ShoppingCartNotFoundException("Shopping cart not found"));
 
             if (!shoppingCart.isCheckout()) {
-                Product product = shoppingCart.getProduct();
-                total = total.add(product.getRetailPrice().multiply(new BigDecimal(shoppingCart.getQuantity())));
-                log.info("Added product price {} to total. Current total: {}", product.getRetailPrice().multiply(new BigDecimal(shoppingCart.getQuantity())), total);
+                long lineTotal = pricingEngine.lineTotal(shoppingCart.getProduct(), shoppingCart.getQuantity());
+                total = Math.addExact(total, lineTotal);
+                log.info("Added line total {} to total. Current total: {}", pricingEngine.toDecimal(lineTotal), pricingEngine.toDecimal(total));
             }
         }
-        log.info("Final total for shopping cart IDs {}: {}", shoppingCartIds, total);
-        return total;
+        log.info("Final total for shopping cart IDs {}: {}", shoppingCartIds, pricingEngine.toDecimal(total));
+        return pricingEngine.toDecimal(total);
     }
 
     /**
-     * Checks out a list of shopping cart IDs, updating product quantities and marking carts as checked out.
+     * Checks out a list of shopping cart IDs, updating product quantities and marking carts as checked out. Each
+     * cart is checked out in a transaction of its own, which also adds it to the sales rollups with
+     * {@code sales.rollup.in-checkout}; otherwise the scheduled backfill adds it. A cart whose product no longer
+     * has its quantity in stock is left as it is, with a message saying so.
      *
      * @param shoppingCartIds the list of shopping cart IDs to check out
      * @return a list containing the updated products and any messages related to the checkout process
@@ -134,10 +183,7 @@ public class ShoppingCartService {
 
         for (Long id : shoppingCartIds) {
             ShoppingCart shoppingCart = shoppingCartRepository.findById(id)
-                    .orElseThrow(() -> {
-                        log.error("Shopping cart with ID {} not found", id);
-                        return new ShoppingCartNotFoundException("Shopping cart not found");
-                    });
+                    .orElseThrow(() -> new ShoppingCartNotFoundException("Shopping cart not found"));
 
             if (shoppingCart.isCheckout()) {
                 String message = "Shopping cart with ID " + id + " is already checked out.";
@@ -146,26 +192,15 @@ public class ShoppingCartService {
                 continue;
             }
 
-            Product product = shoppingCart.getProduct();
-            int remainingQuantity = product.getQuantity() - shoppingCart.getQuantity();
-            product.setQuantity(remainingQuantity);
-            Product updatedProduct = inventoryRepository.save(product);
-
-            if (updatedProduct == null) {
-                String message = "Error updating product quantity for product ID " + product.getId();
-                log.error(message);
-                messages.add(message);
-                continue;
+            Instant checkedOutAt = Instant.now();
+            if (salesRollup.isInCheckout()) {
+                salesRollup.prepare(shoppingCart.getProduct().getId(), checkedOutAt);
+            }
+            Product updatedProduct = transactionTemplate.execute(status ->
+                    checkout(id, shoppingCart.getProduct().getId(), checkedOutAt, messages));
+            if (updatedProduct != null) {
+                products.add(updatedProduct);
             }
-
-            BigDecimal getTotalAmount = updatedProduct.getRetailPrice()
-                    .multiply(new BigDecimal(shoppingCart.getQuantity()));
-            shoppingCart.setCheckout(true);
-            shoppingCart.setTotalAmount(getTotalAmount);
-            shoppingCartRepository.save(shoppingCart);
-            products.add(updatedProduct);
-
-            log.info("Checked out product ID {}. Remaining quantity: {}. Total amount: {}", product.getId(), remainingQuantity, getTotalAmount);
         }
         log.info("Checkout complete for shopping cart IDs {}", shoppingCartIds);
         List<Object> result = new ArrayList<>();
@@ -173,4 +208,59 @@ public class ShoppingCartService {
         result.add(messages);
         return result;
     }
+
+    /**
+     * Checks the cart out as it is now, locking the product's row, unless its stock is in buckets, and then the
+     * cart's: the order every checkout locks them in. The cart loaded beforehand may have changed since, or been
+     * checked out by a concurrent checkout.
+     *
+     * @return the updated product, or null with the reason added to {@code messages}
+     */
+    private Product checkout(long shoppingCartId, long productId, Instant checkedOutAt, List<String> messages) {
+        Product lockedProduct = stockAllocator.isEnabled() ? null : inventoryRepository.lockById(productId)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found"));
+        ShoppingCart shoppingCart = shoppingCartRepository.lockById(shoppingCartId)
+                .orElseThrow(() -> new ShoppingCartNotFoundException("Shopping cart not found"));
+        if (shoppingCart.isCheckout()) {
+            String message = "Shopping cart with ID " + shoppingCartId + " is already checked out.";
+            log.warn(message);
+            messages.add(message);
+            return null;
+        }
+
+        Product product = shoppingCart.getProduct();
+        boolean inStock = stockAllocator.isEnabled()
+                ? stockAllocator.allocate(product.getId(), shoppingCart.getQuantity())
+                : lockedProduct.getQuantity() >= shoppingCart.getQuantity();
+        if (!inStock) {
+            String message = "Insufficient quantity for product ID " + product.getId() + " in shopping cart with ID " + shoppingCart.getId();
+            log.warn(message);
+            messages.add(message);
+            return null;
+        }
+
+        Product updatedProduct;
+        if (stockAllocator.isEnabled()) {
+            // the product's quantity catches up with its stock buckets when they are rebalanced
+            updatedProduct = product;
+        } else {
+            lockedProduct.setQuantity(lockedProduct.getQuantity() - shoppingCart.getQuantity());
+            updatedProduct = lockedProduct;
+            eventPublisher.publishEvent(new ProductChangedEvent(updatedProduct));
+        }
+
+        BigDecimal getTotalAmount = pricingEngine.toDecimal(pricingEngine.lineTotal(updatedProduct, shoppingCart.getQuantity()));
+        shoppingCart.setCheckout(true);
+        shoppingCart.setTotalAmount(getTotalAmount);
+        shoppingCart.setCheckedOutAt(checkedOutAt);
+        shoppingCart.setRolledUp(salesRollup.isInCheckout());
+        shoppingCartRepository.saveAndFlush(shoppingCart);
+        if (salesRollup.isInCheckout()) {
+            // last, so the hour's and the day's rows, which every checkout updates, stay locked only until the commit
+            salesRollup.add(shoppingCart);
+        }
+
+        log.info("Checked out {} of product ID {}. Total amount: {}", shoppingCart.getQuantity(), product.getId(), getTotalAmount);
+        return updatedProduct;
+    }
 }
@@ -0,0 +1,23 @@
+-- Same tables Hibernate creates for Product and ShoppingCart with ddl-auto=update.
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    upc VARCHAR(255) NOT NULL UNIQUE,
+    name VARCHAR(255),
+    wholesale_price NUMERIC(19, 2),
+    retail_price NUMERIC(19, 2),
+    quantity INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS shopping_cart (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    quantity INTEGER NOT NULL,
+    product_id BIGINT REFERENCES products (id),
+    is_checkout BOOLEAN NOT NULL,
+    total_amount NUMERIC(19, 2),
+    checked_out_at TIMESTAMP(6) WITH TIME ZONE,
+    rolled_up BOOLEAN DEFAULT FALSE NOT NULL
+);
+
+-- Tables created before checkouts were rolled up into sales totals.
+ALTER TABLE shopping_cart ADD COLUMN IF NOT EXISTS checked_out_at TIMESTAMP(6) WITH TIME ZONE;
+ALTER TABLE shopping_cart ADD COLUMN IF NOT EXISTS rolled_up BOOLEAN DEFAULT FALSE NOT NULL;
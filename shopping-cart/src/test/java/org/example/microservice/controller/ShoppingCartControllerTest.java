@@ -0,0 +1,106 @@
+package org.example.microservice.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.microservice.dto.CartItemDto;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.service.ShoppingCartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class ShoppingCartControllerTest {
+
+    @Mock
+    private ShoppingCartService shoppingCartService;
+
+    @InjectMocks
+    private ShoppingCartController shoppingCartController;
+
+    private MockMvc mockMvc;
+    private List<ShoppingCart> carts;
+
+    @BeforeEach
+    public void setup() {
+        mockMvc = MockMvcBuilders.standaloneSetup(shoppingCartController).build();
+        carts = new ArrayList<>();
+        for (long i = 1; i <= 20; i++) {
+            Product product = new Product(i, "UPC-" + i, "Product " + i, BigDecimal.valueOf(100), BigDecimal.valueOf(150), 10);
+            carts.add(ShoppingCart.builder()
+                    .id(i)
+                    .product(product)
+                    .quantity(2)
+                    .totalAmount(BigDecimal.valueOf(300))
+                    .build());
+        }
+    }
+
+    @Test
+    public void testGetAllNonCheckedOutItems_Cbor() throws Exception {
+        when(shoppingCartService.getAllNonCheckedOutItems()).thenReturn(carts);
+
+        byte[] body = mockMvc.perform(get("/api/shopping-cart/all-items").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<CartItemDto> items = new CBORMapper().readValue(body, new TypeReference<>() {
+        });
+        assertEquals(20, items.size());
+        assertEquals(1L, items.get(0).getProductId());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(items.get(0).getUnitPrice()));
+        assertEquals(2, items.get(0).getQuantity());
+    }
+
+    @Test
+    public void testGetAllNonCheckedOutItems_JsonHasSameFieldsAsCbor() throws Exception {
+        when(shoppingCartService.getAllNonCheckedOutItems()).thenReturn(carts);
+
+        mockMvc.perform(get("/api/shopping-cart/all-items").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(20))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].productId").value(1))
+                .andExpect(jsonPath("$[0].unitPrice").value(150))
+                .andExpect(jsonPath("$[0].quantity").value(2))
+                .andExpect(jsonPath("$[0].checkout").value(false))
+                .andExpect(jsonPath("$[0].totalAmount").value(300))
+                .andExpect(jsonPath("$[0].product").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllNonCheckedOutItems_CborSmallerThanJson() throws Exception {
+        when(shoppingCartService.getAllNonCheckedOutItems()).thenReturn(carts);
+
+        byte[] json = mockMvc.perform(get("/api/shopping-cart/all-items").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] cbor = mockMvc.perform(get("/api/shopping-cart/all-items").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertTrue(cbor.length < json.length, "CBOR " + cbor.length + " bytes vs JSON " + json.length + " bytes");
+    }
+}
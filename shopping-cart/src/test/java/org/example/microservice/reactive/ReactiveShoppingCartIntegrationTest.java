@@ -0,0 +1,225 @@
+package org.example.microservice.reactive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.microservice.ShoppingCartApplication;
+import org.example.microservice.dto.CartItemDto;
+import org.example.microservice.dto.ShoppingCartDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the {@code reactive} profile against an in-memory H2 database through R2DBC and checks the endpoints
+ * answer like the MVC controller.
+ */
+@SpringBootTest(classes = ShoppingCartApplication.class, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-cart;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "eureka.client.enabled=false"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveShoppingCartIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveShoppingCartService shoppingCartService;
+
+    private long productId;
+
+    @BeforeEach
+    public void setup() {
+        databaseClient.sql("DELETE FROM shopping_cart").then()
+                .then(databaseClient.sql("DELETE FROM products").then())
+                .then(databaseClient.sql("INSERT INTO products (upc, name, wholesale_price, retail_price, quantity) "
+                        + "VALUES ('UPC-1', 'Product 1', 100, 150, 10)").then())
+                .block();
+        productId = databaseClient.sql("SELECT id FROM products").map(row -> row.get("id", Long.class)).one().block();
+    }
+
+    private JsonNode addToCart(long shoppingCartId, int quantity) {
+        return webTestClient.post().uri("/api/shopping-cart/add-to-cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShoppingCartDto(shoppingCartId, productId, quantity))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+    }
+
+    @Test
+    public void testAddToCart_CreateThenUpdate() {
+        JsonNode created = addToCart(0, 2);
+        assertTrue(created.get("id").asLong() > 0);
+        assertEquals(productId, created.get("productId").asLong());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(created.get("unitPrice").decimalValue()));
+        assertEquals(0, BigDecimal.valueOf(300).compareTo(created.get("totalAmount").decimalValue()));
+        assertFalse(created.get("checkout").asBoolean());
+
+        JsonNode updated = addToCart(created.get("id").asLong(), 3);
+        assertEquals(created.get("id").asLong(), updated.get("id").asLong());
+        assertEquals(3, updated.get("quantity").asInt());
+        assertEquals(0, BigDecimal.valueOf(450).compareTo(updated.get("totalAmount").decimalValue()));
+    }
+
+    @Test
+    public void testAddToCart_Errors() {
+        webTestClient.post().uri("/api/shopping-cart/add-to-cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShoppingCartDto(0, productId + 1, 1))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .expectHeader().cacheControl(CacheControl.maxAge(10, TimeUnit.SECONDS).cachePublic())
+                .expectBody().jsonPath("$.detail").isEqualTo("Product not found");
+        webTestClient.post().uri("/api/shopping-cart/add-to-cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShoppingCartDto(0, productId, 11))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectHeader().cacheControl(CacheControl.noStore());
+        webTestClient.post().uri("/api/shopping-cart/add-total")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(-1L))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testCheckout_ReducesStockOnce() {
+        long first = addToCart(0, 2).get("id").asLong();
+        long second = addToCart(0, 3).get("id").asLong();
+
+        webTestClient.post().uri("/api/shopping-cart/add-total")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(first, second))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BigDecimal.class).value(total -> assertEquals(0, BigDecimal.valueOf(750).compareTo(total)));
+
+        JsonNode result = webTestClient.post().uri("/api/shopping-cart/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(first, second, first))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class)
+                .returnResult().getResponseBody();
+
+        assertEquals(2, result.get("products").size());
+        assertEquals(5, result.get("products").get(1).get("quantity").asInt());
+        assertEquals("Shopping cart with ID " + first + " is already checked out.", result.get("messages").get(0).asText());
+        webTestClient.post().uri("/api/shopping-cart/add-to-cart")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(new ShoppingCartDto(first, productId, 1))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    public void testCheckout_ConcurrentCheckoutsNeverOversell() {
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            cartIds.add(addToCart(0, 3).get("id").asLong());
+        }
+
+        List<List<Object>> results = Flux.fromIterable(cartIds)
+                .flatMap(id -> shoppingCartService.checkout(List.of(id)).subscribeOn(Schedulers.parallel()), cartIds.size())
+                .collectList()
+                .block();
+
+        long checkedOut = results.stream().filter(result -> !((List<?>) result.get(0)).isEmpty()).count();
+        assertEquals(3, checkedOut);
+        assertEquals(5, results.stream().mapToLong(result -> ((List<?>) result.get(1)).size()).sum());
+        assertEquals(1, databaseClient.sql("SELECT quantity FROM products WHERE id = :id").bind("id", productId)
+                .map(row -> row.get("quantity", Integer.class)).one().block());
+        // the carts that found the stock short were rolled back and are still open
+        assertEquals(5, databaseClient.sql("SELECT COUNT(*) AS open FROM shopping_cart WHERE is_checkout = FALSE")
+                .map(row -> row.get("open", Long.class)).one().block());
+    }
+
+    @Test
+    public void testStartup_RefusesStockBuckets() {
+        SpringApplicationBuilder application = new SpringApplicationBuilder(ShoppingCartApplication.class)
+                .profiles("reactive");
+
+        Exception exception = assertThrows(Exception.class, () -> application.run(
+                "--spring.r2dbc.url=r2dbc:h2:mem:///reactive-buckets;DB_CLOSE_DELAY=-1", "--server.port=0",
+                "--eureka.client.enabled=false", "--stock.buckets.enabled=true"));
+
+        Throwable cause = exception;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertEquals("The reactive profile does not support stock buckets, set stock.buckets.enabled=false",
+                cause.getMessage());
+    }
+
+    @Test
+    public void testGetAllNonCheckedOutItems_JsonNdjsonAndCbor() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            addToCart(0, 1);
+        }
+
+        webTestClient.get().uri("/api/shopping-cart/all-items")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(JsonNode.class).value(items -> assertEquals(3, items.size()));
+
+        StepVerifier.create(webTestClient.get().uri("/api/shopping-cart/all-items")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .exchange()
+                        .expectStatus().isOk()
+                        .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                        .returnResult(JsonNode.class).getResponseBody())
+                .expectNextMatches(item -> item.get("productId").asLong() == productId)
+                .expectNextCount(2)
+                .verifyComplete();
+
+        byte[] cbor = webTestClient.get().uri("/api/shopping-cart/all-items")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_CBOR)
+                .expectBody(byte[].class)
+                .returnResult().getResponseBody();
+        List<CartItemDto> items = new CBORMapper().readValue(cbor, new TypeReference<>() {
+        });
+        assertEquals(3, items.size());
+        assertEquals(0, BigDecimal.valueOf(150).compareTo(items.get(0).getUnitPrice()));
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.microservice.reactive;
+
+import org.example.microservice.dto.ShoppingCartDto;
+import org.example.microservice.exception.AlreadyCheckedOutException;
+import org.example.microservice.exception.InsufficientQuantityException;
+import org.example.microservice.exception.ProductNotFoundException;
+import org.example.microservice.exception.ShoppingCartNotFoundException;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.pricing.PricingEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ReactiveShoppingCartServiceTest {
+
+    @Mock
+    private ReactiveShoppingCartRepository shoppingCartRepository;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Spy
+    private PricingEngine pricingEngine = PricingEngine.standard();
+
+    @InjectMocks
+    private ReactiveShoppingCartService shoppingCartService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    private static Product product(int quantity) {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product 1");
+        product.setQuantity(quantity);
+        product.setRetailPrice(BigDecimal.valueOf(10));
+        return product;
+    }
+
+    private static ShoppingCart cart(long id, Product product, int quantity, boolean checkout) {
+        return ShoppingCart.builder().id(id).product(product).quantity(quantity).isCheckout(checkout).build();
+    }
+
+    @Test
+    public void testAddToCart_ProductNotFound() {
+        when(shoppingCartRepository.findProductById(anyLong())).thenReturn(Mono.empty());
+
+        StepVerifier.create(shoppingCartService.addToCart(new ShoppingCartDto(1L, 1L, 5)))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+        verify(shoppingCartRepository, times(1)).findProductById(1L);
+    }
+
+    @Test
+    public void testAddToCart_InsufficientQuantity() {
+        when(shoppingCartRepository.findProductById(anyLong())).thenReturn(Mono.just(product(2)));
+
+        StepVerifier.create(shoppingCartService.addToCart(new ShoppingCartDto(1L, 1L, 5)))
+                .expectError(InsufficientQuantityException.class)
+                .verify();
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    public void testAddToCart_ShoppingCartNotFound() {
+        when(shoppingCartRepository.findProductById(anyLong())).thenReturn(Mono.just(product(10)));
+        when(shoppingCartRepository.findById(anyLong())).thenReturn(Mono.empty());
+
+        StepVerifier.create(shoppingCartService.addToCart(new ShoppingCartDto(1L, 1L, 5)))
+                .expectError(ShoppingCartNotFoundException.class)
+                .verify();
+        verify(shoppingCartRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testAddToCart_CreateNewShoppingCart() {
+        when(shoppingCartRepository.findProductById(anyLong())).thenReturn(Mono.just(product(10)));
+        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenAnswer(invocation -> {
+            ShoppingCart saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return Mono.just(saved);
+        });
+
+        StepVerifier.create(shoppingCartService.addToCart(new ShoppingCartDto(0L, 1L, 5)))
+                .assertNext(result -> {
+                    assertEquals(7L, result.getId());
+                    assertEquals(5, result.getQuantity());
+                    assertEquals(new BigDecimal("50.00"), result.getTotalAmount());
+                    assertFalse(result.isCheckout());
+                })
+                .verifyComplete();
+        verify(shoppingCartRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void testAddToCart_UpdateExistingShoppingCart() {
+        Product product = product(10);
+        when(shoppingCartRepository.findProductById(anyLong())).thenReturn(Mono.just(product));
+        when(shoppingCartRepository.findById(anyLong())).thenReturn(Mono.just(cart(1L, product, 3, false)));
+        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(shoppingCartService.addToCart(new ShoppingCartDto(1L, 1L, 5)))
+                .assertNext(result -> {
+                    assertEquals(5, result.getQuantity());
+                    assertEquals(new BigDecimal("50.00"), result.getTotalAmount());
+                })
+                .verifyComplete();
+        verify(shoppingCartRepository, times(1)).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    public void testAddToCart_AlreadyCheckedOut() {
+        Product product = product(10);
+        when(shoppingCartRepository.findProductById(anyLong())).thenReturn(Mono.just(product));
+        when(shoppingCartRepository.findById(anyLong())).thenReturn(Mono.just(cart(1L, product, 3, true)));
+
+        StepVerifier.create(shoppingCartService.addToCart(new ShoppingCartDto(1L, 1L, 5)))
+                .expectError(AlreadyCheckedOutException.class)
+                .verify();
+        verify(shoppingCartRepository, never()).save(any(ShoppingCart.class));
+    }
+
+    @Test
+    public void testGetTotal_ShoppingCartNotFound() {
+        when(shoppingCartRepository.findById(anyLong())).thenReturn(Mono.empty());
+
+        StepVerifier.create(shoppingCartService.getTotal(Arrays.asList(1L, 2L, 3L)))
+                .expectError(ShoppingCartNotFoundException.class)
+                .verify();
+        verify(shoppingCartRepository, times(1)).findById(1L);
+        verify(shoppingCartRepository, never()).findById(2L);
+    }
+
+    @Test
+    public void testGetTotal_Success() {
+        Product product = product(10);
+        when(shoppingCartRepository.findById(1L)).thenReturn(Mono.just(cart(1L, product, 2, false)));
+        when(shoppingCartRepository.findById(2L)).thenReturn(Mono.just(cart(2L, product, 3, false)));
+        when(shoppingCartRepository.findById(3L)).thenReturn(Mono.just(cart(3L, product, 4, true)));
+
+        StepVerifier.create(shoppingCartService.getTotal(Arrays.asList(1L, 2L, 3L)))
+                .expectNext(new BigDecimal("50.00"))
+                .verifyComplete();
+    }
+
+    @Test
+    public void testCheckout_ShoppingCartNotFound() {
+        when(shoppingCartRepository.findById(anyLong())).thenReturn(Mono.empty());
+
+        StepVerifier.create(shoppingCartService.checkout(Arrays.asList(1L, 2L)))
+                .expectError(ShoppingCartNotFoundException.class)
+                .verify();
+        verify(shoppingCartRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testCheckout_Success() {
+        Product product = product(10);
+        when(shoppingCartRepository.findById(1L)).thenReturn(Mono.just(cart(1L, product, 2, false)));
+        when(shoppingCartRepository.findById(2L)).thenReturn(Mono.just(cart(2L, product, 3, false)));
+        when(shoppingCartRepository.findById(3L)).thenReturn(Mono.just(cart(3L, product, 1, true)));
+        when(shoppingCartRepository.markCheckedOut(anyLong(), any(BigDecimal.class))).thenReturn(Mono.just(true));
+        when(shoppingCartRepository.decrementQuantity(anyLong(), anyInt())).thenReturn(Mono.just(1L));
+        when(shoppingCartRepository.findProductById(1L)).thenReturn(Mono.just(product(8)), Mono.just(product(5)));
+
+        StepVerifier.create(shoppingCartService.checkout(Arrays.asList(1L, 2L, 3L)))
+                .assertNext(result -> {
+                    assertEquals(2, result.size());
+                    List<Product> products = (List<Product>) result.get(0);
+                    assertEquals(List.of(8, 5), products.stream().map(Product::getQuantity).toList());
+                    assertEquals(List.of("Shopping cart with ID 3 is already checked out."), result.get(1));
+                })
+                .verifyComplete();
+        verify(shoppingCartRepository, times(1)).markCheckedOut(1L, new BigDecimal("20.00"));
+        verify(shoppingCartRepository, times(1)).markCheckedOut(2L, new BigDecimal("30.00"));
+        verify(shoppingCartRepository, times(1)).decrementQuantity(1L, 2);
+        verify(shoppingCartRepository, times(1)).decrementQuantity(1L, 3);
+        verify(transactionalOperator, times(2)).transactional(any(Mono.class));
+    }
+
+    @Test
+    public void testCheckout_ConcurrentCheckoutDoesNotReduceStockTwice() {
+        when(shoppingCartRepository.findById(1L)).thenReturn(Mono.just(cart(1L, product(10), 2, false)));
+        when(shoppingCartRepository.markCheckedOut(anyLong(), any(BigDecimal.class))).thenReturn(Mono.just(false));
+
+        StepVerifier.create(shoppingCartService.checkout(List.of(1L)))
+                .assertNext(result -> {
+                    assertEquals(List.of(), result.get(0));
+                    assertEquals(List.of("Shopping cart with ID 1 is already checked out."), result.get(1));
+                })
+                .verifyComplete();
+        verify(shoppingCartRepository, never()).decrementQuantity(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testCheckout_InsufficientQuantityRollsBack() {
+        when(shoppingCartRepository.findById(1L)).thenReturn(Mono.just(cart(1L, product(10), 2, false)));
+        when(shoppingCartRepository.markCheckedOut(anyLong(), any(BigDecimal.class))).thenReturn(Mono.just(true));
+        when(shoppingCartRepository.decrementQuantity(1L, 2)).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(shoppingCartService.checkout(List.of(1L)))
+                .assertNext(result -> {
+                    assertEquals(List.of(), result.get(0));
+                    assertEquals(List.of("Insufficient quantity for product ID 1 in shopping cart with ID 1"), result.get(1));
+                })
+                .verifyComplete();
+        verify(shoppingCartRepository, never()).findProductById(anyLong());
+    }
+
+    @Test
+    public void testGetAllNonCheckedOutItems_StreamsOnDemand() {
+        Product product = product(10);
+        when(shoppingCartRepository.findByIsCheckoutFalseAndQuantityGreaterThan(0))
+                .thenReturn(Flux.range(1, 100).map(id -> cart(id, product, 1, false)));
+
+        StepVerifier.create(shoppingCartService.getAllNonCheckedOutItems(), 2)
+                .expectNextCount(2)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify();
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.microservice.sales;
+
+import org.example.microservice.ShoppingCartApplication;
+import org.example.microservice.model.DailySales;
+import org.example.microservice.model.HourlySales;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ProductSales;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.repository.HourlySalesRepository;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.ShoppingCartRepository;
+import org.example.microservice.service.SalesReportService;
+import org.example.microservice.service.ShoppingCartService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the rollups against an H2 database: the backfill counts checked-out carts, and checkouts add to the
+ * rollups themselves with {@code sales.rollup.in-checkout}. The scheduled backfill is off, so the tests decide
+ * when carts are counted.
+ */
+@SpringBootTest(classes = ShoppingCartApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sales-rollup;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "sales.rollup.zone=America/New_York",
+        "sales.rollup.backfill-chunk-size=2",
+        "sales.rollup.backfill-interval=0s"
+})
+public class SalesRollupTest {
+    // 2024-03-10 in New York: 23 hours long, with clocks going forward at 02:00 local time
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 10);
+    private static final Instant NOON = Instant.parse("2024-03-10T16:30:00Z");
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private HourlySalesRepository hourlySalesRepository;
+
+    @Autowired
+    private SalesProperties salesProperties;
+
+    private Product product;
+
+    @BeforeEach
+    public void setup() {
+        shoppingCartRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        salesReportService.backfill(true);
+        product = inventoryRepository.save(new Product(null, "UPC-1", "Product 1",
+                BigDecimal.valueOf(100), BigDecimal.valueOf(150), 100));
+    }
+
+    private ShoppingCart cart(int quantity, boolean checkedOut, Instant checkedOutAt) {
+        return shoppingCartRepository.save(ShoppingCart.builder()
+                .product(product)
+                .quantity(quantity)
+                .totalAmount(BigDecimal.valueOf(150L * quantity))
+                .isCheckout(checkedOut)
+                .checkedOutAt(checkedOutAt)
+                .build());
+    }
+
+    private static void assertSales(long quantity, String amount, long checkouts,
+                                    long actualQuantity, BigDecimal actualAmount, long actualCheckouts) {
+        assertEquals(quantity, actualQuantity);
+        assertEquals(0, new BigDecimal(amount).compareTo(actualAmount), () -> amount + " != " + actualAmount);
+        assertEquals(checkouts, actualCheckouts);
+    }
+
+    @Test
+    public void testCheckout_LeavesCartsToBackfill() {
+        ShoppingCart first = cart(2, false, null);
+        ShoppingCart second = cart(3, false, null);
+
+        shoppingCartService.checkout(List.of(first.getId(), second.getId()));
+
+        ShoppingCart checkedOut = shoppingCartRepository.findById(first.getId()).orElseThrow();
+        assertFalse(checkedOut.isRolledUp());
+        assertEquals(0, salesReportService.getProductSales(product.getId()).getQuantity());
+
+        assertEquals(2, salesReportService.backfill(false));
+
+        ProductSales productSales = salesReportService.getProductSales(product.getId());
+        assertSales(5, "750", 2, productSales.getQuantity(), productSales.getAmount(), productSales.getCheckouts());
+        HourlySales hourlySales = hourlySalesRepository
+                .findById(checkedOut.getCheckedOutAt().truncatedTo(ChronoUnit.HOURS)).orElseThrow();
+        assertSales(5, "750", 2, hourlySales.getQuantity(), hourlySales.getAmount(), hourlySales.getCheckouts());
+    }
+
+    @Test
+    public void testCheckout_InCheckoutAddsToRollups() {
+        ShoppingCart first = cart(2, false, null);
+        ShoppingCart second = cart(3, false, null);
+
+        salesProperties.setInCheckout(true);
+        try {
+            shoppingCartService.checkout(List.of(first.getId(), second.getId()));
+        } finally {
+            salesProperties.setInCheckout(false);
+        }
+
+        ShoppingCart checkedOut = shoppingCartRepository.findById(first.getId()).orElseThrow();
+        assertTrue(checkedOut.isRolledUp());
+        ProductSales productSales = salesReportService.getProductSales(product.getId());
+        assertSales(5, "750", 2, productSales.getQuantity(), productSales.getAmount(), productSales.getCheckouts());
+        HourlySales hourlySales = hourlySalesRepository
+                .findById(checkedOut.getCheckedOutAt().truncatedTo(ChronoUnit.HOURS)).orElseThrow();
+        assertSales(5, "750", 2, hourlySales.getQuantity(), hourlySales.getAmount(), hourlySales.getCheckouts());
+        // nothing was counted twice by a backfill afterwards
+        assertEquals(0, salesReportService.backfill(false));
+    }
+
+    @Test
+    public void testBackfill_CountsCartsNotRolledUp() {
+        cart(1, true, NOON);
+        cart(2, true, NOON.plusSeconds(3600));
+        cart(4, true, null);
+        cart(8, false, null);
+
+        assertEquals(3, salesReportService.backfill(false));
+
+        ProductSales productSales = salesReportService.getProductSales(product.getId());
+        assertSales(7, "1050", 3, productSales.getQuantity(), productSales.getAmount(), productSales.getCheckouts());
+        // the cart without a checkout time only counts towards its product
+        DailySales dailySales = salesReportService.getDailySales(DAY);
+        assertSales(3, "450", 2, dailySales.getQuantity(), dailySales.getAmount(), dailySales.getCheckouts());
+        List<HourlySales> hours = salesReportService.getHourlySales(DAY);
+        assertEquals(23, hours.size());
+        assertEquals(Instant.parse("2024-03-10T05:00:00Z"), hours.get(0).getHourStart());
+        assertEquals(1, hours.stream().filter(hour -> hour.getHourStart().equals(Instant.parse("2024-03-10T16:00:00Z")))
+                .findFirst().orElseThrow().getQuantity());
+        assertEquals(3, hours.stream().mapToLong(HourlySales::getQuantity).sum());
+    }
+
+    @Test
+    public void testBackfill_Rebuild() {
+        cart(1, true, NOON);
+        cart(2, true, NOON);
+        salesReportService.backfill(false);
+        cart(4, true, NOON);
+
+        assertEquals(3, salesReportService.backfill(true));
+
+        DailySales dailySales = salesReportService.getDailySales(DAY);
+        assertSales(7, "1050", 3, dailySales.getQuantity(), dailySales.getAmount(), dailySales.getCheckouts());
+        DailySales nextDay = salesReportService.getDailySales(DAY.plusDays(1));
+        assertSales(0, "0", 0, nextDay.getQuantity(), nextDay.getAmount(), nextDay.getCheckouts());
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.microservice.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.microservice.ShoppingCartApplication;
+import org.example.microservice.metrics.QueryCounter;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.ShoppingCartRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements and entity loads of the cart hot paths against an H2 database, so an N+1
+ * regression fails the build instead of showing up as a slow checkout.
+ */
+@SpringBootTest(classes = ShoppingCartApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-count;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class ShoppingCartQueryCountTest {
+    private static final int LINES = 3;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private List<Long> cartIds;
+
+    @BeforeEach
+    public void setup() {
+        shoppingCartRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        cartIds = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            Product product = inventoryRepository.save(new Product(null, "UPC-" + i, "Product " + i,
+                    BigDecimal.valueOf(100), BigDecimal.valueOf(150), 10));
+            ShoppingCart cart = shoppingCartRepository.save(ShoppingCart.builder()
+                    .product(product)
+                    .quantity(2)
+                    .totalAmount(BigDecimal.valueOf(300))
+                    .isCheckout(false)
+                    .build());
+            cartIds.add(cart.getId());
+        }
+        QueryCounter.reset();
+    }
+
+    @Test
+    public void testGetTotal_OneSelectPerLine() {
+        BigDecimal total = shoppingCartService.getTotal(cartIds);
+
+        assertEquals(0, BigDecimal.valueOf(900).compareTo(total));
+        // One select per cart line, with the product joined in: each line loads the cart and its product.
+        assertEquals(LINES, QueryCounter.statements());
+        assertEquals(2 * LINES, QueryCounter.entityLoads());
+    }
+
+    @Test
+    public void testCheckout_StatementsPerLine() {
+        shoppingCartService.checkout(cartIds);
+
+        // Per line: load the cart with its product, then in the checkout's transaction lock the product and the
+        // cart again, which finds its product already loaded, and update both. The sales rollups are left to the
+        // scheduled backfill.
+        assertEquals(5L * LINES, QueryCounter.statements());
+        assertEquals(4L * LINES, QueryCounter.entityLoads());
+    }
+
+    @Test
+    public void testRequestMetrics_RecordedPerEndpoint() throws Exception {
+        long getTotalCalls = meterRegistry.timer("shopping.cart.service", "class", ShoppingCartService.class.getName(),
+                "exception", "none", "method", "getTotal").count();
+
+        mockMvc.perform(post("/api/shopping-cart/add-total")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cartIds.toString()))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("http.server.requests.jdbc.statements")
+                .tag("uri", "/api/shopping-cart/add-total")
+                .summary();
+        assertEquals(1, statements.count());
+        assertEquals(LINES, statements.totalAmount());
+        assertEquals(getTotalCalls + 1, meterRegistry.get("shopping.cart.service").tag("method", "getTotal").timer().count());
+
+        String prometheus = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(prometheus.contains("http_server_requests_jdbc_statements_count"));
+        assertTrue(prometheus.contains("shopping_cart_service_seconds_bucket"));
+        assertTrue(prometheus.contains("hikaricp_connections_pending"));
+    }
+}
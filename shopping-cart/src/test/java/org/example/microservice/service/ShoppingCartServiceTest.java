@@ -1,18 +1,28 @@
 package org.example.microservice.service;
 
+import org.example.microservice.catalog.CatalogIndex;
+import org.example.microservice.catalog.ProductChangedEvent;
 import org.example.microservice.dto.ShoppingCartDto;
 import org.example.microservice.exception.InsufficientQuantityException;
 import org.example.microservice.exception.ProductNotFoundException;
 import org.example.microservice.exception.ShoppingCartNotFoundException;
 import org.example.microservice.model.Product;
 import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.pricing.PricingEngine;
 import org.example.microservice.repository.InventoryRepository;
 import org.example.microservice.repository.ShoppingCartRepository;
+import org.example.microservice.sales.SalesRollup;
+import org.example.microservice.stock.StockAllocator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -22,6 +32,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class ShoppingCartServiceTest {
@@ -32,12 +43,31 @@ public class ShoppingCartServiceTest {
     @Mock
     private ShoppingCartRepository shoppingCartRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private PricingEngine pricingEngine = PricingEngine.standard();
+
+    @Mock
+    private StockAllocator stockAllocator;
+
+    @Mock
+    private SalesRollup salesRollup;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate();
+
     @InjectMocks
     private ShoppingCartService shoppingCartService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
+        transactionTemplate.setTransactionManager(transactionManager);
     }
 
     @Test
@@ -75,13 +105,13 @@ public class ShoppingCartServiceTest {
         product.setRetailPrice(BigDecimal.valueOf(10));
 
         when(inventoryRepository.findById(anyLong())).thenReturn(Optional.of(product));
-        when(shoppingCartRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(shoppingCartRepository.lockById(anyLong())).thenReturn(Optional.empty());
 
         ShoppingCartDto dto = new ShoppingCartDto(1L, 1L, 5);
 
         assertThrows(ShoppingCartNotFoundException.class, () -> shoppingCartService.addToCart(dto));
         verify(inventoryRepository, times(1)).findById(1L);
-        verify(shoppingCartRepository, times(1)).findById(1L);
+        verify(shoppingCartRepository, times(1)).lockById(1L);
     }
 
     @Test
@@ -113,6 +143,37 @@ public class ShoppingCartServiceTest {
         verify(shoppingCartRepository, times(1)).save(any(ShoppingCart.class));
     }
 
+    @Test
+    public void testAddToCart_FromCatalogIndex() {
+        CatalogIndex catalogIndex = new CatalogIndex(pricingEngine, 4);
+        catalogIndex.put(new Product(1L, "UPC-1", "Product 1", null, BigDecimal.valueOf(10), 10));
+        ShoppingCartService indexedService = new ShoppingCartService(inventoryRepository, shoppingCartRepository,
+                pricingEngine, eventPublisher, stockAllocator, salesRollup, transactionTemplate, catalogIndex);
+        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ShoppingCart result = indexedService.addToCart(new ShoppingCartDto(0L, 1L, 5));
+
+        assertEquals(1L, result.getProduct().getId());
+        assertEquals("Product 1", result.getProduct().getName());
+        assertEquals(new BigDecimal("50.00"), result.getTotalAmount());
+        verifyNoInteractions(inventoryRepository);
+    }
+
+    @Test
+    public void testAddToCart_StaleCatalogIndexQuantityCheckedAgainstDatabase() {
+        CatalogIndex catalogIndex = new CatalogIndex(pricingEngine, 4);
+        catalogIndex.put(new Product(1L, "UPC-1", "Product 1", null, BigDecimal.valueOf(10), 2));
+        ShoppingCartService indexedService = new ShoppingCartService(inventoryRepository, shoppingCartRepository,
+                pricingEngine, eventPublisher, stockAllocator, salesRollup, transactionTemplate, catalogIndex);
+        Product restocked = new Product(1L, "UPC-1", "Product 1", null, BigDecimal.valueOf(10), 8);
+        when(inventoryRepository.findById(1L)).thenReturn(Optional.of(restocked));
+        when(shoppingCartRepository.save(any(ShoppingCart.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(5, indexedService.addToCart(new ShoppingCartDto(0L, 1L, 5)).getQuantity());
+        assertThrows(InsufficientQuantityException.class, () -> indexedService.addToCart(new ShoppingCartDto(0L, 1L, 9)));
+        verify(inventoryRepository, times(2)).findById(1L);
+    }
+
     @Test
     public void testAddToCart_UpdateExistingShoppingCart() {
         Product product = new Product();
@@ -129,7 +190,7 @@ public class ShoppingCartServiceTest {
         existingCart.setCheckout(false);
 
         when(inventoryRepository.findById(anyLong())).thenReturn(Optional.of(product));
-        when(shoppingCartRepository.findById(anyLong())).thenReturn(Optional.of(existingCart));
+        when(shoppingCartRepository.lockById(anyLong())).thenReturn(Optional.of(existingCart));
         when(shoppingCartRepository.save(any(ShoppingCart.class))).thenReturn(existingCart);
 
         ShoppingCartDto dto = new ShoppingCartDto(1L, 1L, 5);
@@ -138,10 +199,11 @@ public class ShoppingCartServiceTest {
 
         assertNotNull(result);
         assertEquals(5, result.getQuantity());
-        assertEquals(BigDecimal.valueOf(50), result.getTotalAmount());
+        assertEquals(new BigDecimal("50.00"), result.getTotalAmount());
         verify(inventoryRepository, times(1)).findById(1L);
-        verify(shoppingCartRepository, times(1)).findById(1L);
+        verify(shoppingCartRepository, times(1)).lockById(1L);
         verify(shoppingCartRepository, times(1)).save(any(ShoppingCart.class));
+        verify(transactionManager, times(1)).commit(any());
     }
 
     @Test
@@ -179,7 +241,7 @@ public class ShoppingCartServiceTest {
         List<Long> shoppingCartIds = Arrays.asList(1L, 2L);
         BigDecimal total = shoppingCartService.getTotal(shoppingCartIds);
 
-        assertEquals(BigDecimal.valueOf(50), total);
+        assertEquals(new BigDecimal("50.00"), total);
         verify(shoppingCartRepository, times(1)).findById(1L);
         verify(shoppingCartRepository, times(1)).findById(2L);
     }
@@ -216,7 +278,9 @@ public class ShoppingCartServiceTest {
 
         when(shoppingCartRepository.findById(1L)).thenReturn(Optional.of(cart1));
         when(shoppingCartRepository.findById(2L)).thenReturn(Optional.of(cart2));
-        when(inventoryRepository.save(any(Product.class))).thenReturn(product);
+        when(shoppingCartRepository.lockById(1L)).thenReturn(Optional.of(cart1));
+        when(shoppingCartRepository.lockById(2L)).thenReturn(Optional.of(cart2));
+        when(inventoryRepository.lockById(1L)).thenReturn(Optional.of(product));
 
         List<Long> shoppingCartIds = Arrays.asList(1L, 2L);
         List<Object> result = shoppingCartService.checkout(shoppingCartIds);
@@ -226,6 +290,162 @@ public class ShoppingCartServiceTest {
         assertEquals(5, product.getQuantity());
         verify(shoppingCartRepository, times(1)).findById(1L);
         verify(shoppingCartRepository, times(1)).findById(2L);
-        verify(inventoryRepository, times(2)).save(any(Product.class));
+        verify(inventoryRepository, times(2)).lockById(1L);
+        verify(eventPublisher, times(2)).publishEvent(any(ProductChangedEvent.class));
+    }
+
+    @Test
+    public void testCheckout_InsufficientQuantity() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product 1");
+        product.setQuantity(2);
+        product.setRetailPrice(BigDecimal.valueOf(10));
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.setId(1L);
+        cart.setProduct(product);
+        cart.setQuantity(3);
+
+        when(shoppingCartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.lockById(1L)).thenReturn(Optional.of(cart));
+        when(inventoryRepository.lockById(1L)).thenReturn(Optional.of(product));
+
+        List<Object> result = shoppingCartService.checkout(List.of(1L));
+
+        assertEquals(List.of(), result.get(0));
+        assertEquals(1, ((List<?>) result.get(1)).size());
+        assertFalse(cart.isCheckout());
+        assertEquals(2, product.getQuantity());
+        verify(shoppingCartRepository, never()).saveAndFlush(any(ShoppingCart.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testCheckout_CheckedOutConcurrently() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product 1");
+        product.setQuantity(10);
+        product.setRetailPrice(BigDecimal.valueOf(10));
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.setId(1L);
+        cart.setProduct(product);
+        cart.setQuantity(2);
+
+        ShoppingCart lockedCart = new ShoppingCart();
+        lockedCart.setId(1L);
+        lockedCart.setProduct(product);
+        lockedCart.setQuantity(2);
+        lockedCart.setCheckout(true);
+
+        // open when first loaded, checked out by another request by the time its row is locked
+        when(shoppingCartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.lockById(1L)).thenReturn(Optional.of(lockedCart));
+        when(inventoryRepository.lockById(1L)).thenReturn(Optional.of(product));
+
+        List<Object> result = shoppingCartService.checkout(List.of(1L));
+
+        assertEquals(List.of(), result.get(0));
+        assertEquals(1, ((List<?>) result.get(1)).size());
+        assertEquals(10, product.getQuantity());
+        verify(shoppingCartRepository, never()).saveAndFlush(any(ShoppingCart.class));
+    }
+
+    @Test
+    public void testCheckout_StockBuckets() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product 1");
+        product.setQuantity(10);
+        product.setRetailPrice(BigDecimal.valueOf(10));
+
+        ShoppingCart cart1 = new ShoppingCart();
+        cart1.setId(1L);
+        cart1.setProduct(product);
+        cart1.setQuantity(2);
+
+        ShoppingCart cart2 = new ShoppingCart();
+        cart2.setId(2L);
+        cart2.setProduct(product);
+        cart2.setQuantity(30);
+
+        when(stockAllocator.isEnabled()).thenReturn(true);
+        when(stockAllocator.allocate(1L, 2)).thenReturn(true);
+        when(stockAllocator.allocate(1L, 30)).thenReturn(false);
+        when(shoppingCartRepository.findById(1L)).thenReturn(Optional.of(cart1));
+        when(shoppingCartRepository.findById(2L)).thenReturn(Optional.of(cart2));
+        when(shoppingCartRepository.lockById(1L)).thenReturn(Optional.of(cart1));
+        when(shoppingCartRepository.lockById(2L)).thenReturn(Optional.of(cart2));
+
+        List<Object> result = shoppingCartService.checkout(Arrays.asList(1L, 2L));
+
+        assertEquals(List.of(product), result.get(0));
+        assertEquals(1, ((List<?>) result.get(1)).size());
+        assertTrue(cart1.isCheckout());
+        assertFalse(cart2.isCheckout());
+        assertEquals(10, product.getQuantity());
+        verify(inventoryRepository, never()).lockById(anyLong());
+        verify(shoppingCartRepository, times(1)).saveAndFlush(cart1);
+        verify(shoppingCartRepository, never()).saveAndFlush(cart2);
+    }
+
+    @Test
+    public void testCheckout_LeavesSalesRollupToBackfill() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product 1");
+        product.setQuantity(10);
+        product.setRetailPrice(BigDecimal.valueOf(10));
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.setId(1L);
+        cart.setProduct(product);
+        cart.setQuantity(2);
+
+        when(shoppingCartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.lockById(1L)).thenReturn(Optional.of(cart));
+        when(inventoryRepository.lockById(1L)).thenReturn(Optional.of(product));
+
+        shoppingCartService.checkout(List.of(1L));
+
+        assertTrue(cart.isCheckout());
+        assertFalse(cart.isRolledUp());
+        assertNotNull(cart.getCheckedOutAt());
+        verify(salesRollup, never()).prepare(anyLong(), any());
+        verify(salesRollup, never()).add(any());
+    }
+
+    @Test
+    public void testCheckout_SalesRollupInCheckout() {
+        Product product = new Product();
+        product.setId(1L);
+        product.setName("Product 1");
+        product.setQuantity(10);
+        product.setRetailPrice(BigDecimal.valueOf(10));
+
+        ShoppingCart cart = new ShoppingCart();
+        cart.setId(1L);
+        cart.setProduct(product);
+        cart.setQuantity(2);
+
+        when(salesRollup.isInCheckout()).thenReturn(true);
+        when(shoppingCartRepository.findById(1L)).thenReturn(Optional.of(cart));
+        when(shoppingCartRepository.lockById(1L)).thenReturn(Optional.of(cart));
+        when(inventoryRepository.lockById(1L)).thenReturn(Optional.of(product));
+
+        shoppingCartService.checkout(List.of(1L));
+
+        assertTrue(cart.isCheckout());
+        assertTrue(cart.isRolledUp());
+        assertNotNull(cart.getCheckedOutAt());
+        // rows are created before the checkout's transaction, and added to after its other writes
+        InOrder inOrder = inOrder(salesRollup, transactionManager, shoppingCartRepository);
+        inOrder.verify(salesRollup).prepare(eq(1L), eq(cart.getCheckedOutAt()));
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(shoppingCartRepository).saveAndFlush(cart);
+        inOrder.verify(salesRollup).add(cart);
+        inOrder.verify(transactionManager).commit(any());
     }
 }
@@ -0,0 +1,317 @@
+package org.example.microservice.stress;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.microservice.ShoppingCartApplication;
+import org.example.microservice.dto.ShoppingCartDto;
+import org.example.microservice.exception.AlreadyCheckedOutException;
+import org.example.microservice.exception.InsufficientQuantityException;
+import org.example.microservice.model.Product;
+import org.example.microservice.model.ProductSales;
+import org.example.microservice.model.ShoppingCart;
+import org.example.microservice.model.StockBucket;
+import org.example.microservice.repository.InventoryRepository;
+import org.example.microservice.repository.ProductSalesRepository;
+import org.example.microservice.repository.ShoppingCartRepository;
+import org.example.microservice.repository.StockBucketRepository;
+import org.example.microservice.sales.SalesRollup;
+import org.example.microservice.service.SalesReportService;
+import org.example.microservice.service.ShoppingCartService;
+import org.example.microservice.stock.StockAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessException;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs {@code stress.threads} threads of mixed cart operations (new carts, quantity changes, totals and
+ * checkouts of one to three carts at a time) against a few SKUs with little stock, for {@code stress.seconds};
+ * each subclass keeps the stock in its own way. Operations that fail with a transient
+ * database error, such as a lock timeout or a deadlock, are retried; those still failing after
+ * {@value #MAX_ATTEMPTS} attempts are aborted.
+ * <p>
+ * Afterwards no SKU's stock may be negative, and each SKU's stock must have gone down by exactly the quantity of
+ * its checked-out carts, which its sales rollup must also show once a last backfill has counted the carts the
+ * scheduled ones, every {@code stress.backfill-interval}, did not get to. Throughput, retry and abort rates and
+ * the sampled lock wait are logged and appended to {@code target/stress/cart-stress.csv}.
+ * <p>
+ * It runs on an in-memory H2 database in PostgreSQL mode, waiting up to 10 s for a lock where PostgreSQL would
+ * wait indefinitely: H2 reports its lock timeouts as {@link java.sql.SQLTimeoutException}, on which Hikari closes
+ * the connection. {@code -Dstress.datasource.url=jdbc:postgresql://...}
+ * with {@code stress.datasource.username} and {@code stress.datasource.password} points it at a PostgreSQL
+ * database instead, whose tables it drops and recreates.
+ */
+@Slf4j
+@SpringBootTest(classes = ShoppingCartApplication.class, properties = {
+        "spring.datasource.url=${stress.datasource.url:jdbc:h2:mem:cart-stress;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000}",
+        "spring.datasource.driverClassName=",
+        "spring.datasource.username=${stress.datasource.username:sa}",
+        "spring.datasource.password=${stress.datasource.password:}",
+        "spring.datasource.hikari.maximum-pool-size=${stress.pool-size:16}",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "eureka.client.enabled=false",
+        "sales.rollup.backfill-interval=${stress.backfill-interval:200ms}",
+        "logging.level.org.example.microservice=WARN",
+        "logging.level.org.example.microservice.stress=INFO"
+})
+public abstract class CartStressTest {
+    static final int MAX_ATTEMPTS = 5;
+
+    @Value("${stress.threads:8}")
+    private int threads;
+
+    @Value("${stress.seconds:3}")
+    private int seconds;
+
+    @Value("${stress.skus:4}")
+    private int skus;
+
+    @Value("${stress.stock:150}")
+    private int stock;
+
+    @Autowired
+    private ShoppingCartService shoppingCartService;
+
+    @Autowired
+    private SalesReportService salesReportService;
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private StockBucketRepository stockBucketRepository;
+
+    @Autowired
+    private ProductSalesRepository productSalesRepository;
+
+    @Autowired
+    private StockAllocator stockAllocator;
+
+    @Autowired
+    private SalesRollup salesRollup;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder aborts = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    private final List<Long> openCarts = Collections.synchronizedList(new ArrayList<>());
+    private List<Long> productIds;
+
+    @Test
+    public void testMixedCartOperations() throws Exception {
+        reset();
+
+        long started = System.nanoTime();
+        long lockWaitMillis;
+        try (LockWaitSampler sampler = new LockWaitSampler(dataSource, Duration.ofMillis(5))) {
+            runWorkers(Duration.ofSeconds(seconds));
+            lockWaitMillis = sampler.lockWaitMillis();
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        report(stockAllocator.isEnabled() ? "buckets" : "products", salesRollup.isInCheckout() ? "checkout" : "backfill",
+                elapsed, lockWaitMillis);
+        assertTrue(errors.isEmpty(), () -> "Unexpected failures: " + errors);
+        assertTrue(operations.sum() > 0);
+        assertStockConserved();
+    }
+
+    private void reset() {
+        shoppingCartRepository.deleteAll();
+        stockBucketRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        salesReportService.backfill(true);
+        productIds = new ArrayList<>();
+        for (int i = 0; i < skus; i++) {
+            Product product = inventoryRepository.save(new Product(null, "STRESS-" + i, "Stress " + i,
+                    BigDecimal.valueOf(100), BigDecimal.valueOf(150), stock));
+            productIds.add(product.getId());
+        }
+    }
+
+    private void runWorkers(Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        runOperation();
+                    }
+                } catch (Throwable ex) {
+                    log.error("Operation failed", ex);
+                    errors.add(ex);
+                } finally {
+                    done.countDown();
+                }
+            }, "cart-stress-" + i);
+            worker.start();
+        }
+        assertTrue(done.await(duration.toSeconds() + 60, TimeUnit.SECONDS), "Workers did not finish");
+    }
+
+    private void runOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        if (roll < 35 || openCarts.isEmpty()) {
+            long productId = productIds.get(random.nextInt(productIds.size()));
+            ShoppingCart cart = attempt(() -> shoppingCartService.addToCart(
+                    new ShoppingCartDto(0, productId, 1 + random.nextInt(3))));
+            if (cart != null) {
+                openCarts.add(cart.getId());
+            }
+        } else if (roll < 55) {
+            long cartId = randomCart(random);
+            attempt(() -> shoppingCartService.addToCart(new ShoppingCartDto(cartId,
+                    shoppingCartRepository.findById(cartId).orElseThrow().getProduct().getId(), 1 + random.nextInt(3))));
+        } else if (roll < 65) {
+            List<Long> cartIds = randomCarts(random, 1 + random.nextInt(3));
+            attempt(() -> shoppingCartService.getTotal(cartIds));
+        } else {
+            List<Long> cartIds = randomCarts(random, 1 + random.nextInt(3));
+            List<Object> result = attempt(() -> shoppingCartService.checkout(cartIds));
+            if (result != null) {
+                if (!((List<?>) result.get(1)).isEmpty()) {
+                    rejections.increment();
+                }
+                // checked-out or not, a cart that has been through a checkout is mostly done with
+                openCarts.removeAll(cartIds);
+            }
+        }
+    }
+
+    private long randomCart(ThreadLocalRandom random) {
+        synchronized (openCarts) {
+            return openCarts.get(random.nextInt(openCarts.size()));
+        }
+    }
+
+    private List<Long> randomCarts(ThreadLocalRandom random, int count) {
+        List<Long> cartIds = new ArrayList<>();
+        for (int i = 0; i < count && !openCarts.isEmpty(); i++) {
+            cartIds.add(randomCart(random));
+        }
+        return cartIds;
+    }
+
+    /**
+     * Runs the operation, retrying transient database failures.
+     *
+     * @return its result, or null if it was rejected or aborted
+     */
+    private <T> T attempt(Supplier<T> operation) {
+        operations.increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (InsufficientQuantityException | AlreadyCheckedOutException ex) {
+                rejections.increment();
+                return null;
+            } catch (TransientDataAccessException ex) {
+                if (attempt == MAX_ATTEMPTS) {
+                    aborts.increment();
+                    log.debug("Aborted after {} attempts", attempt, ex);
+                    return null;
+                }
+                retries.increment();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(1, 5L << attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(interrupted);
+                }
+            }
+        }
+    }
+
+    private void assertStockConserved() {
+        salesReportService.backfill(false);
+        Map<Long, Integer> sold = shoppingCartRepository.findAll().stream()
+                .filter(ShoppingCart::isCheckout)
+                .collect(Collectors.groupingBy(cart -> cart.getProduct().getId(),
+                        Collectors.summingInt(ShoppingCart::getQuantity)));
+        for (Long productId : productIds) {
+            int remaining = stockAllocator.isEnabled()
+                    ? stockAllocator.available(productId)
+                    : inventoryRepository.findById(productId).orElseThrow().getQuantity();
+            int soldQuantity = sold.getOrDefault(productId, 0);
+            log.info("Product {}: {} sold, {} left of {}", productId, soldQuantity, remaining, stock);
+            assertTrue(remaining >= 0, "Stock of product " + productId + " went negative: " + remaining);
+            if (stockAllocator.isEnabled()) {
+                for (StockBucket bucket : stockBucketRepository.findAll()) {
+                    assertTrue(bucket.getQuantity() >= 0, "Bucket went negative: " + bucket);
+                }
+            }
+            assertEquals(stock - soldQuantity, remaining, "Stock of product " + productId
+                    + " does not match its checked-out carts");
+            assertEquals(soldQuantity, productSalesRepository.findById(productId)
+                    .map(ProductSales::getQuantity).orElse(0L).intValue(), "Sales of product " + productId);
+        }
+    }
+
+    private void report(String stockMode, String rollupMode, double elapsed, long lockWaitMillis) throws IOException {
+        long total = operations.sum();
+        String throughput = String.format("%.1f", total / elapsed);
+        String retryRate = String.format("%.4f", (double) retries.sum() / total);
+        String abortRate = String.format("%.4f", (double) aborts.sum() / total);
+        String rejectionRate = String.format("%.4f", (double) rejections.sum() / total);
+        log.info("Stock in {}, rollups by {}: {} operations in {} s on {} threads, {} ops/s, {} retries ({}), "
+                        + "{} aborts ({}), {} rejections ({}), {} ms of sampled lock wait", stockMode, rollupMode, total,
+                String.format("%.1f", elapsed), threads, throughput, retries.sum(), retryRate, aborts.sum(), abortRate,
+                rejections.sum(), rejectionRate, lockWaitMillis);
+
+        Path csv = Path.of("target", "stress", "cart-stress.csv");
+        Files.createDirectories(csv.getParent());
+        boolean header = Files.notExists(csv);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(csv,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                writer.println("time,database,stock,rollups,threads,skus,seconds,operations,ops_per_second,retries,"
+                        + "retry_rate,aborts,abort_rate,rejections,rejection_rate,lock_wait_ms");
+            }
+            writer.println(String.join(",", Instant.now().toString(), databaseName(), stockMode, rollupMode,
+                    String.valueOf(threads), String.valueOf(skus), String.format("%.1f", elapsed),
+                    String.valueOf(total), throughput, String.valueOf(retries.sum()), retryRate,
+                    String.valueOf(aborts.sum()), abortRate, String.valueOf(rejections.sum()), rejectionRate,
+                    String.valueOf(lockWaitMillis)));
+        }
+    }
+
+    private String databaseName() {
+        try (var connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName();
+        } catch (Exception ex) {
+            return "unknown";
+        }
+    }
+}
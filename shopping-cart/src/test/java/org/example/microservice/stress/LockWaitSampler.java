@@ -0,0 +1,75 @@
+package org.example.microservice.stress;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Estimates how long sessions spent waiting for row locks by counting, every {@code interval}, the sessions
+ * blocked by another one: H2's {@code INFORMATION_SCHEMA.SESSIONS.BLOCKER_ID}, or PostgreSQL's
+ * {@code pg_stat_activity} waiting on a {@code Lock} event. Waits shorter than the interval are mostly missed,
+ * so the figure is for comparing runs rather than an exact total.
+ */
+@Slf4j
+class LockWaitSampler implements AutoCloseable {
+    private static final String H2_QUERY =
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL";
+    private static final String POSTGRES_QUERY =
+            "SELECT COUNT(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock' AND datname = current_database()";
+
+    private final Duration interval;
+    private final AtomicLong blockedSamples = new AtomicLong();
+    private final Connection connection;
+    private final String query;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    LockWaitSampler(DataSource dataSource, Duration interval) throws SQLException {
+        this.interval = interval;
+        this.connection = dataSource.getConnection();
+        String database = connection.getMetaData().getDatabaseProductName();
+        this.query = database.equalsIgnoreCase("PostgreSQL") ? POSTGRES_QUERY : H2_QUERY;
+        this.thread = new Thread(this::sample, "lock-wait-sampler");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void sample() {
+        try (Statement statement = connection.createStatement()) {
+            while (running) {
+                try (ResultSet resultSet = statement.executeQuery(query)) {
+                    resultSet.next();
+                    blockedSamples.addAndGet(resultSet.getLong(1));
+                }
+                LockSupport.parkNanos(interval.toNanos());
+            }
+        } catch (SQLException ex) {
+            log.warn("Stopped sampling lock waits", ex);
+        }
+    }
+
+    /**
+     * @return session-milliseconds spent blocked on another session's locks so far
+     */
+    long lockWaitMillis() {
+        return blockedSamples.get() * interval.toMillis();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        running = false;
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        connection.close();
+    }
+}
@@ -0,0 +1,7 @@
+package org.example.microservice.stress;
+
+/**
+ * {@link CartStressTest} with each SKU's stock in the {@code quantity} column of its {@code products} row.
+ */
+public class ProductStockStressTest extends CartStressTest {
+}
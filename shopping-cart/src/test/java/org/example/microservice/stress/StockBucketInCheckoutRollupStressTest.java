@@ -0,0 +1,11 @@
+package org.example.microservice.stress;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link StockBucketStressTest} with every checkout adding its cart to the sales rollups in its own transaction,
+ * to compare with the scheduled backfill.
+ */
+@TestPropertySource(properties = {"stock.buckets.enabled=true", "sales.rollup.in-checkout=true"})
+public class StockBucketInCheckoutRollupStressTest extends CartStressTest {
+}
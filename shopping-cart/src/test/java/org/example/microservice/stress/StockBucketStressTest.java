@@ -0,0 +1,10 @@
+package org.example.microservice.stress;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * {@link CartStressTest} with each SKU's stock split over stock buckets.
+ */
+@TestPropertySource(properties = "stock.buckets.enabled=true")
+public class StockBucketStressTest extends CartStressTest {
+}